@@ -0,0 +1,187 @@
+package com.getir.librarymanagementsystem.cache;
+
+import com.getir.librarymanagementsystem.model.dto.response.BookCacheStatsResponse;
+import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.service.BookChangeListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// LRU cache by id and ISBN; entries expire after load, which bounds staleness from changes made on other nodes.
+@Component
+public class BookCache implements BookChangeListener {
+
+    private final int maximumSize;
+    private final long ttlNanos;
+    private final Map<Long, Entry> byId;
+    private final Map<String, Long> idByIsbn;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    // Bumped on every invalidation; a load that raced with one is not cached because it may have read the old row.
+    private long generation;
+
+    public BookCache(@Value("${library.cache.books.maximum-size:10000}") int maximumSize,
+                     @Value("${library.cache.books.ttl-seconds:300}") long ttlSeconds) {
+        this.maximumSize = maximumSize;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.byId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() <= BookCache.this.maximumSize) {
+                    return false;
+                }
+                idByIsbn.remove(eldest.getValue().book().getIsbn(), eldest.getKey());
+                evictions.increment();
+                return true;
+            }
+        };
+        this.idByIsbn = new HashMap<>();
+    }
+
+    public Optional<Book> findById(Long id, Function<Long, Optional<Book>> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = live(id);
+            if (entry != null) {
+                hits.increment();
+                return Optional.of(copy(entry.book()));
+            }
+            misses.increment();
+            loadGeneration = generation;
+        }
+        return load(loader.apply(id), loadGeneration);
+    }
+
+    public Optional<Book> findByIsbn(String isbn, Function<String, Optional<Book>> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Long id = idByIsbn.get(isbn);
+            Entry entry = id == null ? null : live(id);
+            if (entry != null && Objects.equals(isbn, entry.book().getIsbn())) {
+                hits.increment();
+                return Optional.of(copy(entry.book()));
+            }
+            misses.increment();
+            loadGeneration = generation;
+        }
+        return load(loader.apply(isbn), loadGeneration);
+    }
+
+    @Override
+    public void onBookSaved(Book book) {
+        if (book != null && book.getId() != null) {
+            invalidate(book.getId());
+        }
+    }
+
+    @Override
+    public void onBookDeleted(Long bookId) {
+        invalidate(bookId);
+    }
+
+    @Override
+    public void onAvailabilityChanged(Long bookId, boolean available) {
+        invalidate(bookId);
+    }
+
+    // Dropped again after commit, so a reader that loaded the old row mid-transaction cannot keep it.
+    public void invalidate(Long bookId) {
+        evict(bookId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(bookId);
+                }
+            });
+        }
+    }
+
+    public synchronized void clear() {
+        byId.clear();
+        idByIsbn.clear();
+        generation++;
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+        expirations.reset();
+    }
+
+    public synchronized BookCacheStatsResponse stats() {
+        long hitCount = hits.sum();
+        long requests = hitCount + misses.sum();
+        return BookCacheStatsResponse.builder()
+                .size(byId.size())
+                .maximumSize(maximumSize)
+                .ttlSeconds(TimeUnit.NANOSECONDS.toSeconds(ttlNanos))
+                .hits(hitCount)
+                .misses(misses.sum())
+                .hitRate(requests == 0 ? 0 : (double) hitCount / requests)
+                .evictions(evictions.sum())
+                .expirations(expirations.sum())
+                .build();
+    }
+
+    private Optional<Book> load(Optional<Book> loaded, long loadGeneration) {
+        loaded.ifPresent(book -> {
+            if (book.getId() == null) {
+                return;
+            }
+            Book cached = copy(book);
+            synchronized (this) {
+                if (generation != loadGeneration) {
+                    return;
+                }
+                Entry previous = byId.put(cached.getId(), new Entry(cached, System.nanoTime() + ttlNanos));
+                if (previous != null) {
+                    idByIsbn.remove(previous.book().getIsbn(), cached.getId());
+                }
+                if (cached.getIsbn() != null) {
+                    idByIsbn.put(cached.getIsbn(), cached.getId());
+                }
+            }
+        });
+        return loaded;
+    }
+
+    private Entry live(Long id) {
+        Entry entry = byId.get(id);
+        if (entry != null && entry.expiresAt() - System.nanoTime() <= 0) {
+            remove(id);
+            expirations.increment();
+            return null;
+        }
+        return entry;
+    }
+
+    private synchronized void evict(Long bookId) {
+        remove(bookId);
+        generation++;
+    }
+
+    private void remove(Long bookId) {
+        Entry entry = byId.remove(bookId);
+        if (entry != null) {
+            idByIsbn.remove(entry.book().getIsbn(), bookId);
+        }
+    }
+
+    private static Book copy(Book book) {
+        return book.toBuilder().build();
+    }
+
+    private record Entry(Book book, long expiresAt) {
+    }
+}
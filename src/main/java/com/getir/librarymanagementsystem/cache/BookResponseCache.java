@@ -0,0 +1,214 @@
+package com.getir.librarymanagementsystem.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.getir.librarymanagementsystem.model.dto.pagination.KeysetPage;
+import com.getir.librarymanagementsystem.model.dto.response.BookResponse;
+import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.service.BookChangeListener;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Serialized responses with ETags; stale entries are served while a background reload catches remote changes.
+@Slf4j
+@Component
+public class BookResponseCache implements BookChangeListener {
+
+    private final ObjectMapper objectMapper;
+    private final int maximumSize;
+    private final long freshNanos;
+    private final long staleNanos;
+    private final Map<Long, RenderedResponse> books;
+    private final Map<String, RenderedResponse> pages;
+    private final Set<Object> refreshing = new HashSet<>();
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "book-response-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    // Bumped on every invalidation; a render that raced with one is not cached because it may hold the old state.
+    private long generation;
+
+    public BookResponseCache(ObjectMapper objectMapper,
+                             @Value("${library.cache.responses.maximum-size:10000}") int maximumSize,
+                             @Value("${library.cache.responses.fresh-seconds:5}") long freshSeconds,
+                             @Value("${library.cache.responses.stale-seconds:60}") long staleSeconds) {
+        this.objectMapper = objectMapper;
+        this.maximumSize = maximumSize;
+        this.freshNanos = TimeUnit.SECONDS.toNanos(freshSeconds);
+        this.staleNanos = TimeUnit.SECONDS.toNanos(staleSeconds);
+        this.books = boundedMap();
+        this.pages = boundedMap();
+    }
+
+    public Optional<RenderedResponse> book(Long id, Supplier<Optional<BookResponse>> loader) {
+        return lookup(books, id, () -> loader.get().map(this::renderBook));
+    }
+
+    public RenderedResponse page(String key, Supplier<KeysetPage<BookResponse>> loader) {
+        return lookup(pages, key, () -> Optional.of(renderPage(loader.get()))).orElseThrow();
+    }
+
+    @Override
+    public void onBookSaved(Book book) {
+        if (book != null && book.getId() != null) {
+            invalidate(book.getId());
+        }
+    }
+
+    @Override
+    public void onBookDeleted(Long bookId) {
+        invalidate(bookId);
+    }
+
+    @Override
+    public void onAvailabilityChanged(Long bookId, boolean available) {
+        invalidate(bookId);
+    }
+
+    public void invalidate(Long bookId) {
+        evict(bookId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(bookId);
+                }
+            });
+        }
+    }
+
+    public synchronized void clear() {
+        books.clear();
+        pages.clear();
+        generation++;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long staleHits() {
+        return staleHits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private <K> Optional<RenderedResponse> lookup(Map<K, RenderedResponse> cache, K key,
+                                                  Supplier<Optional<RenderedResponse>> renderer) {
+        long renderGeneration;
+        synchronized (this) {
+            RenderedResponse cached = cache.get(key);
+            long age = cached == null ? Long.MAX_VALUE : System.nanoTime() - cached.renderedAt();
+            if (age < freshNanos) {
+                hits.increment();
+                return Optional.of(cached);
+            }
+            if (age < freshNanos + staleNanos) {
+                staleHits.increment();
+                if (refreshing.add(key)) {
+                    refreshInBackground(cache, key, renderer);
+                }
+                return Optional.of(cached);
+            }
+            misses.increment();
+            renderGeneration = generation;
+        }
+        return store(cache, key, renderer.get(), renderGeneration);
+    }
+
+    private <K> void refreshInBackground(Map<K, RenderedResponse> cache, K key,
+                                         Supplier<Optional<RenderedResponse>> renderer) {
+        long renderGeneration = generation;
+        try {
+            refresher.execute(() -> {
+                try {
+                    store(cache, key, renderer.get(), renderGeneration);
+                } catch (RuntimeException e) {
+                    log.warn("Background refresh of cached book response {} failed", key, e);
+                } finally {
+                    synchronized (this) {
+                        refreshing.remove(key);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+
+    private synchronized <K> Optional<RenderedResponse> store(Map<K, RenderedResponse> cache, K key,
+                                                             Optional<RenderedResponse> rendered, long renderGeneration) {
+        if (generation == renderGeneration) {
+            if (rendered.isPresent()) {
+                cache.put(key, rendered.get());
+            } else {
+                cache.remove(key);
+            }
+        }
+        return rendered;
+    }
+
+    private synchronized void evict(Long bookId) {
+        books.remove(bookId);
+        // Any write can move a book into or out of any page.
+        pages.clear();
+        generation++;
+    }
+
+    private RenderedResponse renderBook(BookResponse book) {
+        // Borrows that leave the flag alone do not bump the version, so the copy count is part of the tag.
+        String etag = "\"" + book.getId() + "-" + book.getVersion() + "-" + book.getAvailableCopies() + "\"";
+        return new RenderedResponse(serialize(book), etag, null, null, System.nanoTime());
+    }
+
+    private RenderedResponse renderPage(KeysetPage<BookResponse> page) {
+        byte[] body = serialize(page.items());
+        String etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+        return new RenderedResponse(body, etag, page.nextCursor(), page.totalEstimate(), System.nanoTime());
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize book response", e);
+        }
+    }
+
+    private <K> Map<K, RenderedResponse> boundedMap() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, RenderedResponse> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+}
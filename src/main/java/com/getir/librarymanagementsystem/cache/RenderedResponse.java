@@ -0,0 +1,5 @@
+package com.getir.librarymanagementsystem.cache;
+
+// Serialized response body kept together with the headers needed to replay it.
+public record RenderedResponse(byte[] body, String etag, String nextCursor, Long totalEstimate, long renderedAt) {
+}
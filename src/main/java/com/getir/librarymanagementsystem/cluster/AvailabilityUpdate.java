@@ -0,0 +1,7 @@
+package com.getir.librarymanagementsystem.cluster;
+
+import com.getir.librarymanagementsystem.model.dto.event.BookAvailabilityEvent;
+
+// Outbox ids are shared by all nodes, so they tell a redelivered or late event from a newer one.
+public record AvailabilityUpdate(long outboxId, BookAvailabilityEvent event) {
+}
@@ -0,0 +1,267 @@
+package com.getir.librarymanagementsystem.cluster;
+
+import com.getir.librarymanagementsystem.model.dto.event.BookAvailabilityEvent;
+import com.getir.librarymanagementsystem.model.dto.response.ClusterStatsResponse;
+import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.repository.BookRepository;
+import com.getir.librarymanagementsystem.service.BookAvailabilityPublisher;
+import com.getir.librarymanagementsystem.service.BookChangeListener;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Nodes apply an availability event only when its outbox id is newer than the last one applied for the book.
+@Slf4j
+@Component
+public class ClusterEventBus {
+
+    // Keeps each message within what a PostgreSQL notification carries.
+    static final int EVENTS_PER_MESSAGE = 40;
+    static final int BOOKS_PER_MESSAGE = 300;
+    private static final int TRACKED_BOOKS = 100_000;
+    private static final int TRACKED_MESSAGES = 10_000;
+
+    private final ClusterTransport transport;
+    private final BookAvailabilityPublisher publisher;
+    private final BookRepository bookRepository;
+    private final List<BookChangeListener> bookChangeListeners;
+    private final String node;
+    // Node plus start time, so messages of a restarted node are not taken for ones already seen.
+    private final String instance;
+    private final long flushMillis;
+    private final AtomicLong nextMessageId = new AtomicLong();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cluster-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Set<Long> changed = new LinkedHashSet<>();
+    private final Set<Long> deleted = new LinkedHashSet<>();
+    // Receiving state, guarded by the receive lock.
+    private final Map<Long, Long> lastApplied = bounded(TRACKED_BOOKS);
+    private final Map<String, Boolean> seenMessages = bounded(TRACKED_MESSAGES);
+    private final LongAdder messagesSent = new LongAdder();
+    private final LongAdder messagesReceived = new LongAdder();
+    private final LongAdder duplicateMessages = new LongAdder();
+    private final LongAdder eventsApplied = new LongAdder();
+    private final LongAdder staleEvents = new LongAdder();
+    private final LongAdder invalidationsSent = new LongAdder();
+    private final LongAdder invalidationsCoalesced = new LongAdder();
+    private final LongAdder invalidationsApplied = new LongAdder();
+
+    @Autowired
+    public ClusterEventBus(ClusterTransport transport,
+                           BookAvailabilityPublisher publisher,
+                           BookRepository bookRepository,
+                           List<BookChangeListener> bookChangeListeners,
+                           @Value("${library.cluster.node-id:}") String node,
+                           @Value("${library.cluster.flush-millis:50}") long flushMillis) {
+        this.transport = transport;
+        this.publisher = publisher;
+        this.bookRepository = bookRepository;
+        this.bookChangeListeners = bookChangeListeners;
+        this.node = node == null || node.isBlank() ? UUID.randomUUID().toString().substring(0, 8) : node;
+        this.instance = this.node + "-" + Long.toString(System.currentTimeMillis(), 36);
+        this.flushMillis = flushMillis;
+        transport.subscribe(this::receive);
+        log.info("Cluster event bus started as node {} on {}", this.node, transport.getClass().getSimpleName());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public String node() {
+        return node;
+    }
+
+    // Runs inside the relay's transaction, so delivery happens exactly when it commits.
+    public void publishAvailability(List<AvailabilityUpdate> updates) {
+        for (int from = 0; from < updates.size(); from += EVENTS_PER_MESSAGE) {
+            send(new ArrayList<>(updates.subList(from, Math.min(updates.size(), from + EVENTS_PER_MESSAGE))),
+                    List.of(), List.of());
+        }
+    }
+
+    public void bookChanged(Long bookId) {
+        afterCommit(() -> {
+            synchronized (changed) {
+                if (deleted.contains(bookId) || !changed.add(bookId)) {
+                    invalidationsCoalesced.increment();
+                }
+            }
+        });
+    }
+
+    public void bookDeleted(Long bookId) {
+        afterCommit(() -> {
+            synchronized (changed) {
+                changed.remove(bookId);
+                if (!deleted.add(bookId)) {
+                    invalidationsCoalesced.increment();
+                }
+            }
+        });
+    }
+
+    void flush() {
+        List<Long> changedBooks;
+        List<Long> deletedBooks;
+        synchronized (changed) {
+            if (changed.isEmpty() && deleted.isEmpty()) {
+                return;
+            }
+            changedBooks = new ArrayList<>(changed);
+            deletedBooks = new ArrayList<>(deleted);
+            changed.clear();
+            deleted.clear();
+        }
+        for (int from = 0; from < changedBooks.size(); from += BOOKS_PER_MESSAGE) {
+            send(List.of(), changedBooks.subList(from, Math.min(changedBooks.size(), from + BOOKS_PER_MESSAGE)), List.of());
+        }
+        for (int from = 0; from < deletedBooks.size(); from += BOOKS_PER_MESSAGE) {
+            send(List.of(), List.of(), deletedBooks.subList(from, Math.min(deletedBooks.size(), from + BOOKS_PER_MESSAGE)));
+        }
+        invalidationsSent.add(changedBooks.size() + deletedBooks.size());
+    }
+
+    public ClusterStatsResponse stats() {
+        int pending;
+        synchronized (changed) {
+            pending = changed.size() + deleted.size();
+        }
+        return ClusterStatsResponse.builder()
+                .node(node)
+                .transport(transport.getClass().getSimpleName())
+                .messagesSent(messagesSent.sum())
+                .messagesReceived(messagesReceived.sum())
+                .duplicateMessages(duplicateMessages.sum())
+                .eventsApplied(eventsApplied.sum())
+                .staleEvents(staleEvents.sum())
+                .pendingInvalidations(pending)
+                .invalidationsSent(invalidationsSent.sum())
+                .invalidationsCoalesced(invalidationsCoalesced.sum())
+                .invalidationsApplied(invalidationsApplied.sum())
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdown();
+        flushQuietly();
+    }
+
+    synchronized void receive(ClusterMessage message) {
+        messagesReceived.increment();
+        if (seenMessages.put(message.node() + ":" + message.id(), Boolean.TRUE) != null) {
+            duplicateMessages.increment();
+            return;
+        }
+        boolean remote = !instance.equals(message.node());
+        if (message.availability() != null && !message.availability().isEmpty()) {
+            applyAvailability(message.availability(), remote);
+        }
+        if (remote) {
+            applyInvalidations(message.changedBooks(), message.deletedBooks());
+        }
+    }
+
+    private void applyAvailability(List<AvailabilityUpdate> updates, boolean remote) {
+        List<BookAvailabilityEvent> events = new ArrayList<>(updates.size());
+        for (AvailabilityUpdate update : updates) {
+            BookAvailabilityEvent event = update.event();
+            Long applied = lastApplied.get(event.getBookId());
+            if (applied != null && applied >= update.outboxId()) {
+                staleEvents.increment();
+                continue;
+            }
+            lastApplied.put(event.getBookId(), update.outboxId());
+            // Nodes in one JVM share the instance; every publisher numbers its own copy.
+            events.add(new BookAvailabilityEvent(event.getBookId(), event.isAvailable(), event.getAvailableCopies(),
+                    event.getHoldId(), event.getBorrowId()));
+        }
+        publisher.publishAll(events);
+        eventsApplied.add(events.size());
+        if (remote) {
+            events.forEach(event -> bookChangeListeners.forEach(listener ->
+                    listener.onAvailabilityChanged(event.getBookId(), event.isAvailable())));
+        }
+    }
+
+    private void applyInvalidations(List<Long> changedBooks, List<Long> deletedBooks) {
+        if (changedBooks != null && !changedBooks.isEmpty()) {
+            Set<Long> missing = new HashSet<>(changedBooks);
+            for (Book book : bookRepository.findAllById(changedBooks)) {
+                missing.remove(book.getId());
+                bookChangeListeners.forEach(listener -> listener.onBookSaved(book));
+            }
+            missing.forEach(this::dropBook);
+            invalidationsApplied.add(changedBooks.size());
+        }
+        if (deletedBooks != null && !deletedBooks.isEmpty()) {
+            deletedBooks.forEach(this::dropBook);
+            invalidationsApplied.add(deletedBooks.size());
+        }
+    }
+
+    private void dropBook(Long bookId) {
+        bookChangeListeners.forEach(listener -> listener.onBookDeleted(bookId));
+    }
+
+    private void send(List<AvailabilityUpdate> availability, List<Long> changedBooks, List<Long> deletedBooks) {
+        transport.send(new ClusterMessage(instance, nextMessageId.incrementAndGet(), availability,
+                List.copyOf(changedBooks), List.copyOf(deletedBooks)));
+        messagesSent.increment();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Sending book invalidations to the cluster failed", e);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static <K, V> Map<K, V> bounded(int entries) {
+        return new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > entries;
+            }
+        };
+    }
+}
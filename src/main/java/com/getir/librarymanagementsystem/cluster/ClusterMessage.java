@@ -0,0 +1,8 @@
+package com.getir.librarymanagementsystem.cluster;
+
+import java.util.List;
+
+// The id is unique per node; a message seen twice is dropped.
+public record ClusterMessage(String node, long id, List<AvailabilityUpdate> availability, List<Long> changedBooks,
+                             List<Long> deletedBooks) {
+}
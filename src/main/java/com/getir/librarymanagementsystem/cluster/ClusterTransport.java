@@ -0,0 +1,11 @@
+package com.getir.librarymanagementsystem.cluster;
+
+import java.util.function.Consumer;
+
+// Every subscribed node gets every message, its sender included; messages sent in a transaction go out on commit.
+public interface ClusterTransport {
+
+    void send(ClusterMessage message);
+
+    void subscribe(Consumer<ClusterMessage> receiver);
+}
@@ -0,0 +1,41 @@
+package com.getir.librarymanagementsystem.cluster;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// For a single node, or for several nodes started side by side in one JVM by tests.
+@Component
+@ConditionalOnProperty(name = "library.cluster.transport", havingValue = "loopback", matchIfMissing = true)
+public class LoopbackClusterTransport implements ClusterTransport {
+
+    private final List<Consumer<ClusterMessage>> receivers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void send(ClusterMessage message) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deliver(message);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deliver(message);
+            }
+        });
+    }
+
+    @Override
+    public void subscribe(Consumer<ClusterMessage> receiver) {
+        receivers.add(receiver);
+    }
+
+    private void deliver(ClusterMessage message) {
+        receivers.forEach(receiver -> receiver.accept(message));
+    }
+}
@@ -0,0 +1,119 @@
+package com.getir.librarymanagementsystem.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Consumer;
+
+// NOTIFY rides the caller's transaction; messages sent while the LISTEN connection is down are not redelivered.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "library.cluster.transport", havingValue = "postgres")
+public class PostgresClusterTransport implements ClusterTransport {
+
+    static final String CHANNEL = "library_cluster";
+    // NOTIFY payloads must stay below 8000 bytes.
+    static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final int POLL_MILLIS = 500;
+    private static final long RECONNECT_MILLIS = 1000;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private volatile boolean running = true;
+    private Thread listener;
+
+    public PostgresClusterTransport(DataSource dataSource, JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void send(ClusterMessage message) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize cluster message " + message.id(), e);
+        }
+        int bytes = payload.getBytes(StandardCharsets.UTF_8).length;
+        if (bytes > MAX_PAYLOAD_BYTES) {
+            throw new IllegalArgumentException("Cluster message " + message.id() + " is " + bytes
+                    + " bytes, more than a notification carries");
+        }
+        jdbcTemplate.queryForObject("select pg_notify(?, ?)", Object.class, CHANNEL, payload);
+    }
+
+    @Override
+    public synchronized void subscribe(Consumer<ClusterMessage> receiver) {
+        if (listener != null) {
+            throw new IllegalStateException("PostgreSQL cluster transport already has a receiver");
+        }
+        listener = new Thread(() -> listen(receiver), "cluster-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    synchronized void shutdown() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    private void listen(Consumer<ClusterMessage> receiver) {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.info("Listening for cluster messages on channel {}", CHANNEL);
+                PGConnection notifications = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] received = notifications.getNotifications(POLL_MILLIS);
+                    if (received == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : received) {
+                        receive(receiver, notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cluster listener connection failed, reconnecting in {} ms", RECONNECT_MILLIS, e);
+                try {
+                    Thread.sleep(RECONNECT_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(Consumer<ClusterMessage> receiver, String payload) {
+        try {
+            receiver.accept(objectMapper.readValue(payload, ClusterMessage.class));
+        } catch (JsonProcessingException e) {
+            log.error("Dropping malformed cluster message: {}", payload, e);
+        } catch (RuntimeException e) {
+            log.error("Applying cluster message failed", e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.getir.librarymanagementsystem.controller;
+
+import com.getir.librarymanagementsystem.cluster.ClusterEventBus;
+import com.getir.librarymanagementsystem.model.dto.response.AvailabilityFeedStatsResponse;
+import com.getir.librarymanagementsystem.model.dto.response.ClusterStatsResponse;
+import com.getir.librarymanagementsystem.model.dto.response.OutboxStatsResponse;
+import com.getir.librarymanagementsystem.outbox.AvailabilityOutboxRelay;
+import com.getir.librarymanagementsystem.stream.AvailabilityFeed;
+import com.getir.librarymanagementsystem.stream.FeedEvent;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/stream")
+@SecurityRequirement(name = "Bearer Authentication")
+@RequiredArgsConstructor
+@Tag(name = "Availability Stream", description = "Server-Sent Events feed of book availability changes")
+public class AvailabilityStreamController {
+
+    private static final int MAX_BOOKS_PER_SUBSCRIPTION = 500;
+    // Keeps idle connections from being closed by proxies between kiosks and the server.
+    private static final Duration HEARTBEAT = Duration.ofSeconds(15);
+
+    private final AvailabilityFeed availabilityFeed;
+    private final AvailabilityOutboxRelay availabilityOutboxRelay;
+    private final ClusterEventBus clusterEventBus;
+
+    @GetMapping(value = "/books", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream book availability", description = "Server-Sent Events with the availability of the given books, starting with their current state. Without ids every book is followed. A client that reads slowly gets the latest state of each book instead of every change; 'handoff' events report a returned copy going to a hold. A client reconnecting with Last-Event-ID receives the events it missed; when they are no longer held it gets the current state again, or a 'reset' event when following every book")
+    public Flux<ServerSentEvent<Object>> books(@RequestParam(required = false) List<Long> ids,
+                                               @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        List<Long> bookIds = ids == null ? List.of() : ids;
+        if (bookIds.size() > MAX_BOOKS_PER_SUBSCRIPTION) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_BOOKS_PER_SUBSCRIPTION + " books per subscription");
+        }
+        log.debug("Opening availability stream for {} books, last event {}",
+                bookIds.isEmpty() ? "all" : bookIds.size(), lastEventId);
+        Flux<ServerSentEvent<Object>> events = availabilityFeed.subscribe(bookIds, lastEventId)
+                .map(this::toServerSentEvent);
+        Flux<ServerSentEvent<Object>> heartbeats = Flux.interval(HEARTBEAT)
+                .onBackpressureDrop()
+                .map(tick -> ServerSentEvent.builder().comment("heartbeat").build());
+        // A prefetch of one leaves unread events in the feed's mailbox, where they are conflated.
+        return Flux.merge(1, events, heartbeats);
+    }
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    @Operation(summary = "Availability stream statistics", description = "Subscriber counts and delivered/conflated event counters of the availability feed (LIBRARIAN access only)")
+    public ResponseEntity<AvailabilityFeedStatsResponse> stats() {
+        return ResponseEntity.ok(availabilityFeed.stats());
+    }
+
+    @GetMapping("/outbox")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    @Operation(summary = "Availability outbox statistics", description = "Pending outbox events and dispatch lag of the relay that feeds the stream (LIBRARIAN access only)")
+    public ResponseEntity<OutboxStatsResponse> outbox() {
+        return ResponseEntity.ok(availabilityOutboxRelay.stats());
+    }
+
+    @GetMapping("/cluster")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    @Operation(summary = "Cluster event bus statistics", description = "Messages this node sent and received, dropped duplicates and stale events, and book invalidations (LIBRARIAN access only)")
+    public ResponseEntity<ClusterStatsResponse> cluster() {
+        return ResponseEntity.ok(clusterEventBus.stats());
+    }
+
+    private ServerSentEvent<Object> toServerSentEvent(FeedEvent feedEvent) {
+        ServerSentEvent.Builder<Object> builder = feedEvent.isReset()
+                ? ServerSentEvent.builder().event("reset").data("reload")
+                : ServerSentEvent.builder()
+                        .event(feedEvent.event().getHoldId() == null ? "availability" : "handoff")
+                        .data(feedEvent.event());
+        if (feedEvent.resumeSequence() != null) {
+            builder.id(availabilityFeed.eventId(feedEvent.resumeSequence()));
+        }
+        return builder.build();
+    }
+}
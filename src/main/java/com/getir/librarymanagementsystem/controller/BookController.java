@@ -1,16 +1,42 @@
 package com.getir.librarymanagementsystem.controller;
 
+import com.getir.librarymanagementsystem.cache.BookResponseCache;
+import com.getir.librarymanagementsystem.importer.BookImportService;
+import com.getir.librarymanagementsystem.importer.ImportFormat;
+import com.getir.librarymanagementsystem.model.dto.pagination.BookSortField;
+import com.getir.librarymanagementsystem.model.dto.pagination.KeysetCursor;
+import com.getir.librarymanagementsystem.model.dto.response.BookCacheStatsResponse;
+import com.getir.librarymanagementsystem.model.dto.response.BookImportResponse;
+import com.getir.librarymanagementsystem.model.dto.response.BookResponse;
+import com.getir.librarymanagementsystem.model.dto.response.FacetedSearchResponse;
+import com.getir.librarymanagementsystem.model.dto.response.SuggestionResponse;
 import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.model.mapper.BookMapper;
+import com.getir.librarymanagementsystem.search.BookSuggestionIndex;
+import com.getir.librarymanagementsystem.search.FacetField;
 import com.getir.librarymanagementsystem.service.BookService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @RestController
@@ -20,20 +46,34 @@ import java.util.List;
 @Tag(name = "Book Management", description = "Endpoints for managing books in the library")
 public class BookController {
 
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
     private final BookService bookService;
+    private final BookImportService bookImportService;
+    private final BookMapper bookMapper;
+    private final BookResponseCache bookResponseCache;
 
     @PostMapping
     @Operation(summary = "Add a new book", description = "Create and save a new book to the library")
-    public ResponseEntity<Book> save(@RequestBody Book book) {
+    public ResponseEntity<BookResponse> save(@RequestBody Book book) {
         log.info("Saving new book: {}", book.getTitle());
-        return ResponseEntity.ok(bookService.save(book));
+        return ResponseEntity.ok(bookMapper.toResponse(bookService.save(book)));
+    }
+
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Bulk import books", description = "Stream a CSV (with header row) or NDJSON body of books. Rows are committed in chunks; rows with a missing or duplicate ISBN are skipped and listed in the report")
+    public ResponseEntity<BookImportResponse> importBooks(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                          InputStream body) {
+        ImportFormat format = TEXT_CSV.isCompatibleWith(MediaType.parseMediaType(contentType)) ? ImportFormat.CSV : ImportFormat.NDJSON;
+        log.info("Importing books as {}", format);
+        return ResponseEntity.ok(bookImportService.importBooks(body, format));
     }
 
     @PutMapping("/{id}")
     @Operation(summary = "Update book", description = "Update an existing book's information by ID")
-    public ResponseEntity<Book> update(@PathVariable Long id, @RequestBody Book book) {
+    public ResponseEntity<BookResponse> update(@PathVariable Long id, @RequestBody Book book) {
         log.info("Updating book with ID {}: {}", id, book.getTitle());
-        return ResponseEntity.ok(bookService.update(id, book));
+        return ResponseEntity.ok(bookMapper.toResponse(bookService.update(id, book)));
     }
 
     @DeleteMapping("/{id}")
@@ -44,32 +84,90 @@ public class BookController {
         return ResponseEntity.noContent().build();
     }
 
-    @GetMapping("/{id}")
-    @Operation(summary = "Get book by ID", description = "Fetch a single book's details using its ID")
-    public ResponseEntity<Book> findById(@PathVariable Long id) {
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get book by ID", description = "Fetch a single book's details using its ID. The response carries a version-based ETag; send it back in If-None-Match to get 304 Not Modified while the book is unchanged")
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = BookResponse.class)))
+    public ResponseEntity<byte[]> findById(@PathVariable Long id) {
         log.info("Fetching book by ID: {}", id);
-        return bookService.findById(id)
-                .map(book -> {
-                    log.info("Book found: {}", book.getTitle());
-                    return ResponseEntity.ok(book);
-                })
+        return bookResponseCache.book(id, () -> bookService.findById(id).map(bookMapper::toResponse))
+                .map(rendered -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .cacheControl(CacheControl.noCache())
+                        .eTag(rendered.etag())
+                        .body(rendered.body()))
                 .orElseGet(() -> {
                     log.warn("Book not found with ID: {}", id);
                     return ResponseEntity.notFound().build();
                 });
     }
 
-    @GetMapping
-    @Operation(summary = "Get all books", description = "Retrieve a list of all books in the library")
-    public ResponseEntity<List<Book>> findAll() {
-        log.info("Fetching all books");
-        return ResponseEntity.ok(bookService.findAll());
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get all books", description = "Retrieve a page of books sorted by id or title. Pass the X-Next-Cursor response header as 'after' to fetch the next page; includeTotal adds an estimated X-Total-Count. Pages carry an ETag for conditional polling with If-None-Match")
+    @ApiResponse(responseCode = "200", content = @Content(array = @ArraySchema(schema = @Schema(implementation = BookResponse.class))))
+    public ResponseEntity<byte[]> findAll(@RequestParam(defaultValue = "id") String sort,
+                                          @RequestParam(required = false) String after,
+                                          @RequestParam(defaultValue = "50") @Min(1) @Max(500) int limit,
+                                          @RequestParam(defaultValue = "false") boolean includeTotal) {
+        log.info("Fetching books sorted by {} (limit {})", sort, limit);
+        BookSortField sortField = BookSortField.from(sort);
+        KeysetCursor cursor = KeysetCursor.parse(after, sortField.name());
+        String key = sortField.name() + "|" + after + "|" + limit + "|" + includeTotal;
+        return PaginationHeaders.ok(bookResponseCache.page(key,
+                () -> bookService.findPage(sortField, cursor, limit, includeTotal)));
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Search books", description = "Search books by keyword in title or author")
-    public ResponseEntity<List<Book>> search(@RequestParam String keyword) {
-        log.info("Searching books with keyword: {}", keyword);
-        return ResponseEntity.ok(bookService.search(keyword));
+    @Operation(summary = "Search books", description = "Search books by keyword in title, author or genre, ranked by relevance. Set fuzzy=true to tolerate misspelled title and author words. The total number of hits is returned in the X-Total-Count header")
+    public ResponseEntity<List<BookResponse>> search(@RequestParam String keyword,
+                                             @RequestParam(defaultValue = "0") @Min(0) int page,
+                                             @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+                                             @RequestParam(defaultValue = "false") boolean fuzzy) {
+        log.info("Searching books with keyword: {} (page {}, size {}, fuzzy {})", keyword, page, size, fuzzy);
+        Page<BookResponse> result = bookService.search(keyword, page, size, fuzzy);
+        return ResponseEntity.ok()
+                .header(PaginationHeaders.TOTAL_COUNT, String.valueOf(result.getTotalElements()))
+                .body(result.getContent());
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggest titles and authors", description = "Autocomplete titles and author names starting with the given prefix, most borrowed first")
+    public ResponseEntity<List<SuggestionResponse>> suggest(@RequestParam String prefix,
+                                                            @RequestParam(defaultValue = "10") @Min(1) @Max(BookSuggestionIndex.MAX_SUGGESTIONS) int limit) {
+        log.debug("Suggesting completions for prefix: {}", prefix);
+        return ResponseEntity.ok(bookService.suggest(prefix, limit));
+    }
+
+    @GetMapping("/cache/stats")
+    @Operation(summary = "Book cache statistics", description = "Size, hit/miss and eviction counters of the in-process book cache used by ID and ISBN lookups")
+    public ResponseEntity<BookCacheStatsResponse> cacheStats() {
+        return ResponseEntity.ok(bookService.cacheStats());
+    }
+
+    @GetMapping("/search/faceted")
+    @Operation(summary = "Faceted search", description = "Search books (keyword optional) narrowed by genre, author, publication year and availability. Returns the page of hits together with per-value counts for every facet over the full result set")
+    public ResponseEntity<FacetedSearchResponse> facetedSearch(@RequestParam(required = false) String keyword,
+                                                               @RequestParam(defaultValue = "false") boolean fuzzy,
+                                                               @RequestParam(required = false) String genre,
+                                                               @RequestParam(required = false) String author,
+                                                               @RequestParam(required = false) Integer year,
+                                                               @RequestParam(required = false) Boolean available,
+                                                               @RequestParam(defaultValue = "0") @Min(0) int page,
+                                                               @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+                                                               @RequestParam(defaultValue = "10") @Min(1) @Max(100) int facetLimit) {
+        Map<FacetField, String> filters = new EnumMap<>(FacetField.class);
+        if (genre != null) {
+            filters.put(FacetField.GENRE, genre);
+        }
+        if (author != null) {
+            filters.put(FacetField.AUTHOR, author);
+        }
+        if (year != null) {
+            filters.put(FacetField.YEAR, String.valueOf(year));
+        }
+        if (available != null) {
+            filters.put(FacetField.AVAILABLE, String.valueOf(available));
+        }
+        log.info("Faceted search with keyword: {} and filters {} (page {}, size {})", keyword, filters, page, size);
+        return ResponseEntity.ok(bookService.facetedSearch(keyword, fuzzy, filters, page, size, facetLimit));
     }
 }
@@ -1,20 +1,46 @@
 package com.getir.librarymanagementsystem.controller;
 
+import com.getir.librarymanagementsystem.export.ExportFormat;
+import com.getir.librarymanagementsystem.export.OverdueReportJobService;
+import com.getir.librarymanagementsystem.export.ReportFile;
+import com.getir.librarymanagementsystem.idempotency.IdempotencyStore;
+import com.getir.librarymanagementsystem.model.dto.pagination.BorrowSortField;
+import com.getir.librarymanagementsystem.model.dto.pagination.KeysetCursor;
+import com.getir.librarymanagementsystem.model.dto.request.BatchBorrowRequest;
+import com.getir.librarymanagementsystem.model.dto.request.BatchReturnRequest;
 import com.getir.librarymanagementsystem.model.dto.request.BorrowRequest;
+import com.getir.librarymanagementsystem.model.dto.response.BatchBorrowResponse;
+import com.getir.librarymanagementsystem.model.dto.response.BatchReturnResponse;
 import com.getir.librarymanagementsystem.model.dto.response.BorrowResponse;
+import com.getir.librarymanagementsystem.model.dto.response.IdempotencyStatsResponse;
 import com.getir.librarymanagementsystem.model.dto.response.OverdueReportResponse;
+import com.getir.librarymanagementsystem.model.dto.response.ReminderStatsResponse;
+import com.getir.librarymanagementsystem.model.dto.response.ReportJobResponse;
 import com.getir.librarymanagementsystem.service.BorrowService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 
 @Slf4j
@@ -25,30 +51,73 @@ import java.util.List;
 @Tag(name = "Borrow Management", description = "Endpoints for borrowing and returning books")
 public class BorrowController {
 
+    // Request attributes through which Tomcat sends a file with sendfile(2) once the handler returns.
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final BorrowService borrowService;
+    private final OverdueReportJobService overdueReportJobs;
+    private final IdempotencyStore idempotencyStore;
 
     @PostMapping
-    @Operation(summary = "Borrow a book", description = "Allows a user to borrow a book if it is available")
-    public ResponseEntity<BorrowResponse> borrow(@RequestBody BorrowRequest request, Authentication authentication) {
+    @Operation(summary = "Borrow a book", description = "Allows a user to borrow a book if it is available. A retry with the same Idempotency-Key returns the original borrow")
+    public ResponseEntity<BorrowResponse> borrow(@RequestBody BorrowRequest request,
+                                                 @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                                 Authentication authentication) {
         log.info("User '{}' is attempting to borrow a book: {}", authentication.getName(), request);
-        BorrowResponse response = borrowService.borrowBook(request, authentication);
+        BorrowResponse response = idempotencyStore.execute(authentication.getName() + ":borrow", idempotencyKey, request, BorrowResponse.class,
+                () -> borrowService.borrowBook(request, authentication));
         log.info("Book borrowed successfully by user '{}'", authentication.getName());
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Borrow several books", description = "Borrows all listed books in one transaction. If any book is missing or has no copy left, nothing is borrowed and 409 is returned with the outcome per book. A retry with the same Idempotency-Key returns the original outcome")
+    public ResponseEntity<BatchBorrowResponse> borrowBatch(@Valid @RequestBody BatchBorrowRequest request,
+                                                           @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                                           Authentication authentication) {
+        log.info("User '{}' is attempting to borrow books: {}", authentication.getName(), request.getBookIds());
+        // A batch rolled back for want of copies is not kept, so a retry once they are back borrows them.
+        BatchBorrowResponse response = idempotencyStore.execute(authentication.getName() + ":borrow-batch", idempotencyKey, request, BatchBorrowResponse.class,
+                () -> borrowService.borrowBooks(request, authentication), BatchBorrowResponse::isCompleted);
+        return ResponseEntity.status(response.isCompleted() ? HttpStatus.OK : HttpStatus.CONFLICT).body(response);
+    }
+
     @GetMapping
-    @Operation(summary = "Get all borrow records", description = "Returns a list of all borrow records")
-    public ResponseEntity<List<BorrowResponse>> getAll() {
-        log.debug("Fetching all borrow records");
-        return ResponseEntity.ok(borrowService.getAllBorrows());
+    @Operation(summary = "Get all borrow records", description = "Returns a page of borrow records sorted by id or borrowDate. Pass the X-Next-Cursor response header as 'after' to fetch the next page")
+    public ResponseEntity<List<BorrowResponse>> getAll(@RequestParam(defaultValue = "id") String sort,
+                                                       @RequestParam(required = false) String after,
+                                                       @RequestParam(defaultValue = "50") @Min(1) @Max(500) int limit,
+                                                       @RequestParam(defaultValue = "false") boolean includeTotal) {
+        log.debug("Fetching borrow records sorted by {} (limit {})", sort, limit);
+        return borrowPage(sort, after, limit, includeTotal);
     }
 
     @PutMapping("/return/{id}")
     @PreAuthorize("hasRole('PATRON')")
-    @Operation(summary = "Return a book", description = "Allows a patron to return a borrowed book")
-    public ResponseEntity<BorrowResponse> returnBook(@PathVariable Long id, Authentication authentication) {
+    @Operation(summary = "Return a book", description = "Allows a patron to return a borrowed book. A retry with the same Idempotency-Key returns the original return")
+    public ResponseEntity<BorrowResponse> returnBook(@PathVariable Long id,
+                                                     @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                                     Authentication authentication) {
         log.info("User '{}' is returning book with borrow ID: {}", authentication.getName(), id);
-        return ResponseEntity.ok(borrowService.returnBook(id, authentication));
+        return ResponseEntity.ok(idempotencyStore.execute(authentication.getName() + ":return", idempotencyKey, id, BorrowResponse.class,
+                () -> borrowService.returnBook(id, authentication)));
+    }
+
+    @PutMapping("/check-in")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    @Operation(summary = "Check in returned books", description = "Closes many borrows at once, identified by borrow id or by the ISBN of the returned copy (LIBRARIAN access only). Items that could not be returned are listed in the response. A retry with the same Idempotency-Key returns the original outcome")
+    public ResponseEntity<BatchReturnResponse> checkIn(@Valid @RequestBody BatchReturnRequest request,
+                                                       @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                                       Authentication authentication) {
+        log.info("Checking in {} borrow ids and {} ISBNs",
+                request.getBorrowIds() == null ? 0 : request.getBorrowIds().size(),
+                request.getIsbns() == null ? 0 : request.getIsbns().size());
+        return ResponseEntity.ok(idempotencyStore.execute(authentication.getName() + ":check-in", idempotencyKey, request, BatchReturnResponse.class,
+                () -> borrowService.checkIn(request)));
     }
 
     @DeleteMapping("/{id}")
@@ -61,10 +130,13 @@ public class BorrowController {
 
     @GetMapping("/history")
     @PreAuthorize("hasRole('LIBRARIAN')")
-    @Operation(summary = "Get borrow history", description = "Returns the complete borrow history (LIBRARIAN access only)")
-    public ResponseEntity<List<BorrowResponse>> getAllBorrowHistories() {
+    @Operation(summary = "Get borrow history", description = "Returns a page of the complete borrow history (LIBRARIAN access only)")
+    public ResponseEntity<List<BorrowResponse>> getAllBorrowHistories(@RequestParam(defaultValue = "id") String sort,
+                                                                      @RequestParam(required = false) String after,
+                                                                      @RequestParam(defaultValue = "50") @Min(1) @Max(500) int limit,
+                                                                      @RequestParam(defaultValue = "false") boolean includeTotal) {
         log.debug("Fetching borrow history for all users (LIBRARIAN access)");
-        return ResponseEntity.ok(borrowService.getAllBorrows());
+        return borrowPage(sort, after, limit, includeTotal);
     }
 
     @GetMapping("/overdue")
@@ -83,6 +155,81 @@ public class BorrowController {
         return ResponseEntity.ok(borrowService.getOverdueReport());
     }
 
+    @PostMapping("/overdue-report/jobs")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    @Operation(summary = "Start an overdue report", description = "Queues a background job that writes the overdue report as CSV or NDJSON (LIBRARIAN access only). Returns 202 with the job; an up-to-date report built earlier today is returned right away")
+    public ResponseEntity<ReportJobResponse> submitOverdueReport(@RequestParam(defaultValue = "csv") String format) {
+        ExportFormat reportFormat;
+        try {
+            reportFormat = ExportFormat.from(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Supported report formats are ndjson and csv");
+        }
+        log.info("Submitting overdue report job as {}", reportFormat);
+        ReportJobResponse job = overdueReportJobs.submit(reportFormat);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequestUri().path("/{id}").buildAndExpand(job.getId()).toUri())
+                .body(job);
+    }
+
+    @GetMapping("/overdue-report/jobs/{id}")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    @Operation(summary = "Overdue report job status", description = "Returns the status of an overdue report job (LIBRARIAN access only)")
+    public ResponseEntity<ReportJobResponse> overdueReportStatus(@PathVariable String id) {
+        return overdueReportJobs.status(id)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Report job not found"));
+    }
+
+    @GetMapping("/overdue-report/jobs/{id}/download")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    @Operation(summary = "Download an overdue report", description = "Streams the file of a completed overdue report job (LIBRARIAN access only). Returns 409 while the job has not completed")
+    public ResponseEntity<StreamingResponseBody> downloadOverdueReport(@PathVariable String id, HttpServletRequest request) {
+        if (overdueReportJobs.status(id).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Report job not found");
+        }
+        ReportFile report = overdueReportJobs.file(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT, "Report is not ready"));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(report.format().getContentType()))
+                .contentLength(report.size())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"overdue-report." + report.format().getExtension() + "\"");
+
+        // Tomcat copies the file from the page cache to the socket itself; the body below is the portable path.
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, report.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, report.size());
+            // Tomcat opens the file after this returns; the service keeps recently downloaded files until then.
+            report.close();
+            return response.build();
+        }
+        return response.body(out -> {
+            try (report; FileChannel file = FileChannel.open(report.path(), StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(out);
+                long position = 0;
+                while (position < report.size()) {
+                    position += file.transferTo(position, report.size() - position, target);
+                }
+            }
+        });
+    }
+
+    @GetMapping("/reminders/stats")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    @Operation(summary = "Due-date reminder statistics", description = "Pending reminders, delivery counters, scheduling lag and estimated memory of the due-date reminder wheel (LIBRARIAN access only)")
+    public ResponseEntity<ReminderStatsResponse> reminderStats() {
+        return ResponseEntity.ok(borrowService.reminderStats());
+    }
+
+    @GetMapping("/idempotency/stats")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    @Operation(summary = "Idempotency key statistics", description = "Stored keys, mutations in flight on this node and replay counters of the Idempotency-Key store (LIBRARIAN access only)")
+    public ResponseEntity<IdempotencyStatsResponse> idempotencyStats() {
+        return ResponseEntity.ok(idempotencyStore.stats());
+    }
+
     @GetMapping("/my-history")
     @PreAuthorize("hasRole('PATRON')")
     @Operation(summary = "Get my borrow history", description = "Returns the borrow history of the currently logged-in user")
@@ -90,4 +237,10 @@ public class BorrowController {
         log.debug("Fetching borrow history for user '{}'", authentication.getName());
         return ResponseEntity.ok(borrowService.getBorrowHistoryForUser(authentication));
     }
+
+    private ResponseEntity<List<BorrowResponse>> borrowPage(String sort, String after, int limit, boolean includeTotal) {
+        BorrowSortField sortField = BorrowSortField.from(sort);
+        KeysetCursor cursor = KeysetCursor.parse(after, sortField.name());
+        return PaginationHeaders.ok(borrowService.getBorrowPage(sortField, cursor, limit, includeTotal));
+    }
 }
@@ -0,0 +1,101 @@
+package com.getir.librarymanagementsystem.controller;
+
+import com.getir.librarymanagementsystem.export.ExportFormat;
+import com.getir.librarymanagementsystem.export.ExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/export")
+@SecurityRequirement(name = "Bearer Authentication")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('LIBRARIAN')")
+@Tag(name = "Export", description = "Streaming NDJSON/CSV dumps of the catalog and borrow ledger (LIBRARIAN access only)")
+public class ExportController {
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final ExportService exportService;
+
+    @GetMapping("/books")
+    @Operation(summary = "Export books", description = "Streams every book as NDJSON or CSV, gzip-compressed when the client accepts it")
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant modifiedSince,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        log.info("Exporting books as {} modified since {}", format, modifiedSince);
+        ExportFormat exportFormat = parseFormat(format);
+        return stream("books", exportFormat, acceptEncoding,
+                out -> exportService.exportBooks(exportFormat, modifiedSince, out));
+    }
+
+    @GetMapping("/borrows")
+    @Operation(summary = "Export borrows", description = "Streams the borrow ledger as NDJSON or CSV, gzip-compressed when the client accepts it")
+    public ResponseEntity<StreamingResponseBody> exportBorrows(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant modifiedSince,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        log.info("Exporting borrows as {} modified since {}", format, modifiedSince);
+        ExportFormat exportFormat = parseFormat(format);
+        return stream("borrows", exportFormat, acceptEncoding,
+                out -> exportService.exportBorrows(exportFormat, modifiedSince, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String name, ExportFormat format, String acceptEncoding,
+                                                         Exporter exporter) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, GZIP_BUFFER_SIZE) : out;
+            long rows = exporter.export(target);
+            if (target instanceof GZIPOutputStream gzipStream) {
+                gzipStream.finish();
+            }
+            target.flush();
+            log.info("Streamed {} {} rows", rows, name);
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "." + format.getExtension() + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    private static ExportFormat parseFormat(String format) {
+        try {
+            return ExportFormat.from(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Supported export formats are ndjson and csv");
+        }
+    }
+
+    @FunctionalInterface
+    private interface Exporter {
+        long export(OutputStream out);
+    }
+}
@@ -0,0 +1,51 @@
+package com.getir.librarymanagementsystem.controller;
+
+import com.getir.librarymanagementsystem.model.dto.request.HoldRequest;
+import com.getir.librarymanagementsystem.model.dto.response.HoldResponse;
+import com.getir.librarymanagementsystem.service.HoldService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/holds")
+@SecurityRequirement(name = "Bearer Authentication")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('PATRON')")
+@Tag(name = "Hold Management", description = "Queue for a book that has no copy left (PATRON access only)")
+public class HoldController {
+
+    private final HoldService holdService;
+
+    @PostMapping
+    @Operation(summary = "Place a hold", description = "Queues the patron for a book that has no copy on the shelf. When a copy is returned it is borrowed to the oldest waiting hold straight away")
+    public ResponseEntity<HoldResponse> place(@RequestBody HoldRequest request, Authentication authentication) {
+        log.info("User '{}' is placing a hold: {}", authentication.getName(), request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(holdService.placeHold(request, authentication));
+    }
+
+    @GetMapping
+    @Operation(summary = "Get my holds", description = "Returns the patron's waiting holds with their position in each queue")
+    public ResponseEntity<List<HoldResponse>> getMine(Authentication authentication) {
+        log.debug("Fetching waiting holds of user '{}'", authentication.getName());
+        return ResponseEntity.ok(holdService.getWaitingHolds(authentication));
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Cancel a hold", description = "Leaves the queue. A hold that has already been served cannot be cancelled")
+    public ResponseEntity<Void> cancel(@PathVariable Long id, Authentication authentication) {
+        log.info("User '{}' is cancelling hold {}", authentication.getName(), id);
+        holdService.cancelHold(id, authentication);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.getir.librarymanagementsystem.controller;
+
+import com.getir.librarymanagementsystem.journal.CirculationReplayService;
+import com.getir.librarymanagementsystem.model.dto.response.JournalReplayResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/journal")
+@SecurityRequirement(name = "Bearer Authentication")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('LIBRARIAN')")
+@Tag(name = "Circulation Journal", description = "Replay of the append-only borrow/return journal (LIBRARIAN access only)")
+public class JournalController {
+
+    private final CirculationReplayService circulationReplayService;
+
+    @GetMapping("/replay")
+    @Operation(summary = "Verify against the journal", description = "Rebuilds loan state from the circulation journal and reports where the database disagrees. Book availability flags are checked against the copy counts")
+    public ResponseEntity<JournalReplayResponse> verify() {
+        log.info("Replaying circulation journal for verification");
+        return ResponseEntity.ok(circulationReplayService.replay(false));
+    }
+
+    @PostMapping("/replay")
+    @Operation(summary = "Verify and recount availability", description = "Runs the verification and recounts book availability flags that disagree with the copy counts. The journal is not used for the recount")
+    public ResponseEntity<JournalReplayResponse> repair() {
+        log.warn("Verifying the circulation journal and recounting mismatched availability flags");
+        return ResponseEntity.ok(circulationReplayService.replay(true));
+    }
+}
@@ -0,0 +1,43 @@
+package com.getir.librarymanagementsystem.controller;
+
+import com.getir.librarymanagementsystem.cache.RenderedResponse;
+import com.getir.librarymanagementsystem.model.dto.pagination.KeysetPage;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+final class PaginationHeaders {
+
+    static final String NEXT_CURSOR = "X-Next-Cursor";
+    static final String TOTAL_COUNT = "X-Total-Count";
+
+    private PaginationHeaders() {
+    }
+
+    static <T> ResponseEntity<List<T>> ok(KeysetPage<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR, page.nextCursor());
+        }
+        if (page.totalEstimate() != null) {
+            response.header(TOTAL_COUNT, String.valueOf(page.totalEstimate()));
+        }
+        return response.body(page.items());
+    }
+
+    static ResponseEntity<byte[]> ok(RenderedResponse page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(page.etag());
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR, page.nextCursor());
+        }
+        if (page.totalEstimate() != null) {
+            response.header(TOTAL_COUNT, String.valueOf(page.totalEstimate()));
+        }
+        return response.body(page.body());
+    }
+}
@@ -30,19 +30,16 @@ public class UserController {
     @Operation(summary = "Get all users", description = "Retrieve a list of all registered users")
     public ResponseEntity<List<UserResponse>> getAllUsers() {
         log.info("Fetching all users");
-        List<UserResponse> responses = userRepository.findAll()
-                .stream()
-                .map(userMapper::toResponse)
-                .toList();
+        List<UserResponse> responses = userRepository.findAllResponses();
         log.debug("Retrieved {} users", responses.size());
         return ResponseEntity.ok(responses);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get user by ID", description = "Fetch a user by their unique ID")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
+    public ResponseEntity<UserResponse> getUserById(@PathVariable Long id) {
         log.info("Fetching user by ID: {}", id);
-        return userRepository.findById(id)
+        return userRepository.findResponseById(id)
                 .map(user -> {
                     log.debug("User found: {}", user.getUsername());
                     return ResponseEntity.ok(user);
@@ -55,7 +52,7 @@ public class UserController {
 
     @PutMapping("/{id}")
     @Operation(summary = "Update user", description = "Update an existing user's details")
-    public ResponseEntity<User> updateUser(@PathVariable Long id, @RequestBody User updatedUser) {
+    public ResponseEntity<UserResponse> updateUser(@PathVariable Long id, @RequestBody User updatedUser) {
         log.info("Updating user with ID: {}", id);
         return userRepository.findById(id)
                 .map(user -> {
@@ -66,7 +63,7 @@ public class UserController {
                     user.setRole(updatedUser.getRole());
                     User saved = userRepository.save(user);
                     log.info("User with ID {} updated successfully", id);
-                    return ResponseEntity.ok(saved);
+                    return ResponseEntity.ok(userMapper.toResponse(saved));
                 })
                 .orElseGet(() -> {
                     log.warn("User with ID {} not found for update", id);
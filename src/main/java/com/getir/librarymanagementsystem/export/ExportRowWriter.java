@@ -0,0 +1,54 @@
+package com.getir.librarymanagementsystem.export;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Locale;
+
+abstract class ExportRowWriter {
+
+    protected String[] columns;
+
+    void start(ResultSetMetaData metaData) throws SQLException, IOException {
+        columns = new String[metaData.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = fieldName(metaData.getColumnLabel(i + 1));
+        }
+    }
+
+    abstract void writeRow(ResultSet row) throws SQLException, IOException;
+
+    abstract void finish() throws IOException;
+
+    protected static Object value(ResultSet row, int column) throws SQLException {
+        Object value = row.getObject(column);
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate();
+        }
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toInstant();
+        }
+        if (value instanceof OffsetDateTime dateTime) {
+            return dateTime.toInstant();
+        }
+        if (value instanceof LocalDate || value instanceof Number || value instanceof Boolean || value == null) {
+            return value;
+        }
+        return value.toString();
+    }
+
+    private static String fieldName(String columnLabel) {
+        String[] parts = columnLabel.toLowerCase(Locale.ROOT).split("_");
+        StringBuilder name = new StringBuilder(parts[0]);
+        for (int i = 1; i < parts.length; i++) {
+            if (!parts[i].isEmpty()) {
+                name.append(Character.toUpperCase(parts[i].charAt(0))).append(parts[i], 1, parts[i].length());
+            }
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,81 @@
+package com.getir.librarymanagementsystem.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+@Slf4j
+@Service
+public class ExportService {
+
+    private static final int FETCH_SIZE = 1000;
+    private static final String BOOKS_QUERY =
+            "select id, title, author, isbn, publication_date, genre, available, total_copies, updated_at from books";
+    private static final String BORROWS_QUERY =
+            "select id, user_id, book_id, borrow_date, due_date, return_date, returned, updated_at from borrow";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonFactory jsonFactory;
+
+    public ExportService(DataSource dataSource, PlatformTransactionManager transactionManager, ObjectMapper objectMapper) {
+        // Own template so the fetch size, which makes PostgreSQL stream through a cursor, applies to exports only.
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public long exportBooks(ExportFormat format, Instant modifiedSince, OutputStream out) {
+        return export(BOOKS_QUERY, format, modifiedSince, out);
+    }
+
+    public long exportBorrows(ExportFormat format, Instant modifiedSince, OutputStream out) {
+        return export(BORROWS_QUERY, format, modifiedSince, out);
+    }
+
+    private long export(String query, ExportFormat format, Instant modifiedSince, OutputStream out) {
+        String sql = query + (modifiedSince != null ? " where updated_at >= ?" : "") + " order by id";
+        Object[] args = modifiedSince != null ? new Object[]{Timestamp.from(modifiedSince)} : new Object[0];
+
+        Long rows = transactionTemplate.execute(status -> {
+            try {
+                ExportRowWriter writer = format == ExportFormat.CSV
+                        ? new CsvRowWriter(out)
+                        : new NdjsonRowWriter(jsonFactory, out);
+                ResultSetExtractor<Long> extractor = resultSet -> {
+                    try {
+                        writer.start(resultSet.getMetaData());
+                        long count = 0;
+                        while (resultSet.next()) {
+                            writer.writeRow(resultSet);
+                            count++;
+                        }
+                        writer.finish();
+                        return count;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                };
+                return jdbcTemplate.query(sql, extractor, args);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        log.info("Exported {} rows as {}", rows, format);
+        return rows == null ? 0 : rows;
+    }
+}
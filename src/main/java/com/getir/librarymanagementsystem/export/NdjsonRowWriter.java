@@ -0,0 +1,50 @@
+package com.getir.librarymanagementsystem.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+class NdjsonRowWriter extends ExportRowWriter {
+
+    private final JsonGenerator json;
+
+    NdjsonRowWriter(JsonFactory jsonFactory, OutputStream out) throws IOException {
+        this.json = jsonFactory.createGenerator(out);
+        this.json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.json.setRootValueSeparator(null);
+    }
+
+    @Override
+    void writeRow(ResultSet row) throws SQLException, IOException {
+        json.writeStartObject();
+        for (int i = 0; i < columns.length; i++) {
+            json.writeFieldName(columns[i]);
+            Object value = value(row, i + 1);
+            if (value == null) {
+                json.writeNull();
+            } else if (value instanceof Boolean bool) {
+                json.writeBoolean(bool);
+            } else if (value instanceof Long number) {
+                json.writeNumber(number);
+            } else if (value instanceof Integer number) {
+                json.writeNumber(number);
+            } else if (value instanceof Number number) {
+                json.writeNumber(new BigDecimal(number.toString()));
+            } else {
+                json.writeString(value.toString());
+            }
+        }
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    @Override
+    void finish() throws IOException {
+        json.flush();
+    }
+}
@@ -0,0 +1,309 @@
+package com.getir.librarymanagementsystem.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.getir.librarymanagementsystem.model.dto.response.ReportJobResponse;
+import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.service.BookChangeListener;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// A finished report is reused for the same format and day until a borrow, return or book change makes it stale.
+@Slf4j
+@Service
+public class OverdueReportJobService implements BookChangeListener {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final long PURGE_INTERVAL_SECONDS = 60;
+    private static final String OVERDUE_QUERY = "select b.id as borrow_id, bk.title as book_title, u.username, "
+            + "b.borrow_date, b.due_date from borrow b join books bk on bk.id = b.book_id "
+            + "join users u on u.id = b.user_id where b.returned = false and b.due_date < ? ";
+    private static final String FIRST_CHUNK = OVERDUE_QUERY + "order by b.due_date asc, b.id asc limit ?";
+    private static final String NEXT_CHUNK = OVERDUE_QUERY
+            + "and (b.due_date > ? or (b.due_date = ? and b.id > ?)) order by b.due_date asc, b.id asc limit ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonFactory jsonFactory;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "overdue-report-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Duration retention;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    // Bumped by every borrow, return and book change; a report built under an older value is not reused.
+    private final AtomicLong generation = new AtomicLong();
+
+    public OverdueReportJobService(JdbcTemplate jdbcTemplate,
+                                   ObjectMapper objectMapper,
+                                   @Value("${library.reports.threads:2}") int threads,
+                                   @Value("${library.reports.queue-capacity:8}") int queueCapacity,
+                                   @Value("${library.reports.retention-minutes:30}") long retentionMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jsonFactory = objectMapper.getFactory();
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "overdue-report-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public ReportJobResponse submit(ExportFormat format) {
+        purgeExpired();
+        LocalDate today = LocalDate.now();
+        long current = generation.get();
+        synchronized (this) {
+            Optional<Job> reusable = jobs.values().stream()
+                    .filter(job -> job.format == format && job.day.equals(today) && job.generation == current
+                            && job.status != ReportJobStatus.FAILED)
+                    .findFirst();
+            if (reusable.isPresent()) {
+                log.debug("Reusing overdue report job {}", reusable.get().id);
+                return reusable.get().toResponse();
+            }
+
+            Job job = new Job(UUID.randomUUID().toString(), format, today, current);
+            jobs.put(job.id, job);
+            try {
+                executor.execute(() -> run(job));
+            } catch (RejectedExecutionException e) {
+                jobs.remove(job.id);
+                throw new ReportQueueFullException("Too many overdue reports are being generated, try again later");
+            }
+            log.info("Queued overdue report job {} as {}", job.id, format);
+            return job.toResponse();
+        }
+    }
+
+    public Optional<ReportJobResponse> status(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(Job::toResponse);
+    }
+
+    // The file is kept until the returned handle is closed.
+    public synchronized Optional<ReportFile> file(String id) {
+        Job job = jobs.get(id);
+        if (job == null || job.status != ReportJobStatus.COMPLETED) {
+            return Optional.empty();
+        }
+        job.downloads.incrementAndGet();
+        job.lastDownloadAt = Instant.now();
+        AtomicBoolean released = new AtomicBoolean();
+        return Optional.of(new ReportFile(job.file, job.size, job.format, () -> {
+            if (released.compareAndSet(false, true)) {
+                job.downloads.decrementAndGet();
+            }
+        }));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        purger.scheduleWithFixedDelay(this::purgeQuietly, PURGE_INTERVAL_SECONDS, PURGE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void onBookSaved(Book book) {
+        generation.incrementAndGet();
+    }
+
+    @Override
+    public void onBookDeleted(Long bookId) {
+        generation.incrementAndGet();
+    }
+
+    @Override
+    public void onAvailabilityChanged(Long bookId, boolean available) {
+        generation.incrementAndGet();
+    }
+
+    // A copy handed to a hold closes a loan without changing availability, so only this tells of the return.
+    @Override
+    public void onBorrowed(Long bookId) {
+        generation.incrementAndGet();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        purger.shutdownNow();
+        executor.shutdownNow();
+        jobs.values().forEach(Job::deleteFile);
+        jobs.clear();
+    }
+
+    private void run(Job job) {
+        job.status = ReportJobStatus.RUNNING;
+        long started = System.nanoTime();
+        try {
+            job.file = Files.createTempFile("overdue-report-", "." + job.format.getExtension());
+            try (OutputStream out = Files.newOutputStream(job.file)) {
+                job.rows = write(job, out);
+            }
+            job.size = Files.size(job.file);
+            job.completedAt = Instant.now();
+            job.status = ReportJobStatus.COMPLETED;
+            log.info("Overdue report job {} wrote {} rows ({} bytes) in {} ms", job.id, job.rows, job.size,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (IOException | RuntimeException e) {
+            log.error("Overdue report job {} failed", job.id, e);
+            job.deleteFile();
+            job.error = e.getMessage();
+            job.completedAt = Instant.now();
+            job.status = ReportJobStatus.FAILED;
+        }
+    }
+
+    private long write(Job job, OutputStream out) throws IOException {
+        ExportRowWriter writer = job.format == ExportFormat.CSV
+                ? new CsvRowWriter(out)
+                : new NdjsonRowWriter(jsonFactory, out);
+        Chunk chunk = new Chunk(writer);
+        ResultSetExtractor<Void> extractor = chunk::write;
+        Date before = Date.valueOf(job.day);
+        jdbcTemplate.query(FIRST_CHUNK, extractor, before, CHUNK_SIZE);
+        while (chunk.fetched == CHUNK_SIZE) {
+            Date lastDue = Date.valueOf(chunk.lastDue);
+            jdbcTemplate.query(NEXT_CHUNK, extractor, before, lastDue, lastDue, chunk.lastId, CHUNK_SIZE);
+        }
+        writer.finish();
+        return chunk.rows;
+    }
+
+    // A download sent with sendfile releases its handle before Tomcat opens the file, so recent downloads count too.
+    synchronized void purgeExpired() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> {
+            boolean expired = job.completedAt != null && job.completedAt.isBefore(cutoff)
+                    && job.downloads.get() == 0
+                    && (job.lastDownloadAt == null || job.lastDownloadAt.isBefore(cutoff));
+            if (expired) {
+                job.deleteFile();
+            }
+            return expired;
+        });
+    }
+
+    private void purgeQuietly() {
+        try {
+            purgeExpired();
+        } catch (RuntimeException e) {
+            log.error("Purging expired overdue reports failed", e);
+        }
+    }
+
+    private static final class Chunk {
+
+        private final ExportRowWriter writer;
+        private boolean started;
+        private int fetched;
+        private long rows;
+        private LocalDate lastDue;
+        private long lastId;
+
+        private Chunk(ExportRowWriter writer) {
+            this.writer = writer;
+        }
+
+        private Void write(ResultSet resultSet) throws SQLException {
+            try {
+                if (!started) {
+                    writer.start(resultSet.getMetaData());
+                    started = true;
+                }
+                fetched = 0;
+                while (resultSet.next()) {
+                    writer.writeRow(resultSet);
+                    lastDue = resultSet.getObject("due_date", LocalDate.class);
+                    lastId = resultSet.getLong("borrow_id");
+                    fetched++;
+                }
+                rows += fetched;
+                return null;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static final class Job {
+
+        private final String id;
+        private final ExportFormat format;
+        private final LocalDate day;
+        private final long generation;
+        private final Instant submittedAt = Instant.now();
+        private volatile ReportJobStatus status = ReportJobStatus.QUEUED;
+        private volatile Path file;
+        private volatile long rows;
+        private volatile long size;
+        private volatile Instant completedAt;
+        private volatile String error;
+        private final AtomicInteger downloads = new AtomicInteger();
+        private volatile Instant lastDownloadAt;
+
+        private Job(String id, ExportFormat format, LocalDate day, long generation) {
+            this.id = id;
+            this.format = format;
+            this.day = day;
+            this.generation = generation;
+        }
+
+        private ReportJobResponse toResponse() {
+            return ReportJobResponse.builder()
+                    .id(id)
+                    .format(format.getExtension())
+                    .status(status)
+                    .overdueBefore(day)
+                    .rows(rows)
+                    .sizeBytes(size)
+                    .submittedAt(submittedAt)
+                    .completedAt(completedAt)
+                    .error(error)
+                    .build();
+        }
+
+        private void deleteFile() {
+            if (file == null) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete overdue report file {}", file, e);
+            }
+        }
+    }
+}
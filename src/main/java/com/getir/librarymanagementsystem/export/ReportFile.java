@@ -0,0 +1,12 @@
+package com.getir.librarymanagementsystem.export;
+
+import java.nio.file.Path;
+
+// Closing it lets the file be purged once it expires.
+public record ReportFile(Path path, long size, ExportFormat format, Runnable release) implements AutoCloseable {
+
+    @Override
+    public void close() {
+        release.run();
+    }
+}
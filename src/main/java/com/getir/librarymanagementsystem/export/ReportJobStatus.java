@@ -0,0 +1,8 @@
+package com.getir.librarymanagementsystem.export;
+
+public enum ReportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,362 @@
+package com.getir.librarymanagementsystem.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.getir.librarymanagementsystem.model.dto.response.IdempotencyStatsResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Keys live in the shared idempotency_keys table; only the request whose insert wins runs the mutation.
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private static final long POLL_MILLIS = 50;
+    private static final long PURGE_INTERVAL_SECONDS = 60;
+
+    private static final String CLAIM = "insert into idempotency_keys "
+            + "(scope, idempotency_key, request_hash, claim_id, completed, created_at, expires_at) "
+            + "values (?, ?, ?, ?, false, ?, ?)";
+    private static final String FIND = "select request_hash, completed, response, expires_at from idempotency_keys "
+            + "where scope = ? and idempotency_key = ?";
+    private static final String COMPLETE = "update idempotency_keys set completed = true, response = ?, expires_at = ? "
+            + "where scope = ? and idempotency_key = ? and claim_id = ?";
+    private static final String EXTEND = "update idempotency_keys set expires_at = ? "
+            + "where scope = ? and idempotency_key = ? and claim_id = ? and completed = false";
+    private static final String RELEASE = "delete from idempotency_keys "
+            + "where scope = ? and idempotency_key = ? and claim_id = ?";
+    private static final String TAKE_OVER = "delete from idempotency_keys "
+            + "where scope = ? and idempotency_key = ? and expires_at < ?";
+    private static final String PURGE = "delete from idempotency_keys where expires_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration claimTimeout;
+    private final long waitNanos;
+    // Mutations this node is running, so retries reaching the same node wake up as soon as they complete.
+    private final Map<String, Running> running = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "idempotency-maintenance");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder lostClaims = new LongAdder();
+
+    public IdempotencyStore(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            ObjectMapper objectMapper,
+                            @Value("${library.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                            @Value("${library.idempotency.claim-seconds:60}") long claimSeconds,
+                            @Value("${library.idempotency.wait-seconds:10}") long waitSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Claims must be visible to other nodes at once, whatever transaction the caller is in.
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.claimTimeout = Duration.ofSeconds(claimSeconds);
+        this.waitNanos = TimeUnit.SECONDS.toNanos(waitSeconds);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        maintenance.scheduleWithFixedDelay(this::purgeQuietly, PURGE_INTERVAL_SECONDS, PURGE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        // Several extensions fit into one claim period, so a single slow round does not let a live claim lapse.
+        long extendMillis = Math.max(1000, claimTimeout.toMillis() / 3);
+        maintenance.scheduleWithFixedDelay(this::extendQuietly, extendMillis, extendMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        maintenance.shutdownNow();
+    }
+
+    public <T> T execute(String scope, String key, Object request, Class<T> responseType, Supplier<T> mutation) {
+        return execute(scope, key, request, responseType, mutation, result -> true);
+    }
+
+    // A result that keep rejects is released like a failure instead of being stored.
+    public <T> T execute(String scope, String key, Object request, Class<T> responseType, Supplier<T> mutation,
+                         Predicate<? super T> keep) {
+        if (key == null) {
+            return mutation.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = fingerprint(request);
+        String id = scope + '\n' + key;
+        long deadline = System.nanoTime() + waitNanos;
+        boolean waiting = false;
+        while (true) {
+            Running local = running.get(id);
+            if (local != null) {
+                checkRequest(local.requestHash(), requestHash);
+                if (!waiting) {
+                    coalesced.increment();
+                }
+                return responseType.cast(await(local, deadline));
+            }
+
+            String claimId = UUID.randomUUID().toString();
+            if (claim(scope, key, requestHash, claimId)) {
+                return run(id, new Running(scope, key, claimId, requestHash, new CompletableFuture<>()), mutation, keep);
+            }
+
+            Stored stored = find(scope, key);
+            if (stored == null) {
+                // Released by a failed original since the insert; claim it again.
+                continue;
+            }
+            checkRequest(stored.requestHash(), requestHash);
+            if (stored.expiresAt().isBefore(Instant.now())) {
+                if (transactionTemplate.execute(status ->
+                        jdbcTemplate.update(TAKE_OVER, scope, key, Timestamp.from(Instant.now()))) > 0) {
+                    expirations.increment();
+                }
+                continue;
+            }
+            if (stored.completed()) {
+                replayed.increment();
+                return read(stored.response(), responseType);
+            }
+            // Running on another node, or on this one and not registered yet.
+            if (!waiting) {
+                coalesced.increment();
+                waiting = true;
+            }
+            sleepUntilNextPoll(deadline);
+        }
+    }
+
+    public IdempotencyStatsResponse stats() {
+        Long size = jdbcTemplate.queryForObject("select count(*) from idempotency_keys", Long.class);
+        return IdempotencyStatsResponse.builder()
+                .size(size == null ? 0 : size)
+                .inFlight(running.size())
+                .ttlSeconds(ttl.toSeconds())
+                .waitSeconds(TimeUnit.NANOSECONDS.toSeconds(waitNanos))
+                .executed(executed.sum())
+                .replayed(replayed.sum())
+                .coalesced(coalesced.sum())
+                .rejected(rejected.sum())
+                .failed(failed.sum())
+                .timedOut(timedOut.sum())
+                .expirations(expirations.sum())
+                .lostClaims(lostClaims.sum())
+                .build();
+    }
+
+    int purgeExpired() {
+        int purged = transactionTemplate.execute(status -> jdbcTemplate.update(PURGE, Timestamp.from(Instant.now())));
+        expirations.add(purged);
+        return purged;
+    }
+
+    // Keeps the claims of running mutations alive so no other node takes them over mid-run.
+    int extendClaims() {
+        int extended = 0;
+        for (Running local : running.values()) {
+            Timestamp expiresAt = Timestamp.from(Instant.now().plus(claimTimeout));
+            Integer updated = transactionTemplate.execute(status -> jdbcTemplate.update(EXTEND, expiresAt,
+                    local.scope(), local.key(), local.claimId()));
+            if (updated != null && updated > 0) {
+                extended++;
+            }
+        }
+        return extended;
+    }
+
+    private <T> T run(String id, Running local, Supplier<T> mutation, Predicate<? super T> keep) {
+        running.put(id, local);
+        executed.increment();
+        T result;
+        try {
+            result = mutation.get();
+        } catch (RuntimeException | Error e) {
+            failed.increment();
+            release(local);
+            running.remove(id, local);
+            local.result().completeExceptionally(e);
+            throw e;
+        }
+        if (!keep.test(result)) {
+            failed.increment();
+            release(local);
+            running.remove(id, local);
+            local.result().complete(result);
+            return result;
+        }
+        try {
+            String response = objectMapper.writeValueAsString(result);
+            Timestamp expiresAt = Timestamp.from(Instant.now().plus(ttl));
+            Integer updated = transactionTemplate.execute(status -> jdbcTemplate.update(COMPLETE, response, expiresAt,
+                    local.scope(), local.key(), local.claimId()));
+            if (updated == null || updated == 0) {
+                // Another node took the claim over, so the mutation may have run twice.
+                lostClaims.increment();
+                log.error("Claim on idempotency key '{}' of {} was lost before the response was stored",
+                        local.key(), local.scope());
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            // The mutation has happened; a retry on another node may run it again once the claim expires.
+            log.error("Could not store the response for idempotency key '{}' of {}", local.key(), local.scope(), e);
+        } finally {
+            running.remove(id, local);
+            local.result().complete(result);
+        }
+        return result;
+    }
+
+    private void release(Running local) {
+        try {
+            transactionTemplate.execute(status ->
+                    jdbcTemplate.update(RELEASE, local.scope(), local.key(), local.claimId()));
+        } catch (RuntimeException e) {
+            log.warn("Could not release idempotency key '{}' of {}, it is freed once the claim expires",
+                    local.key(), local.scope(), e);
+        }
+    }
+
+    private boolean claim(String scope, String key, String requestHash, String claimId) {
+        Instant now = Instant.now();
+        try {
+            transactionTemplate.execute(status -> jdbcTemplate.update(CLAIM, scope, key, requestHash, claimId,
+                    Timestamp.from(now), Timestamp.from(now.plus(claimTimeout))));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private Stored find(String scope, String key) {
+        List<Stored> rows = jdbcTemplate.query(FIND, (row, rowNum) -> new Stored(row.getString("request_hash"),
+                row.getBoolean("completed"), row.getString("response"), row.getTimestamp("expires_at").toInstant()),
+                scope, key);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private void checkRequest(String stored, String requestHash) {
+        if (!stored.equals(requestHash)) {
+            rejected.increment();
+            throw new IdempotencyKeyReusedException("Idempotency-Key was already used for a different request");
+        }
+    }
+
+    private Object await(Running local, long deadline) {
+        try {
+            return local.result().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw stillRunning();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw stillRunning();
+        }
+    }
+
+    private void sleepUntilNextPoll(long deadline) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            throw stillRunning();
+        }
+        try {
+            Thread.sleep(Math.min(POLL_MILLIS, TimeUnit.NANOSECONDS.toMillis(remaining) + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw stillRunning();
+        }
+    }
+
+    private IdempotencyKeyInProgressException stillRunning() {
+        timedOut.increment();
+        return new IdempotencyKeyInProgressException("A request with this Idempotency-Key is still being processed");
+    }
+
+    private <T> T read(String response, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(response, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response cannot be read", e);
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Request cannot be fingerprinted", e);
+        }
+    }
+
+    private void extendQuietly() {
+        try {
+            extendClaims();
+        } catch (RuntimeException e) {
+            log.error("Extending idempotency key claims failed", e);
+        }
+    }
+
+    private void purgeQuietly() {
+        try {
+            purgeExpired();
+        } catch (RuntimeException e) {
+            log.error("Purging expired idempotency keys failed", e);
+        }
+    }
+
+    private record Running(String scope, String key, String claimId, String requestHash,
+                           CompletableFuture<Object> result) {
+    }
+
+    private record Stored(String requestHash, boolean completed, String response, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,258 @@
+package com.getir.librarymanagementsystem.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.getir.librarymanagementsystem.cluster.ClusterEventBus;
+import com.getir.librarymanagementsystem.model.dto.response.BookImportError;
+import com.getir.librarymanagementsystem.model.dto.response.BookImportResponse;
+import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.repository.BookRepository;
+import com.getir.librarymanagementsystem.service.BookChangeListener;
+import com.getir.librarymanagementsystem.service.BookInventoryService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+@Slf4j
+@Service
+public class BookImportService {
+
+    static final int CHUNK_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final BookRepository bookRepository;
+    private final BookInventoryService bookInventory;
+    private final List<BookChangeListener> bookChangeListeners;
+    private final ClusterEventBus clusterEventBus;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public BookImportService(BookRepository bookRepository,
+                             BookInventoryService bookInventory,
+                             List<BookChangeListener> bookChangeListeners,
+                             ClusterEventBus clusterEventBus,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.bookInventory = bookInventory;
+        this.bookChangeListeners = bookChangeListeners;
+        this.clusterEventBus = clusterEventBus;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public BookImportResponse importBooks(InputStream body, ImportFormat format) {
+        long started = System.nanoTime();
+        Report report = new Report();
+        Set<String> seenIsbns = new HashSet<>();
+        List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 1 << 16)) {
+            long lineNumber = 0;
+            Map<String, Integer> columns = null;
+            if (format == ImportFormat.CSV) {
+                String header = reader.readLine();
+                lineNumber++;
+                if (header == null) {
+                    return report.toResponse(started);
+                }
+                columns = parseHeader(header);
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                report.processed++;
+                Book book;
+                try {
+                    book = format == ImportFormat.CSV ? fromCsv(line, columns) : objectMapper.readValue(line, Book.class);
+                    BookInventoryService.prepare(book);
+                } catch (IOException | RuntimeException e) {
+                    report.error(lineNumber, null, "Malformed row: " + e.getMessage());
+                    continue;
+                }
+                String isbn = book.getIsbn() == null ? "" : book.getIsbn().trim();
+                if (isbn.isEmpty()) {
+                    report.error(lineNumber, null, "ISBN is required");
+                    continue;
+                }
+                if (!seenIsbns.add(isbn)) {
+                    report.error(lineNumber, isbn, "Duplicate ISBN within the import");
+                    continue;
+                }
+                book.setId(null);
+                book.setIsbn(isbn);
+                chunk.add(new Row(lineNumber, book));
+                if (chunk.size() == CHUNK_SIZE) {
+                    writeChunk(chunk, report);
+                    chunk.clear();
+                }
+            }
+            writeChunk(chunk, report);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        BookImportResponse response = report.toResponse(started);
+        log.info("Imported {} of {} books in {} ms ({} rows/s), {} failed",
+                response.getImported(), response.getProcessed(), response.getElapsedMillis(),
+                Math.round(response.getRowsPerSecond()), response.getFailed());
+        return response;
+    }
+
+    private void writeChunk(List<Row> chunk, Report report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Set<String> isbns = new HashSet<>();
+        chunk.forEach(row -> isbns.add(row.book().getIsbn()));
+        Set<String> existing = bookRepository.findExistingIsbns(isbns);
+
+        List<Book> books = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            if (existing.contains(row.book().getIsbn())) {
+                report.error(row.line(), row.book().getIsbn(), "ISBN already exists");
+            } else {
+                books.add(row.book());
+            }
+        }
+        if (books.isEmpty()) {
+            return;
+        }
+
+        try {
+            persist(books);
+            report.imported += books.size();
+            books.forEach(this::notifySaved);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent writer took one of the ISBNs after the lookup; retry row by row to isolate it.
+            log.warn("Chunk insert hit a constraint violation, retrying {} rows individually", books.size());
+            for (Row row : chunk) {
+                Book book = row.book();
+                if (existing.contains(book.getIsbn())) {
+                    continue;
+                }
+                book.setId(null);
+                book.setVersion(null);
+                try {
+                    persist(List.of(book));
+                    report.imported++;
+                    notifySaved(book);
+                } catch (DataIntegrityViolationException rowFailure) {
+                    report.error(row.line(), book.getIsbn(), "ISBN already exists");
+                }
+            }
+        }
+    }
+
+    private void persist(List<Book> books) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Flushed through the repository so a duplicate ISBN surfaces as DataIntegrityViolationException.
+            bookRepository.saveAllAndFlush(books);
+            bookInventory.stock(books);
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private void notifySaved(Book book) {
+        bookChangeListeners.forEach(listener -> listener.onBookSaved(book));
+        clusterEventBus.bookChanged(book.getId());
+    }
+
+    private static Map<String, Integer> parseHeader(String header) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names;
+        try {
+            names = CsvLineParser.parse(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidImportException("Malformed CSV header: " + e.getMessage());
+        }
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT).replace("_", ""), i);
+        }
+        if (!columns.containsKey("isbn")) {
+            throw new InvalidImportException("CSV header must contain an isbn column");
+        }
+        return columns;
+    }
+
+    private static Book fromCsv(String line, Map<String, Integer> columns) {
+        List<String> fields = CsvLineParser.parse(line);
+        String available = field(fields, columns, "available");
+        String publicationDate = field(fields, columns, "publicationdate");
+        String totalCopies = field(fields, columns, "totalcopies");
+        return Book.builder()
+                .title(field(fields, columns, "title"))
+                .author(field(fields, columns, "author"))
+                .isbn(field(fields, columns, "isbn"))
+                .genre(field(fields, columns, "genre"))
+                .publicationDate(publicationDate == null ? null : LocalDate.parse(publicationDate))
+                .available(available == null || Boolean.parseBoolean(available))
+                .totalCopies(totalCopies == null ? null : Integer.valueOf(totalCopies))
+                .build();
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private record Row(long line, Book book) {
+    }
+
+    private static final class Report {
+        private final List<BookImportError> errors = new ArrayList<>();
+        private long processed;
+        private long imported;
+        private long failed;
+
+        void error(long line, String isbn, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new BookImportError(line, isbn, message));
+            }
+        }
+
+        BookImportResponse toResponse(long started) {
+            long elapsedNanos = Math.max(System.nanoTime() - started, 1);
+            return BookImportResponse.builder()
+                    .processed(processed)
+                    .imported(imported)
+                    .failed(failed)
+                    .elapsedMillis(elapsedNanos / 1_000_000)
+                    .rowsPerSecond(processed * 1_000_000_000.0 / elapsedNanos)
+                    .errors(errors)
+                    .errorsTruncated(failed > errors.size())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.getir.librarymanagementsystem.importer;
+
+public enum ImportFormat {
+    CSV, NDJSON
+}
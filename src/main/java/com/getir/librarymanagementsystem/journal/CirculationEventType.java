@@ -0,0 +1,23 @@
+package com.getir.librarymanagementsystem.journal;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum CirculationEventType {
+    BORROWED((byte) 1),
+    RETURNED((byte) 2),
+    DELETED((byte) 3);
+
+    private final byte code;
+
+    static CirculationEventType fromCode(byte code) {
+        for (CirculationEventType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,199 @@
+package com.getir.librarymanagementsystem.journal;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Records are appended after commit, so a crash may lose one but never journals a rolled-back change.
+@Slf4j
+@Component
+public class CirculationJournal {
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final BlockingQueue<CirculationRecord> queue;
+    private final Thread writer;
+    private final AtomicLong submitted = new AtomicLong();
+    private final LongAdder flushes = new LongAdder();
+    private final Object progress = new Object();
+    private volatile long processed;
+    private volatile boolean running = true;
+    private JournalSegment active;
+    private long nextSequence;
+
+    @Autowired
+    public CirculationJournal(@Value("${library.journal.directory:journal}") String directory,
+                              @Value("${library.journal.segment-size-mb:64}") long segmentSizeMb,
+                              @Value("${library.journal.queue-capacity:65536}") int queueCapacity) {
+        this(Path.of(directory), segmentSizeMb * 1024 * 1024, queueCapacity);
+    }
+
+    public CirculationJournal(Path directory, long segmentBytes, int queueCapacity) {
+        if (segmentBytes < JournalSegment.RECORD_SIZE) {
+            throw new IllegalArgumentException("Segment must hold at least one record");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = segments();
+            if (segments.isEmpty()) {
+                nextSequence = 1;
+                active = JournalSegment.create(directory, nextSequence, segmentBytes);
+            } else {
+                active = JournalSegment.open(segments.get(segments.size() - 1));
+                nextSequence = active.isEmpty()
+                        ? firstSequence(active.path())
+                        : active.lastSequence() + 1;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open circulation journal in " + directory, e);
+        }
+        log.info("Circulation journal opened in {} at sequence {}", directory, nextSequence);
+        this.writer = new Thread(this::write, "circulation-journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // Blocks only when the writer has fallen a whole queue behind.
+    public void append(CirculationRecord record) {
+        submitted.incrementAndGet();
+        try {
+            queue.put(record);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            markProcessed(1);
+            log.error("Interrupted while journaling {} of borrow {}", record.type(), record.borrowId());
+        }
+    }
+
+    public void sync() {
+        long target = submitted.get();
+        synchronized (progress) {
+            while (processed < target && writer.isAlive()) {
+                try {
+                    progress.wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    public long replay(Consumer<CirculationRecord> visitor) {
+        sync();
+        long records = 0;
+        try {
+            for (Path segment : segments()) {
+                records += JournalSegment.read(segment, visitor);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read circulation journal", e);
+        }
+        return records;
+    }
+
+    public int segmentCount() {
+        try {
+            return segments().size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long flushCount() {
+        return flushes.sum();
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write() {
+        List<CirculationRecord> batch = new ArrayList<>(JournalSegment.MAX_UNFLUSHED_RECORDS);
+        while (running || !queue.isEmpty()) {
+            try {
+                CirculationRecord first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, JournalSegment.MAX_UNFLUSHED_RECORDS - 1);
+                for (CirculationRecord record : batch) {
+                    writeRecord(record.withSequence(nextSequence++));
+                }
+                active.flush();
+                flushes.increment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (IOException | RuntimeException e) {
+                log.error("Could not write {} circulation journal records", batch.size(), e);
+            } finally {
+                markProcessed(batch.size());
+                batch.clear();
+            }
+        }
+        try {
+            active.close();
+        } catch (IOException e) {
+            log.warn("Could not close circulation journal segment {}", active.path(), e);
+        }
+    }
+
+    private void writeRecord(CirculationRecord record) throws IOException {
+        if (active.append(record)) {
+            return;
+        }
+        active.close();
+        active = JournalSegment.create(directory, record.sequence(), segmentBytes);
+        log.info("Circulation journal rolled over to {}", active.path().getFileName());
+        if (!active.append(record)) {
+            throw new IllegalStateException("Journal record does not fit into an empty segment");
+        }
+    }
+
+    private void markProcessed(int records) {
+        synchronized (progress) {
+            processed += records;
+            progress.notifyAll();
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(JournalSegment.SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - JournalSegment.SUFFIX.length()));
+    }
+}
@@ -0,0 +1,33 @@
+package com.getir.librarymanagementsystem.journal;
+
+import com.getir.librarymanagementsystem.model.entity.Borrow;
+import com.getir.librarymanagementsystem.repository.BorrowCheckIn;
+
+import java.time.LocalDate;
+
+// User id 0 and copy stripe -1 mean unknown.
+public record CirculationRecord(long sequence, long timestampMillis, CirculationEventType type, long borrowId,
+                                long bookId, long userId, LocalDate borrowDate, LocalDate dueDate, int copyStripe) {
+
+    public static CirculationRecord of(CirculationEventType type, Borrow borrow) {
+        return new CirculationRecord(0, System.currentTimeMillis(), type, id(borrow.getId()),
+                borrow.getBook() == null ? 0 : id(borrow.getBook().getId()),
+                borrow.getUser() == null ? 0 : id(borrow.getUser().getId()),
+                borrow.getBorrowDate(), borrow.getDueDate(),
+                borrow.getCopyStripe() == null ? -1 : borrow.getCopyStripe());
+    }
+
+    public static CirculationRecord returned(BorrowCheckIn checkIn) {
+        return new CirculationRecord(0, System.currentTimeMillis(), CirculationEventType.RETURNED, id(checkIn.borrowId()),
+                id(checkIn.bookId()), 0, null, null, checkIn.copyStripe() == null ? -1 : checkIn.copyStripe());
+    }
+
+    private static long id(Long id) {
+        return id == null ? 0 : id;
+    }
+
+    CirculationRecord withSequence(long sequence) {
+        return new CirculationRecord(sequence, timestampMillis, type, borrowId, bookId, userId, borrowDate, dueDate,
+                copyStripe);
+    }
+}
@@ -0,0 +1,157 @@
+package com.getir.librarymanagementsystem.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+// 64-byte records, CRC32 over the first 60 bytes; a record with a bad checksum was torn and ends the segment.
+final class JournalSegment implements AutoCloseable {
+
+    static final int RECORD_SIZE = 64;
+    // The writer forces at least this often, so after a crash nothing past this many slots can have been written.
+    static final int MAX_UNFLUSHED_RECORDS = 4096;
+    static final String SUFFIX = ".journal";
+    private static final int CHECKSUMMED = 60;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private int position;
+    private int flushed;
+    private long lastSequence;
+
+    private JournalSegment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = buffer.capacity() / RECORD_SIZE * RECORD_SIZE;
+    }
+
+    static JournalSegment create(Path directory, long firstSequence, long sizeBytes) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", firstSequence, SUFFIX));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        return new JournalSegment(path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, sizeBytes));
+    }
+
+    static JournalSegment open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        JournalSegment segment = new JournalSegment(path, channel,
+                channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+        CRC32 crc = new CRC32();
+        while (segment.position < segment.capacity) {
+            CirculationRecord record = decode(segment.buffer, segment.position, crc);
+            if (record == null) {
+                break;
+            }
+            segment.lastSequence = record.sequence();
+            segment.position += RECORD_SIZE;
+        }
+        // A crash can leave intact records behind a torn one; clear them so they are not read after new appends.
+        int end = Math.min(segment.capacity, segment.position + MAX_UNFLUSHED_RECORDS * RECORD_SIZE);
+        for (int offset = segment.position; offset < end; offset += Long.BYTES) {
+            segment.buffer.putLong(offset, 0);
+        }
+        segment.buffer.force(segment.position, end - segment.position);
+        segment.flushed = segment.position;
+        return segment;
+    }
+
+    static long read(Path path, Consumer<CirculationRecord> visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CRC32 crc = new CRC32();
+            long count = 0;
+            for (int offset = 0; offset + RECORD_SIZE <= buffer.capacity(); offset += RECORD_SIZE) {
+                CirculationRecord record = decode(buffer, offset, crc);
+                if (record == null) {
+                    break;
+                }
+                visitor.accept(record);
+                count++;
+            }
+            return count;
+        }
+    }
+
+    // Returns false when the segment is full.
+    boolean append(CirculationRecord record) {
+        if (position + RECORD_SIZE > capacity) {
+            return false;
+        }
+        int at = position;
+        buffer.putLong(at, record.sequence());
+        buffer.putLong(at + 8, record.timestampMillis());
+        buffer.putLong(at + 16, record.borrowId());
+        buffer.putLong(at + 24, record.bookId());
+        buffer.putLong(at + 32, record.userId());
+        buffer.putInt(at + 40, epochDay(record.borrowDate()));
+        buffer.putInt(at + 44, epochDay(record.dueDate()));
+        buffer.putInt(at + 48, record.copyStripe());
+        buffer.put(at + 52, record.type().getCode());
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(at, CHECKSUMMED));
+        buffer.putInt(at + CHECKSUMMED, (int) crc.getValue());
+        position += RECORD_SIZE;
+        lastSequence = record.sequence();
+        return true;
+    }
+
+    // One msync of the range dirtied since the last flush.
+    void flush() {
+        if (position > flushed) {
+            buffer.force(flushed, position - flushed);
+            flushed = position;
+        }
+    }
+
+    boolean isEmpty() {
+        return position == 0;
+    }
+
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    private static CirculationRecord decode(ByteBuffer buffer, int at, CRC32 crc) {
+        long sequence = buffer.getLong(at);
+        if (sequence == 0) {
+            return null;
+        }
+        crc.reset();
+        crc.update(buffer.slice(at, CHECKSUMMED));
+        CirculationEventType type = CirculationEventType.fromCode(buffer.get(at + 52));
+        if ((int) crc.getValue() != buffer.getInt(at + CHECKSUMMED) || type == null) {
+            return null;
+        }
+        return new CirculationRecord(sequence, buffer.getLong(at + 8), type, buffer.getLong(at + 16),
+                buffer.getLong(at + 24), buffer.getLong(at + 32), date(buffer.getInt(at + 40)),
+                date(buffer.getInt(at + 44)), buffer.getInt(at + 48));
+    }
+
+    private static int epochDay(LocalDate date) {
+        return date == null ? NO_DATE : Math.toIntExact(date.toEpochDay());
+    }
+
+    private static LocalDate date(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+}
@@ -1,13 +1,34 @@
 package com.getir.librarymanagementsystem.model.dto.event;
 
-import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
 public class BookAvailabilityEvent {
     private Long bookId;
     private boolean available;
+    private long availableCopies;
+
+    // Set when a returned copy went straight to a waiting hold instead of the shelf.
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long holdId;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long borrowId;
+
+    // Assigned by the publisher; increases by one with every event.
+    private long sequence;
+
+    public BookAvailabilityEvent(Long bookId, boolean available, long availableCopies) {
+        this(bookId, available, availableCopies, null, null);
+    }
+
+    public BookAvailabilityEvent(Long bookId, boolean available, long availableCopies, Long holdId, Long borrowId) {
+        this.bookId = bookId;
+        this.available = available;
+        this.availableCopies = availableCopies;
+        this.holdId = holdId;
+        this.borrowId = borrowId;
+    }
 }
@@ -0,0 +1,15 @@
+package com.getir.librarymanagementsystem.model.dto.pagination;
+
+import java.util.Locale;
+
+public enum BookSortField {
+    ID, TITLE;
+
+    public static BookSortField from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageRequestException("Books can only be sorted by id or title");
+        }
+    }
+}
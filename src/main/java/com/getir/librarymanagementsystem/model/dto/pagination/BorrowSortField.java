@@ -0,0 +1,13 @@
+package com.getir.librarymanagementsystem.model.dto.pagination;
+
+public enum BorrowSortField {
+    ID, BORROW_DATE;
+
+    public static BorrowSortField from(String value) {
+        return switch (value.trim()) {
+            case "id" -> ID;
+            case "borrowDate" -> BORROW_DATE;
+            default -> throw new InvalidPageRequestException("Borrows can only be sorted by id or borrowDate");
+        };
+    }
+}
@@ -0,0 +1,11 @@
+package com.getir.librarymanagementsystem.model.dto.pagination;
+
+import java.util.List;
+import java.util.function.Function;
+
+public record KeysetPage<T>(List<T> items, String nextCursor, Long totalEstimate) {
+
+    public <R> KeysetPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new KeysetPage<>(items.stream().<R>map(mapper).toList(), nextCursor, totalEstimate);
+    }
+}
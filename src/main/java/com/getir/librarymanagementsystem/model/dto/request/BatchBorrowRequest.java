@@ -0,0 +1,17 @@
+package com.getir.librarymanagementsystem.model.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class BatchBorrowRequest {
+    @NotEmpty
+    @Size(max = 50)
+    private List<Long> bookIds;
+    private LocalDate borrowDate;
+    private LocalDate returnDate;
+}
@@ -0,0 +1,23 @@
+package com.getir.librarymanagementsystem.model.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchReturnRequest {
+    @Size(max = 10_000)
+    private List<Long> borrowIds;
+    // A scanned ISBN closes the oldest open borrow of that title.
+    @Size(max = 10_000)
+    private List<String> isbns;
+
+    @JsonIgnore
+    @AssertTrue(message = "borrowIds or isbns must not be empty")
+    public boolean isAnyKeyPresent() {
+        return (borrowIds != null && !borrowIds.isEmpty()) || (isbns != null && !isbns.isEmpty());
+    }
+}
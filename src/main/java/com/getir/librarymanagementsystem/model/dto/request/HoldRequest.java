@@ -0,0 +1,8 @@
+package com.getir.librarymanagementsystem.model.dto.request;
+
+import lombok.Data;
+
+@Data
+public class HoldRequest {
+    private Long bookId;
+}
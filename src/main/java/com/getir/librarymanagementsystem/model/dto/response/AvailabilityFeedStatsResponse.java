@@ -0,0 +1,25 @@
+package com.getir.librarymanagementsystem.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityFeedStatsResponse {
+    private int subscribers;
+    private int allBookSubscribers;
+    private int indexedBooks;
+    private long published;
+    private long delivered;
+    private long conflated;
+    private long pending;
+    private long headSequence;
+    private int replayCapacity;
+    private long resumed;
+    private long snapshots;
+    private long resets;
+}
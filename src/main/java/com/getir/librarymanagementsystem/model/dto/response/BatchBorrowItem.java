@@ -0,0 +1,16 @@
+package com.getir.librarymanagementsystem.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchBorrowItem {
+    private Long bookId;
+    private BatchItemStatus status;
+    private BorrowResponse borrow;
+}
@@ -0,0 +1,17 @@
+package com.getir.librarymanagementsystem.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchBorrowResponse {
+    private boolean completed;
+    private List<BatchBorrowItem> items;
+}
@@ -0,0 +1,12 @@
+package com.getir.librarymanagementsystem.model.dto.response;
+
+public enum BatchItemStatus {
+    BORROWED,
+    RETURNED,
+    ALREADY_RETURNED,
+    NOT_FOUND,
+    DUPLICATE,
+    UNAVAILABLE,
+    // The item itself was fine, but another item failed and the whole batch was rolled back.
+    ROLLED_BACK
+}
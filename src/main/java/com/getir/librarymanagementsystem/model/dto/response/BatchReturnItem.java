@@ -0,0 +1,16 @@
+package com.getir.librarymanagementsystem.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchReturnItem {
+    private Long borrowId;
+    private String isbn;
+    private BatchItemStatus status;
+}
@@ -0,0 +1,21 @@
+package com.getir.librarymanagementsystem.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchReturnResponse {
+    private long processed;
+    private long returned;
+    private long failed;
+    private long elapsedMillis;
+    private double returnsPerSecond;
+    private List<BatchReturnItem> errors;
+}
@@ -0,0 +1,27 @@
+package com.getir.librarymanagementsystem.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookResponse {
+    private Long id;
+    private String title;
+    private String author;
+    private String isbn;
+    private LocalDate publicationDate;
+    private String genre;
+    private boolean available;
+    private Integer totalCopies;
+    private int availableCopies;
+    private Instant updatedAt;
+    private Long version;
+}
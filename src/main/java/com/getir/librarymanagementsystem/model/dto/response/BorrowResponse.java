@@ -17,5 +17,6 @@ public class BorrowResponse {
     private String bookTitle;
     private LocalDate borrowDate;
     private LocalDate returnDate;
+    private LocalDate dueDate;
     private boolean returned;
 }
@@ -0,0 +1,24 @@
+package com.getir.librarymanagementsystem.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClusterStatsResponse {
+    private String node;
+    private String transport;
+    private long messagesSent;
+    private long messagesReceived;
+    private long duplicateMessages;
+    private long eventsApplied;
+    private long staleEvents;
+    private int pendingInvalidations;
+    private long invalidationsSent;
+    private long invalidationsCoalesced;
+    private long invalidationsApplied;
+}
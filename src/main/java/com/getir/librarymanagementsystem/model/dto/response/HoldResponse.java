@@ -0,0 +1,24 @@
+package com.getir.librarymanagementsystem.model.dto.response;
+
+import com.getir.librarymanagementsystem.model.entity.HoldStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldResponse {
+    private Long id;
+    private String username;
+    private Long bookId;
+    private String bookTitle;
+    private HoldStatus status;
+    // 1 for the next hold to be served; only set while the hold is waiting.
+    private Long position;
+    private Instant placedAt;
+}
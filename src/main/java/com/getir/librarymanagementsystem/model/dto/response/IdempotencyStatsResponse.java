@@ -0,0 +1,25 @@
+package com.getir.librarymanagementsystem.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyStatsResponse {
+    private long size;
+    private int inFlight;
+    private long ttlSeconds;
+    private long waitSeconds;
+    private long executed;
+    private long replayed;
+    private long coalesced;
+    private long rejected;
+    private long failed;
+    private long timedOut;
+    private long expirations;
+    private long lostClaims;
+}
@@ -0,0 +1,24 @@
+package com.getir.librarymanagementsystem.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JournalReplayResponse {
+    private long records;
+    private int segments;
+    private long elapsedMillis;
+    private double recordsPerSecond;
+    private long openLoans;
+    private long returnedLoans;
+    private long deletedLoans;
+    private long loanStateMismatches;
+    private long booksChecked;
+    private long availabilityMismatches;
+    private long availabilityRepaired;
+}
@@ -0,0 +1,24 @@
+package com.getir.librarymanagementsystem.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxStatsResponse {
+    private long pending;
+    private long oldestPendingMillis;
+    private int batchSize;
+    private long written;
+    private long dispatched;
+    private long batches;
+    private long superseded;
+    private long failed;
+    private long lastLagMillis;
+    private long maxLagMillis;
+    private double averageLagMillis;
+}
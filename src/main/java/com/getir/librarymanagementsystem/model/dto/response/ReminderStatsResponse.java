@@ -0,0 +1,25 @@
+package com.getir.librarymanagementsystem.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReminderStatsResponse {
+    private int pending;
+    private long tickMillis;
+    private long scheduled;
+    private long cancelled;
+    private long sent;
+    private long skipped;
+    private long failed;
+    private long lastLagMillis;
+    private long maxLagMillis;
+    private double averageLagMillis;
+    private int estimatedBytesPerReminder;
+    private long estimatedBytes;
+}
@@ -0,0 +1,26 @@
+package com.getir.librarymanagementsystem.model.dto.response;
+
+import com.getir.librarymanagementsystem.export.ReportJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobResponse {
+    private String id;
+    private String format;
+    private ReportJobStatus status;
+    private LocalDate overdueBefore;
+    private long rows;
+    private long sizeBytes;
+    private Instant submittedAt;
+    private Instant completedAt;
+    private String error;
+}
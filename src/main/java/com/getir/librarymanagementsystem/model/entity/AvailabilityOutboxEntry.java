@@ -0,0 +1,38 @@
+package com.getir.librarymanagementsystem.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// Written in the transaction that made the change; deleted once dispatched.
+@Entity
+@Table(name = "availability_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AvailabilityOutboxEntry {
+
+    // Identity, so rows written with plain JDBC batches are numbered by the database in insertion order.
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @Column(nullable = false)
+    private boolean available;
+
+    @Column(nullable = false)
+    private long availableCopies;
+
+    private Long holdId;
+
+    private Long borrowId;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
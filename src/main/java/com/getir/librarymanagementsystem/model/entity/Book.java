@@ -1,21 +1,30 @@
 package com.getir.librarymanagementsystem.model.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Formula;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "books")
+@Table(name = "books", indexes = {
+        @Index(name = "idx_books_title_id", columnList = "title, id"),
+        @Index(name = "idx_books_updated_at", columnList = "updated_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class Book {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+    @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = 50)
     private Long id;
 
     private String title;
@@ -31,4 +40,21 @@ public class Book {
 
     private boolean available = true;
 
+    // Copies the library owns; null on a request means "leave unchanged" for updates and one copy for new titles.
+    private Integer totalCopies;
+
+    @Formula("(select coalesce(sum(s.available_copies), 0) from book_copy_stripes s where s.book_id = id)")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private int availableCopies;
+
+    @JsonIgnore
+    private int copyStripes;
+
+    @UpdateTimestamp
+    private Instant updatedAt;
+
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
 }
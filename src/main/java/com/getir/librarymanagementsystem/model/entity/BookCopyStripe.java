@@ -0,0 +1,31 @@
+package com.getir.librarymanagementsystem.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Spreading a title's copies over several rows keeps concurrent borrowers off a single row lock.
+@Entity
+@Table(name = "book_copy_stripes", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_book_copy_stripes_book_stripe", columnNames = {"book_id", "stripe"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookCopyStripe {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_copy_stripes_seq")
+    @SequenceGenerator(name = "book_copy_stripes_seq", sequenceName = "book_copy_stripes_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @Column(nullable = false)
+    private int stripe;
+
+    @Column(nullable = false)
+    private int availableCopies;
+}
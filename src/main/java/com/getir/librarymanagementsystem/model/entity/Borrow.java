@@ -2,9 +2,17 @@ package com.getir.librarymanagementsystem.model.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_borrow_borrow_date_id", columnList = "borrow_date, id"),
+        @Index(name = "idx_borrow_updated_at", columnList = "updated_at"),
+        @Index(name = "idx_borrow_returned_due_date", columnList = "returned, due_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -12,18 +20,26 @@ import java.time.LocalDate;
 public class Borrow {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "borrow_seq")
+    @SequenceGenerator(name = "borrow_seq", sequenceName = "borrow_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Book book;
 
     private LocalDate borrowDate;
     private LocalDate returnDate;
+    private LocalDate dueDate;
 
     private boolean returned;
+
+    // Copy stripe the borrowed copy was taken from; the return puts it back there.
+    private Integer copyStripe;
+
+    @UpdateTimestamp
+    private Instant updatedAt;
 }
 
@@ -0,0 +1,47 @@
+package com.getir.librarymanagementsystem.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+
+// Holds of a title are served oldest first when copies come back.
+@Entity
+@Table(name = "holds", indexes = {
+        @Index(name = "idx_holds_book_status_placed_at", columnList = "book_id, status, placed_at, id"),
+        @Index(name = "idx_holds_user_status", columnList = "user_id, status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Hold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "holds_seq")
+    @SequenceGenerator(name = "holds_seq", sequenceName = "holds_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    private Book book;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private HoldStatus status;
+
+    // Queue order; ids come from pooled sequences and are only ordered within one instance.
+    @Column(nullable = false)
+    private Instant placedAt;
+
+    private Instant fulfilledAt;
+
+    // Borrow the hold turned into when a returned copy was handed to it.
+    private Long borrowId;
+
+    @UpdateTimestamp
+    private Instant updatedAt;
+}
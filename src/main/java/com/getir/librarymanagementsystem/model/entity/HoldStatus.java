@@ -0,0 +1,5 @@
+package com.getir.librarymanagementsystem.model.entity;
+
+public enum HoldStatus {
+    WAITING, FULFILLED, CANCELLED
+}
@@ -0,0 +1,53 @@
+package com.getir.librarymanagementsystem.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.Length;
+
+import java.time.Instant;
+
+// The unique key decides which request runs the mutation; rows are written with plain JDBC by IdempotencyStore.
+@Entity
+@Table(name = "idempotency_keys", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_idempotency_keys_scope_key", columnNames = {"scope", "idempotency_key"})
+}, indexes = {
+        @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String scope;
+
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    // SHA-256 of the request as JSON, so a key sent again with another request can be told apart.
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    // Identifies the request that holds the claim; only it may complete or release the row.
+    @Column(nullable = false, length = 36)
+    private String claimId;
+
+    @Column(nullable = false)
+    private boolean completed;
+
+    @Column(length = Length.LONG32)
+    private String response;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    // Until the response is stored this is when an abandoned claim may be taken over.
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,25 @@
+package com.getir.librarymanagementsystem.model.mapper;
+
+import com.getir.librarymanagementsystem.model.dto.response.BookResponse;
+import com.getir.librarymanagementsystem.model.entity.Book;
+import org.springframework.stereotype.Component;
+
+@Component
+public class BookMapper {
+
+    public BookResponse toResponse(Book book) {
+        return BookResponse.builder()
+                .id(book.getId())
+                .title(book.getTitle())
+                .author(book.getAuthor())
+                .isbn(book.getIsbn())
+                .publicationDate(book.getPublicationDate())
+                .genre(book.getGenre())
+                .available(book.isAvailable())
+                .totalCopies(book.getTotalCopies())
+                .availableCopies(book.getAvailableCopies())
+                .updatedAt(book.getUpdatedAt())
+                .version(book.getVersion())
+                .build();
+    }
+}
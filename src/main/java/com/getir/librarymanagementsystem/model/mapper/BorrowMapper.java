@@ -28,6 +28,7 @@ public class BorrowMapper {
                 .bookTitle(borrow.getBook().getTitle())
                 .borrowDate(borrow.getBorrowDate())
                 .returnDate(borrow.getReturnDate())
+                .dueDate(borrow.getDueDate())
                 .returned(borrow.isReturned())
                 .build();
     }
@@ -38,7 +39,7 @@ public class BorrowMapper {
                 .bookTitle(borrow.getBook().getTitle())
                 .username(borrow.getUser().getUsername())
                 .borrowDate(borrow.getBorrowDate())
-                .dueDate(borrow.getBorrowDate().plusDays(14))
+                .dueDate(borrow.getDueDate())
                 .build();
     }
 
@@ -0,0 +1,54 @@
+package com.getir.librarymanagementsystem.outbox;
+
+import com.getir.librarymanagementsystem.model.dto.event.BookAvailabilityEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Events are inserted in the caller's transaction, so they exist exactly when the change was committed.
+@Component
+@RequiredArgsConstructor
+public class AvailabilityOutbox {
+
+    private static final String INSERT = "insert into availability_outbox "
+            + "(book_id, available, available_copies, hold_id, borrow_id, created_at) values (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AvailabilityOutboxRelay relay;
+
+    public void add(BookAvailabilityEvent event) {
+        addAll(List.of(event));
+    }
+
+    public void addAll(Collection<BookAvailabilityEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (BookAvailabilityEvent event : events) {
+            rows.add(new Object[]{event.getBookId(), event.isAvailable(), event.getAvailableCopies(),
+                    event.getHoldId(), event.getBorrowId(), now});
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows);
+        relay.written(rows.size());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            relay.wakeUp();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                relay.wakeUp();
+            }
+        });
+    }
+}
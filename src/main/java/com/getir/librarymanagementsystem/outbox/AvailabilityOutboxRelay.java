@@ -0,0 +1,173 @@
+package com.getir.librarymanagementsystem.outbox;
+
+import com.getir.librarymanagementsystem.cluster.AvailabilityUpdate;
+import com.getir.librarymanagementsystem.cluster.ClusterEventBus;
+import com.getir.librarymanagementsystem.model.dto.event.BookAvailabilityEvent;
+import com.getir.librarymanagementsystem.model.dto.response.OutboxStatsResponse;
+import com.getir.librarymanagementsystem.model.entity.AvailabilityOutboxEntry;
+import com.getir.librarymanagementsystem.repository.AvailabilityOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// An event older than one already dispatched for its book is dropped rather than rolling subscribers back.
+@Slf4j
+@Component
+public class AvailabilityOutboxRelay {
+
+    // Books whose newest dispatched event is remembered; late commits are only ever a few batches behind.
+    private static final int TRACKED_BOOKS = 100_000;
+
+    private final AvailabilityOutboxRepository outboxRepository;
+    private final ClusterEventBus clusterEventBus;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long pollMillis;
+    private final Semaphore wakeUps = new Semaphore(0);
+    private final ExecutorService relay = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "availability-outbox");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Outbox id of the newest dispatched event per book, touched only by the relay thread.
+    private final Map<Long, Long> lastDispatched = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            return size() > TRACKED_BOOKS;
+        }
+    };
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder superseded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder lagTotal = new LongAdder();
+    private final LongAccumulator maxLag = new LongAccumulator(Long::max, 0);
+    private volatile long lastLag;
+    private volatile boolean running = true;
+
+    public AvailabilityOutboxRelay(AvailabilityOutboxRepository outboxRepository,
+                                   ClusterEventBus clusterEventBus,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${library.outbox.batch-size:500}") int batchSize,
+                                   @Value("${library.outbox.poll-millis:1000}") long pollMillis) {
+        this.outboxRepository = outboxRepository;
+        this.clusterEventBus = clusterEventBus;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.pollMillis = pollMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        relay.execute(this::run);
+    }
+
+    // Wake-ups that arrive while the relay is busy collapse into one more pass.
+    public void wakeUp() {
+        if (wakeUps.availablePermits() == 0) {
+            wakeUps.release();
+        }
+    }
+
+    void written(int events) {
+        written.add(events);
+    }
+
+    public OutboxStatsResponse stats() {
+        Instant oldest = outboxRepository.findOldestCreatedAt();
+        long count = dispatched.sum();
+        return OutboxStatsResponse.builder()
+                .pending(outboxRepository.count())
+                .oldestPendingMillis(oldest == null ? 0 : Math.max(0, System.currentTimeMillis() - oldest.toEpochMilli()))
+                .batchSize(batchSize)
+                .written(written.sum())
+                .dispatched(count)
+                .batches(batches.sum())
+                .superseded(superseded.sum())
+                .failed(failed.sum())
+                .lastLagMillis(lastLag)
+                .maxLagMillis(maxLag.get())
+                .averageLagMillis(count == 0 ? 0 : (double) lagTotal.sum() / count)
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        relay.shutdownNow();
+    }
+
+    void drain() {
+        int read;
+        do {
+            read = dispatchBatch();
+        } while (read == batchSize);
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                wakeUps.tryAcquire(pollMillis, TimeUnit.MILLISECONDS);
+                wakeUps.drainPermits();
+                drain();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                failed.increment();
+                log.warn("Dispatching availability events failed, retrying in {} ms", pollMillis, e);
+            }
+        }
+    }
+
+    private int dispatchBatch() {
+        Integer read = transactionTemplate.execute(status -> {
+            List<AvailabilityOutboxEntry> batch = outboxRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            long now = System.currentTimeMillis();
+            List<AvailabilityUpdate> events = new ArrayList<>(batch.size());
+            List<Long> ids = new ArrayList<>(batch.size());
+            for (AvailabilityOutboxEntry entry : batch) {
+                ids.add(entry.getId());
+                Long newer = lastDispatched.get(entry.getBookId());
+                if (newer != null && newer > entry.getId()) {
+                    superseded.increment();
+                    continue;
+                }
+                lastDispatched.put(entry.getBookId(), entry.getId());
+                events.add(new AvailabilityUpdate(entry.getId(), new BookAvailabilityEvent(entry.getBookId(),
+                        entry.isAvailable(), entry.getAvailableCopies(), entry.getHoldId(), entry.getBorrowId())));
+                long lag = Math.max(0, now - entry.getCreatedAt().toEpochMilli());
+                lagTotal.add(lag);
+                maxLag.accumulate(lag);
+                lastLag = lag;
+            }
+            clusterEventBus.publishAvailability(events);
+            outboxRepository.deleteAllByIdInBatch(ids);
+            dispatched.add(events.size());
+            batches.increment();
+            return batch.size();
+        });
+        return read == null ? 0 : read;
+    }
+}
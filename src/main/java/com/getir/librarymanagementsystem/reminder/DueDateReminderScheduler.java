@@ -0,0 +1,258 @@
+package com.getir.librarymanagementsystem.reminder;
+
+import com.getir.librarymanagementsystem.model.dto.response.ReminderStatsResponse;
+import com.getir.librarymanagementsystem.repository.BorrowDueDate;
+import com.getir.librarymanagementsystem.repository.BorrowReminder;
+import com.getir.librarymanagementsystem.repository.BorrowRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// The lookup at send time decides whether a reminder still goes out, so a return racing the wheel is harmless.
+@Slf4j
+@Component
+public class DueDateReminderScheduler {
+
+    // Wheel timer (32) + pending reminder (32) + map node, boxed id and table slot (~56) with compressed oops.
+    public static final int ESTIMATED_BYTES_PER_REMINDER = 120;
+    private static final int LOAD_CHUNK_SIZE = 1000;
+
+    private final BorrowRepository borrowRepository;
+    private final ReminderNotifier notifier;
+    private final Clock clock;
+    private final int daysBefore;
+    private final LocalTime sendAt;
+    private final int batchSize;
+    private final TimingWheel<PendingReminder> wheel;
+    private final Map<Long, TimingWheel.Timer<PendingReminder>> pending = new HashMap<>();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "due-date-reminders");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final LongAdder scheduled = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder lagTotal = new LongAdder();
+    private final LongAccumulator maxLag = new LongAccumulator(Long::max, 0);
+    private volatile long lastLag;
+
+    @Autowired
+    public DueDateReminderScheduler(BorrowRepository borrowRepository,
+                                    ReminderNotifier notifier,
+                                    @Value("${library.reminders.days-before:2}") int daysBefore,
+                                    @Value("${library.reminders.send-at:09:00}") LocalTime sendAt,
+                                    @Value("${library.reminders.batch-size:500}") int batchSize,
+                                    @Value("${library.reminders.tick-seconds:60}") long tickSeconds) {
+        this(borrowRepository, notifier, Clock.systemDefaultZone(), daysBefore, sendAt, batchSize, tickSeconds);
+    }
+
+    public DueDateReminderScheduler(BorrowRepository borrowRepository, ReminderNotifier notifier, Clock clock,
+                                    int daysBefore, LocalTime sendAt, int batchSize, long tickSeconds) {
+        this.borrowRepository = borrowRepository;
+        this.notifier = notifier;
+        this.clock = clock;
+        this.daysBefore = daysBefore;
+        this.sendAt = sendAt;
+        this.batchSize = batchSize;
+        this.wheel = new TimingWheel<>(TimeUnit.SECONDS.toMillis(tickSeconds), clock.millis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        log.info("Loading due-date reminders of open loans");
+        LocalDate today = LocalDate.now(clock);
+        long lastId = 0;
+        long loaded = 0;
+        List<BorrowDueDate> chunk = borrowRepository.findOpenDueDatesAfter(today, lastId, PageRequest.of(0, LOAD_CHUNK_SIZE));
+        while (chunk != null && !chunk.isEmpty()) {
+            for (BorrowDueDate loan : chunk) {
+                schedule(loan.borrowId(), loan.dueDate());
+            }
+            loaded += chunk.size();
+            lastId = chunk.get(chunk.size() - 1).borrowId();
+            chunk = borrowRepository.findOpenDueDatesAfter(today, lastId, PageRequest.of(0, LOAD_CHUNK_SIZE));
+        }
+        log.info("Due-date reminders loaded for {} open loans, {} pending", loaded, pendingCount());
+        long tick = wheel.tickMillis();
+        ticker.scheduleAtFixedRate(this::tick, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    // Reminders whose time has already passed are not sent.
+    public void schedule(Long borrowId, LocalDate dueDate) {
+        if (borrowId == null || dueDate == null) {
+            return;
+        }
+        scheduleAfter(new PendingReminder(borrowId, dueDate.toEpochDay(), null), clock.millis());
+    }
+
+    public synchronized void cancel(Long borrowId) {
+        TimingWheel.Timer<PendingReminder> timer = pending.remove(borrowId);
+        if (timer != null && wheel.cancel(timer)) {
+            cancelled.increment();
+        }
+    }
+
+    public void cancelAll(Collection<Long> borrowIds) {
+        borrowIds.forEach(this::cancel);
+    }
+
+    public synchronized int pendingCount() {
+        return wheel.size();
+    }
+
+    public ReminderStatsResponse stats() {
+        int count = pendingCount();
+        long delivered = sent.sum();
+        return ReminderStatsResponse.builder()
+                .pending(count)
+                .tickMillis(wheel.tickMillis())
+                .scheduled(scheduled.sum())
+                .cancelled(cancelled.sum())
+                .sent(delivered)
+                .skipped(skipped.sum())
+                .failed(failed.sum())
+                .lastLagMillis(lastLag)
+                .maxLagMillis(maxLag.get())
+                .averageLagMillis(delivered == 0 ? 0 : (double) lagTotal.sum() / delivered)
+                .estimatedBytesPerReminder(ESTIMATED_BYTES_PER_REMINDER)
+                .estimatedBytes((long) count * ESTIMATED_BYTES_PER_REMINDER)
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    public void tick() {
+        List<TimingWheel.Timer<PendingReminder>> due;
+        synchronized (this) {
+            due = wheel.advance(clock.millis());
+            due.forEach(timer -> pending.remove(timer.value().borrowId(), timer));
+        }
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<TimingWheel.Timer<PendingReminder>> batch = due.subList(from, Math.min(due.size(), from + batchSize));
+            try {
+                dispatch(batch);
+            } catch (RuntimeException e) {
+                failed.add(batch.size());
+                log.warn("Looking up {} due-date reminders failed, retrying on the next tick", batch.size(), e);
+                retry(batch);
+            }
+        }
+    }
+
+    private void dispatch(List<TimingWheel.Timer<PendingReminder>> batch) {
+        Map<Long, BorrowReminder> loans = borrowRepository.findRemindersByIdIn(
+                        batch.stream().map(timer -> timer.value().borrowId()).toList()).stream()
+                .collect(Collectors.toMap(BorrowReminder::borrowId, Function.identity()));
+        List<TimingWheel.Timer<PendingReminder>> current = new ArrayList<>(batch.size());
+        List<DueReminder> reminders = new ArrayList<>(batch.size());
+        for (TimingWheel.Timer<PendingReminder> timer : batch) {
+            PendingReminder reminder = timer.value();
+            BorrowReminder loan = loans.get(reminder.borrowId());
+            // Returned, deleted or re-dated since it was scheduled.
+            if (loan == null || loan.returned() || loan.dueDate() == null
+                    || loan.dueDate().toEpochDay() != reminder.dueEpochDay()) {
+                skipped.increment();
+                continue;
+            }
+            current.add(timer);
+            reminders.add(new DueReminder(loan.borrowId(), loan.username(), loan.contactInfo(), loan.bookTitle(),
+                    loan.dueDate(), reminder.kind()));
+        }
+        if (reminders.isEmpty()) {
+            return;
+        }
+
+        List<TimingWheel.Timer<PendingReminder>> delivered = current;
+        try {
+            notifier.send(reminders);
+        } catch (ReminderDeliveryException e) {
+            Set<Long> undelivered = e.getUndelivered().stream().map(DueReminder::borrowId).collect(Collectors.toSet());
+            Map<Boolean, List<TimingWheel.Timer<PendingReminder>>> outcome = current.stream()
+                    .collect(Collectors.partitioningBy(timer -> undelivered.contains(timer.value().borrowId())));
+            delivered = outcome.get(false);
+            failed.add(outcome.get(true).size());
+            log.warn("{} of {} due-date reminders were not delivered, retrying them on the next tick",
+                    outcome.get(true).size(), reminders.size(), e);
+            retry(outcome.get(true));
+        } catch (RuntimeException e) {
+            failed.add(reminders.size());
+            log.warn("Sending {} due-date reminders failed, retrying on the next tick", reminders.size(), e);
+            retry(current);
+            return;
+        }
+
+        long now = clock.millis();
+        for (TimingWheel.Timer<PendingReminder> timer : delivered) {
+            long lag = Math.max(0, now - timer.deadlineMillis());
+            lagTotal.add(lag);
+            maxLag.accumulate(lag);
+            lastLag = lag;
+            if (timer.value().kind() == ReminderKind.BEFORE_DUE) {
+                scheduleAfter(timer.value(), timer.deadlineMillis());
+            }
+        }
+        sent.add(delivered.size());
+        log.info("Sent {} due-date reminders", delivered.size());
+    }
+
+    private synchronized void scheduleAfter(PendingReminder loan, long afterMillis) {
+        TimingWheel.Timer<PendingReminder> previous = pending.remove(loan.borrowId());
+        if (previous != null) {
+            wheel.cancel(previous);
+        }
+        LocalDate dueDate = LocalDate.ofEpochDay(loan.dueEpochDay());
+        for (ReminderKind kind : ReminderKind.values()) {
+            LocalDate day = kind == ReminderKind.BEFORE_DUE ? dueDate.minusDays(daysBefore) : dueDate;
+            long at = day.atTime(sendAt).atZone(clock.getZone()).toInstant().toEpochMilli();
+            if (at > afterMillis) {
+                track(at, new PendingReminder(loan.borrowId(), loan.dueEpochDay(), kind));
+                return;
+            }
+        }
+    }
+
+    private synchronized void retry(List<TimingWheel.Timer<PendingReminder>> timers) {
+        long now = clock.millis();
+        timers.forEach(timer -> track(now, timer.value()));
+    }
+
+    private void track(long deadlineMillis, PendingReminder reminder) {
+        TimingWheel.Timer<PendingReminder> previous = pending.put(reminder.borrowId(),
+                wheel.schedule(deadlineMillis, reminder));
+        if (previous != null) {
+            wheel.cancel(previous);
+        }
+        scheduled.increment();
+    }
+
+    private record PendingReminder(long borrowId, long dueEpochDay, ReminderKind kind) {
+    }
+}
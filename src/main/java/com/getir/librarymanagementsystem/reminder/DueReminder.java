@@ -0,0 +1,7 @@
+package com.getir.librarymanagementsystem.reminder;
+
+import java.time.LocalDate;
+
+public record DueReminder(Long borrowId, String username, String contactInfo, String bookTitle, LocalDate dueDate,
+                          ReminderKind kind) {
+}
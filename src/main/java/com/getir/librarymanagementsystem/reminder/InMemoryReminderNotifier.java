@@ -0,0 +1,28 @@
+package com.getir.librarymanagementsystem.reminder;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Keeps sent reminders so tests can assert on them.
+@Component
+@ConditionalOnProperty(name = "library.reminders.notifier", havingValue = "memory")
+public class InMemoryReminderNotifier implements ReminderNotifier {
+
+    private final List<DueReminder> sent = new ArrayList<>();
+
+    @Override
+    public synchronized void send(List<DueReminder> reminders) {
+        sent.addAll(reminders);
+    }
+
+    public synchronized List<DueReminder> sent() {
+        return List.copyOf(sent);
+    }
+
+    public synchronized void clear() {
+        sent.clear();
+    }
+}
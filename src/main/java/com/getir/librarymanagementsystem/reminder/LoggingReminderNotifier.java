@@ -0,0 +1,21 @@
+package com.getir.librarymanagementsystem.reminder;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "library.reminders.notifier", havingValue = "log", matchIfMissing = true)
+public class LoggingReminderNotifier implements ReminderNotifier {
+
+    @Override
+    public void send(List<DueReminder> reminders) {
+        for (DueReminder reminder : reminders) {
+            log.info("{} reminder for user '{}': '{}' is due on {} (borrow {})", reminder.kind(), reminder.username(),
+                    reminder.bookTitle(), reminder.dueDate(), reminder.borrowId());
+        }
+    }
+}
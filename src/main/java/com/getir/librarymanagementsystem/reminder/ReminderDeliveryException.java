@@ -0,0 +1,18 @@
+package com.getir.librarymanagementsystem.reminder;
+
+import java.util.List;
+
+// Thrown when part of a batch went out; only the undelivered reminders are retried.
+public class ReminderDeliveryException extends RuntimeException {
+
+    private final List<DueReminder> undelivered;
+
+    public ReminderDeliveryException(List<DueReminder> undelivered, Throwable cause) {
+        super(undelivered.size() + " reminders were not delivered", cause);
+        this.undelivered = List.copyOf(undelivered);
+    }
+
+    public List<DueReminder> getUndelivered() {
+        return undelivered;
+    }
+}
@@ -0,0 +1,6 @@
+package com.getir.librarymanagementsystem.reminder;
+
+public enum ReminderKind {
+    BEFORE_DUE,
+    DUE
+}
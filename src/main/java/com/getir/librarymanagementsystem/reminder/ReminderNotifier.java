@@ -0,0 +1,9 @@
+package com.getir.librarymanagementsystem.reminder;
+
+import java.util.List;
+
+// Throwing retries the whole batch; a ReminderDeliveryException retries only the reminders it names.
+public interface ReminderNotifier {
+
+    void send(List<DueReminder> reminders);
+}
@@ -0,0 +1,71 @@
+package com.getir.librarymanagementsystem.reminder;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// A batch goes out over one SMTP connection; borrowers without an e-mail address are skipped.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "library.reminders.notifier", havingValue = "smtp")
+public class SmtpReminderNotifier implements ReminderNotifier {
+
+    private final JavaMailSender mailSender;
+    private final String from;
+
+    public SmtpReminderNotifier(JavaMailSender mailSender,
+                                @Value("${library.reminders.mail-from:library@localhost}") String from) {
+        this.mailSender = mailSender;
+        this.from = from;
+    }
+
+    @Override
+    public void send(List<DueReminder> reminders) {
+        Map<SimpleMailMessage, DueReminder> byMessage = new IdentityHashMap<>();
+        for (DueReminder reminder : reminders) {
+            if (reminder.contactInfo() != null && reminder.contactInfo().contains("@")) {
+                byMessage.put(message(reminder), reminder);
+            }
+        }
+        if (byMessage.size() < reminders.size()) {
+            log.debug("Skipped {} reminders without an e-mail address", reminders.size() - byMessage.size());
+        }
+        if (byMessage.isEmpty()) {
+            return;
+        }
+        try {
+            mailSender.send(byMessage.keySet().toArray(SimpleMailMessage[]::new));
+        } catch (MailSendException e) {
+            List<DueReminder> undelivered = e.getFailedMessages().keySet().stream()
+                    .map(byMessage::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+            // Without a message-by-message account nothing is known to have gone out.
+            if (undelivered.isEmpty() || undelivered.size() < e.getFailedMessages().size()) {
+                throw e;
+            }
+            throw new ReminderDeliveryException(undelivered, e);
+        }
+    }
+
+    private SimpleMailMessage message(DueReminder reminder) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(from);
+        message.setTo(reminder.contactInfo().trim());
+        message.setSubject(reminder.kind() == ReminderKind.DUE
+                ? "'" + reminder.bookTitle() + "' is due today"
+                : "'" + reminder.bookTitle() + "' is due on " + reminder.dueDate());
+        message.setText("Hello " + reminder.username() + ",\n\nplease return '" + reminder.bookTitle() + "' by "
+                + reminder.dueDate() + ".\n");
+        return message;
+    }
+}
@@ -0,0 +1,171 @@
+package com.getir.librarymanagementsystem.reminder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Hierarchical timing wheel: O(1) add and cancel, and a tick only touches timers that fire or move. Not thread-safe.
+final class TimingWheel<T> {
+
+    static final int SLOT_BITS = 6;
+    static final int LEVELS = 4;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final long tickMillis;
+    private final Timer<T>[][] slots;
+    private final Timer<T> overflow = new Timer<>(0, null);
+    private final Timer<T> expired = new Timer<>(0, null);
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+        this.slots = new Timer[LEVELS][SLOTS];
+        for (Timer<T>[] level : slots) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                level[slot] = new Timer<>(0, null);
+            }
+        }
+    }
+
+    Timer<T> schedule(long deadlineMillis, T value) {
+        Timer<T> timer = new Timer<>(deadlineMillis, value);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    boolean cancel(Timer<T> timer) {
+        if (timer.next == null) {
+            return false;
+        }
+        timer.unlink();
+        size--;
+        return true;
+    }
+
+    // Timers scheduled with a deadline already in the past fire on the next call.
+    List<Timer<T>> advance(long nowMillis) {
+        List<Timer<T>> fired = new ArrayList<>();
+        drain(expired, fired);
+        long target = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < target) {
+            currentTick++;
+            if ((currentTick & mask(LEVELS)) == 0) {
+                cascade(overflow);
+            }
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & mask(level)) == 0) {
+                    cascade(slots[level][slot(currentTick, level)]);
+                }
+            }
+            drain(slots[0][slot(currentTick, 0)], fired);
+            drain(expired, fired);
+        }
+        return fired;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long tickMillis() {
+        return tickMillis;
+    }
+
+    private void place(Timer<T> timer) {
+        long tick = Math.ceilDiv(timer.deadlineMillis, tickMillis);
+        if (tick <= currentTick) {
+            expired.append(timer);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            int above = (level + 1) * SLOT_BITS;
+            if ((tick >>> above) == (currentTick >>> above)) {
+                slots[level][slot(tick, level)].append(timer);
+                return;
+            }
+        }
+        overflow.append(timer);
+    }
+
+    private void cascade(Timer<T> head) {
+        Timer<T> timer = head.next;
+        head.clear();
+        while (timer != null && timer != head) {
+            Timer<T> next = timer.next;
+            timer.prev = null;
+            timer.next = null;
+            place(timer);
+            timer = next;
+        }
+    }
+
+    private void drain(Timer<T> head, List<Timer<T>> fired) {
+        Timer<T> timer = head.next;
+        head.clear();
+        while (timer != null && timer != head) {
+            Timer<T> next = timer.next;
+            timer.prev = null;
+            timer.next = null;
+            fired.add(timer);
+            size--;
+            timer = next;
+        }
+    }
+
+    private static int slot(long tick, int level) {
+        return (int) ((tick >>> (level * SLOT_BITS)) & SLOT_MASK);
+    }
+
+    private static long mask(int level) {
+        return (1L << (level * SLOT_BITS)) - 1;
+    }
+
+    // Slot heads are sentinels of circular lists, so a timer can unlink itself without knowing its slot.
+    static final class Timer<T> {
+
+        private final long deadlineMillis;
+        private final T value;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(long deadlineMillis, T value) {
+            this.deadlineMillis = deadlineMillis;
+            this.value = value;
+        }
+
+        long deadlineMillis() {
+            return deadlineMillis;
+        }
+
+        T value() {
+            return value;
+        }
+
+        private void append(Timer<T> timer) {
+            Timer<T> last = prev == null ? this : prev;
+            timer.prev = last;
+            timer.next = this;
+            last.next = timer;
+            prev = timer;
+        }
+
+        private void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+
+        private void clear() {
+            prev = null;
+            next = null;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.getir.librarymanagementsystem.repository;
+
+import com.getir.librarymanagementsystem.model.entity.AvailabilityOutboxEntry;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface AvailabilityOutboxRepository extends JpaRepository<AvailabilityOutboxEntry, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<AvailabilityOutboxEntry> findAllByOrderByIdAsc(Pageable pageable);
+
+    @Query("select min(e.createdAt) from AvailabilityOutboxEntry e")
+    Instant findOldestCreatedAt();
+}
@@ -0,0 +1,4 @@
+package com.getir.librarymanagementsystem.repository;
+
+public record BookBorrowCount(Long bookId, long borrows) {
+}
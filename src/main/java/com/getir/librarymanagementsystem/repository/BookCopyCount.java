@@ -0,0 +1,4 @@
+package com.getir.librarymanagementsystem.repository;
+
+public record BookCopyCount(Long bookId, long availableCopies) {
+}
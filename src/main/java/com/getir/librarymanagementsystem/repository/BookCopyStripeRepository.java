@@ -0,0 +1,37 @@
+package com.getir.librarymanagementsystem.repository;
+
+import com.getir.librarymanagementsystem.model.entity.BookCopyStripe;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface BookCopyStripeRepository extends JpaRepository<BookCopyStripe, Long> {
+
+    List<BookCopyStripe> findByBookIdOrderByStripeAsc(Long bookId);
+
+    @Query("select coalesce(sum(s.availableCopies), 0) from BookCopyStripe s where s.bookId = :bookId")
+    long countAvailable(@Param("bookId") Long bookId);
+
+    @Query("select new com.getir.librarymanagementsystem.repository.BookCopyCount(s.bookId, sum(s.availableCopies)) "
+            + "from BookCopyStripe s where s.bookId in :bookIds group by s.bookId")
+    List<BookCopyCount> countAvailableByBookIdIn(@Param("bookIds") Collection<Long> bookIds);
+
+    // Decrement-if-enough: a stripe never goes negative, and a caller that finds it short gets 0 and tries another.
+    @Modifying
+    @Query("update BookCopyStripe s set s.availableCopies = s.availableCopies - :count "
+            + "where s.bookId = :bookId and s.stripe = :stripe and s.availableCopies >= :count")
+    int take(@Param("bookId") Long bookId, @Param("stripe") int stripe, @Param("count") int count);
+
+    @Modifying
+    @Query("update BookCopyStripe s set s.availableCopies = s.availableCopies + :count "
+            + "where s.bookId = :bookId and s.stripe = :stripe")
+    int put(@Param("bookId") Long bookId, @Param("stripe") int stripe, @Param("count") int count);
+
+    @Modifying
+    @Query("delete from BookCopyStripe s where s.bookId = :bookId")
+    int deleteByBookId(@Param("bookId") Long bookId);
+}
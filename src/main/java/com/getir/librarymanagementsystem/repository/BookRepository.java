@@ -1,13 +1,65 @@
 package com.getir.librarymanagementsystem.repository;
 
+import com.getir.librarymanagementsystem.model.dto.response.BookResponse;
 import com.getir.librarymanagementsystem.model.entity.Book;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
+
+    // Read paths select straight into BookResponse so no entity is materialized or tracked by the persistence context.
+    String RESPONSE = "select new com.getir.librarymanagementsystem.model.dto.response.BookResponse("
+            + "b.id, b.title, b.author, b.isbn, b.publicationDate, b.genre, b.available, "
+            + "b.totalCopies, b.availableCopies, b.updatedAt, b.version) from Book b ";
+
     Optional<Book> findByIsbn(String isbn);
     boolean existsByIsbn(String isbn);
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("select b.isbn from Book b where b.isbn in :isbns")
+    Set<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+
+    @Query(RESPONSE + "where b.id in :ids")
+    List<BookResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(RESPONSE + "where b.id > :id order by b.id asc")
+    List<BookResponse> findResponsePageByIdAfter(@Param("id") Long id, Pageable pageable);
+
+    @Query(RESPONSE + "order by b.title asc nulls last, b.id asc")
+    List<BookResponse> findFirstResponsePageByTitle(Pageable pageable);
+
+    @Query(RESPONSE + "where b.title > :title or (b.title = :title and b.id > :id) or b.title is null "
+            + "order by b.title asc nulls last, b.id asc")
+    List<BookResponse> findResponsePageByTitleAfter(@Param("title") String title, @Param("id") Long id, Pageable pageable);
+
+    @Query(RESPONSE + "where b.title is null and b.id > :id order by b.id asc")
+    List<BookResponse> findUntitledResponsePageAfter(@Param("id") Long id, Pageable pageable);
+
+    // Writers lock the rows of the books they changed stripes of, in id order, before recounting them.
+    @Query(value = "select id from books where id in (:ids) order by id for update", nativeQuery = true)
+    List<Long> lockAllById(@Param("ids") Collection<Long> ids);
+
+    // The flag only follows the copy stripes: it drops when the last copy is gone and comes back with the first one.
+    @Modifying
+    @Query("update Book b set b.available = false, b.version = b.version + 1, b.updatedAt = :now "
+            + "where b.id in :ids and b.available = true "
+            + "and not exists (select s.id from BookCopyStripe s where s.bookId = b.id and s.availableCopies > 0)")
+    int markAllUnavailable(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    @Modifying
+    @Query("update Book b set b.available = true, b.version = b.version + 1, b.updatedAt = :now "
+            + "where b.id in :ids and b.available = false "
+            + "and exists (select s.id from BookCopyStripe s where s.bookId = b.id and s.availableCopies > 0)")
+    int markAllAvailable(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
 }
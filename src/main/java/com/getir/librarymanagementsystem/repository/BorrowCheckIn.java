@@ -0,0 +1,4 @@
+package com.getir.librarymanagementsystem.repository;
+
+public record BorrowCheckIn(Long borrowId, Long bookId, String isbn, Integer copyStripe, boolean returned) {
+}
@@ -0,0 +1,6 @@
+package com.getir.librarymanagementsystem.repository;
+
+import java.time.LocalDate;
+
+public record BorrowDueDate(Long borrowId, LocalDate dueDate) {
+}
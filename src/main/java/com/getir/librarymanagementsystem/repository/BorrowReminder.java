@@ -0,0 +1,7 @@
+package com.getir.librarymanagementsystem.repository;
+
+import java.time.LocalDate;
+
+public record BorrowReminder(Long borrowId, String username, String contactInfo, String bookTitle, LocalDate dueDate,
+                             boolean returned) {
+}
@@ -2,12 +2,79 @@ package com.getir.librarymanagementsystem.repository;
 
 import com.getir.librarymanagementsystem.model.entity.Borrow;
 import com.getir.librarymanagementsystem.model.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface BorrowRepository extends JpaRepository<Borrow, Long> {
+    String CHECK_IN = "select new com.getir.librarymanagementsystem.repository.BorrowCheckIn("
+            + "b.id, bk.id, bk.isbn, b.copyStripe, b.returned) from Borrow b join b.book bk ";
+
+    // Every read that maps borrows to responses loads user and book in the same select instead of one per row.
+    @Override
+    @EntityGraph(attributePaths = {"user", "book"})
+    Optional<Borrow> findById(Long id);
+
+    @EntityGraph(attributePaths = {"user", "book"})
     List<Borrow> findByUser(User user);
-    List<Borrow> findByReturnDateIsNullAndBorrowDateBefore(LocalDate date);
+
+    // Served by the open-loan due date index, so the cost follows the number of overdue loans.
+    @EntityGraph(attributePaths = {"user", "book"})
+    @Query("select b from Borrow b where b.returned = false and b.dueDate < :today order by b.dueDate asc, b.id asc")
+    List<Borrow> findOverdue(@Param("today") LocalDate today);
+
+    @EntityGraph(attributePaths = {"user", "book"})
+    List<Borrow> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"user", "book"})
+    @Query("select b from Borrow b order by b.borrowDate asc nulls last, b.id asc")
+    List<Borrow> findFirstPageByBorrowDate(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"user", "book"})
+    @Query("select b from Borrow b where b.borrowDate > :borrowDate or (b.borrowDate = :borrowDate and b.id > :id) "
+            + "or b.borrowDate is null order by b.borrowDate asc nulls last, b.id asc")
+    List<Borrow> findPageByBorrowDateAfter(@Param("borrowDate") LocalDate borrowDate, @Param("id") Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"user", "book"})
+    @Query("select b from Borrow b where b.borrowDate is null and b.id > :id order by b.id asc")
+    List<Borrow> findUndatedPageAfter(@Param("id") Long id, Pageable pageable);
+
+    @Query("select new com.getir.librarymanagementsystem.repository.BookBorrowCount(b.book.id, count(b)) "
+            + "from Borrow b group by b.book.id")
+    List<BookBorrowCount> countBorrowsByBook();
+
+    // Closes the borrow only if nobody else has; the persistence context is cleared so the stale entity is not flushed.
+    @Modifying(clearAutomatically = true)
+    @Query("update Borrow b set b.returned = true, b.returnDate = :returnDate, b.updatedAt = :now "
+            + "where b.id = :id and b.returned = false")
+    int markReturned(@Param("id") Long id, @Param("returnDate") LocalDate returnDate, @Param("now") Instant now);
+
+    @Modifying
+    @Query("update Borrow b set b.returned = true, b.returnDate = :returnDate, b.updatedAt = :now "
+            + "where b.id in :ids and b.returned = false")
+    int markAllReturned(@Param("ids") Collection<Long> ids, @Param("returnDate") LocalDate returnDate, @Param("now") Instant now);
+
+    @Query(CHECK_IN + "where b.id in :ids")
+    List<BorrowCheckIn> findCheckInsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(CHECK_IN + "where bk.isbn in :isbns and b.returned = false order by b.borrowDate asc nulls last, b.id asc")
+    List<BorrowCheckIn> findOpenCheckInsByIsbnIn(@Param("isbns") Collection<String> isbns);
+
+    @Query("select new com.getir.librarymanagementsystem.repository.BorrowDueDate(b.id, b.dueDate) from Borrow b "
+            + "where b.returned = false and b.dueDate >= :from and b.id > :id order by b.id asc")
+    List<BorrowDueDate> findOpenDueDatesAfter(@Param("from") LocalDate from, @Param("id") Long id, Pageable pageable);
+
+    @Query("select new com.getir.librarymanagementsystem.repository.BorrowReminder("
+            + "b.id, u.username, u.contactInfo, bk.title, b.dueDate, b.returned) "
+            + "from Borrow b join b.user u join b.book bk where b.id in :ids")
+    List<BorrowReminder> findRemindersByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,61 @@
+package com.getir.librarymanagementsystem.repository;
+
+import com.getir.librarymanagementsystem.model.entity.Hold;
+import com.getir.librarymanagementsystem.model.entity.HoldStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+
+    String WAITING = "com.getir.librarymanagementsystem.model.entity.HoldStatus.WAITING";
+    String CANCELLED = "com.getir.librarymanagementsystem.model.entity.HoldStatus.CANCELLED";
+    // A lock timeout of -2 is Hibernate's SKIP LOCKED.
+    String SKIP_LOCKED = "-2";
+
+    // SKIP LOCKED lets concurrent returns of a title claim different holds instead of queueing on the first one.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = SKIP_LOCKED))
+    @Query("select h from Hold h where h.book.id = :bookId and h.status = " + WAITING + " "
+            + "order by h.placedAt asc, h.id asc")
+    List<Hold> claimWaiting(@Param("bookId") Long bookId, Pageable pageable);
+
+    @Query("select distinct h.book.id from Hold h where h.book.id in :bookIds "
+            + "and h.status = " + WAITING)
+    List<Long> findBookIdsWithWaitingHolds(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("select count(h) > 0 from Hold h where h.user.id = :userId and h.book.id = :bookId "
+            + "and h.status = " + WAITING)
+    boolean existsWaiting(@Param("userId") Long userId, @Param("bookId") Long bookId);
+
+    // Waiting holds of the title that are ahead of the given one.
+    @Query("select count(h) from Hold h where h.book.id = :bookId "
+            + "and h.status = " + WAITING + " "
+            + "and (h.placedAt < :placedAt or (h.placedAt = :placedAt and h.id < :id))")
+    long countAhead(@Param("bookId") Long bookId, @Param("placedAt") Instant placedAt, @Param("id") Long id);
+
+    @EntityGraph(attributePaths = {"user", "book"})
+    List<Hold> findByUserIdAndStatusOrderByPlacedAtAscIdAsc(Long userId, HoldStatus status);
+
+    // Only a waiting hold can be cancelled; a hold a return has just claimed is already fulfilled.
+    @Modifying(clearAutomatically = true)
+    @Query("update Hold h set h.status = " + CANCELLED + ", "
+            + "h.updatedAt = :now where h.id = :id "
+            + "and h.status = " + WAITING)
+    int cancelWaiting(@Param("id") Long id, @Param("now") Instant now);
+
+    @Modifying
+    @Query("delete from Hold h where h.book.id = :bookId")
+    int deleteByBookId(@Param("bookId") Long bookId);
+}
@@ -0,0 +1,28 @@
+package com.getir.librarymanagementsystem.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Databases without partial indexes fall back to the (returned, due_date) index declared on the entity.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OpenLoanIndexInitializer {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndex() {
+        try {
+            jdbcTemplate.execute("create index if not exists idx_borrow_open_due_date on borrow (due_date, id) "
+                    + "where returned = false");
+        } catch (DataAccessException e) {
+            log.debug("Partial indexes are not available, using the full due date index: {}", e.getMessage());
+        }
+    }
+}
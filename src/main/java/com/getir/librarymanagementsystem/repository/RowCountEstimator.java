@@ -0,0 +1,37 @@
+package com.getir.librarymanagementsystem.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.function.LongSupplier;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RowCountEstimator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile boolean statisticsAvailable = true;
+
+    public long estimate(String table, LongSupplier exactCount) {
+        if (statisticsAvailable) {
+            try {
+                Long estimate = jdbcTemplate.queryForObject(
+                        "select cast(reltuples as bigint) from pg_class where relname = ?", Long.class, table);
+                if (estimate != null && estimate >= 0) {
+                    return estimate;
+                }
+            } catch (EmptyResultDataAccessException e) {
+                log.debug("No planner statistics for table {}", table);
+            } catch (DataAccessException e) {
+                log.debug("Planner statistics are not available, falling back to exact counts: {}", e.getMessage());
+                statisticsAvailable = false;
+            }
+        }
+        return exactCount.getAsLong();
+    }
+}
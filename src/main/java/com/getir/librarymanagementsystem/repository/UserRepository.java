@@ -1,10 +1,24 @@
 package com.getir.librarymanagementsystem.repository;
 
+import com.getir.librarymanagementsystem.model.dto.response.UserResponse;
 import com.getir.librarymanagementsystem.model.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+
+    // Never selects the password hash.
+    String RESPONSE = "select new com.getir.librarymanagementsystem.model.dto.response.UserResponse("
+            + "u.id, u.username, u.name, u.contactInfo, u.role) from User u ";
+
+    @Query(RESPONSE + "order by u.id")
+    List<UserResponse> findAllResponses();
+
+    @Query(RESPONSE + "where u.id = :id")
+    Optional<UserResponse> findResponseById(@Param("id") Long id);
 }
@@ -0,0 +1,187 @@
+package com.getir.librarymanagementsystem.search;
+
+import com.getir.librarymanagementsystem.model.dto.response.FacetCount;
+import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.service.BookChangeListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+
+@Component
+public class BookFacetIndex implements BookChangeListener {
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final OrdinalBitSet live = new OrdinalBitSet();
+    private final Map<FacetField, FacetColumn> columns = new EnumMap<>(FacetField.class);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[] bookIds = new long[1024];
+    private int nextOrdinal;
+
+    public BookFacetIndex() {
+        for (FacetField field : FacetField.values()) {
+            columns.put(field, new FacetColumn());
+        }
+    }
+
+    @Override
+    public void onBookSaved(Book book) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int ordinal = ordinals.computeIfAbsent(book.getId(), this::allocate);
+            for (FacetField field : FacetField.values()) {
+                columns.get(field).set(ordinal, field.getExtractor().apply(book));
+            }
+            live.set(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onBookDeleted(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(bookId);
+            if (ordinal == null) {
+                return;
+            }
+            columns.values().forEach(column -> column.clear(ordinal));
+            live.clear(ordinal);
+            freeOrdinals.push(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onAvailabilityChanged(Long bookId, boolean available) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(bookId);
+            if (ordinal != null) {
+                columns.get(FacetField.AVAILABLE).set(ordinal, String.valueOf(available));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            freeOrdinals.clear();
+            live.clearAll();
+            columns.replaceAll((field, column) -> new FacetColumn());
+            bookIds = new long[1024];
+            nextOrdinal = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Each facet is counted with every filter but its own, so the other genres still show their hit counts.
+    public FacetedHits search(Map<FacetField, String> filters, long[] candidateIds, int facetLimit, int hitLimit,
+                              Function<LongPredicate, SearchHits> ranker) {
+        lock.readLock().lock();
+        try {
+            OrdinalBitSet candidates = candidateIds == null ? live.copy() : toOrdinals(candidateIds);
+            OrdinalBitSet selection = narrow(candidates.copy(), filters, null);
+            int selected = selection.cardinality();
+
+            Map<String, List<FacetCount>> facets = new LinkedHashMap<>();
+            for (FacetField field : FacetField.values()) {
+                OrdinalBitSet counted = selection;
+                int countedSize = selected;
+                if (filters.containsKey(field)) {
+                    counted = narrow(candidates.copy(), filters, field);
+                    countedSize = counted.cardinality();
+                }
+                facets.put(field.getKey(), columns.get(field).count(counted, countedSize, facetLimit));
+            }
+
+            SearchHits hits = ranker != null
+                    ? ranker.apply(bookId -> {
+                        Integer ordinal = ordinals.get(bookId);
+                        return ordinal != null && selection.get(ordinal);
+                    })
+                    : lowestIds(selection, selected, hitLimit);
+            return new FacetedHits(hits, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private OrdinalBitSet toOrdinals(long[] bookIds) {
+        OrdinalBitSet selection = new OrdinalBitSet();
+        for (long bookId : bookIds) {
+            Integer ordinal = ordinals.get(bookId);
+            if (ordinal != null) {
+                selection.set(ordinal);
+            }
+        }
+        return selection;
+    }
+
+    private OrdinalBitSet narrow(OrdinalBitSet selection, Map<FacetField, String> filters, FacetField skipped) {
+        for (Map.Entry<FacetField, String> filter : filters.entrySet()) {
+            if (filter.getKey() == skipped) {
+                continue;
+            }
+            OrdinalPostings postings = columns.get(filter.getKey()).postings(filter.getValue());
+            if (postings == null) {
+                selection.clearAll();
+                return selection;
+            }
+            postings.retainIn(selection);
+        }
+        return selection;
+    }
+
+    private SearchHits lowestIds(OrdinalBitSet selection, int selected, int limit) {
+        if (limit <= 0) {
+            return new SearchHits(List.of(), selected);
+        }
+        PriorityQueue<Long> lowest = new PriorityQueue<>(Math.min(limit, 1024), Comparator.reverseOrder());
+        for (int ordinal = selection.nextSetBit(0); ordinal >= 0; ordinal = selection.nextSetBit(ordinal + 1)) {
+            long bookId = bookIds[ordinal];
+            if (lowest.size() < limit) {
+                lowest.add(bookId);
+            } else if (bookId < lowest.peek()) {
+                lowest.poll();
+                lowest.add(bookId);
+            }
+        }
+        List<Long> ids = new ArrayList<>(lowest);
+        ids.sort(null);
+        return new SearchHits(ids, selected);
+    }
+
+    private int allocate(Long bookId) {
+        Integer reused = freeOrdinals.poll();
+        int ordinal = reused != null ? reused : nextOrdinal++;
+        if (ordinal >= bookIds.length) {
+            bookIds = Arrays.copyOf(bookIds, bookIds.length * 2);
+        }
+        bookIds[ordinal] = bookId;
+        return ordinal;
+    }
+}
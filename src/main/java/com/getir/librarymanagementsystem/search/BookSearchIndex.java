@@ -0,0 +1,215 @@
+package com.getir.librarymanagementsystem.search;
+
+import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.service.BookChangeListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+@Component
+public class BookSearchIndex implements BookChangeListener {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float AUTHOR_WEIGHT = 2.0f;
+    private static final float GENRE_WEIGHT = 1.0f;
+
+    // Lowest score first so the head of the heap is the first candidate to drop; ties keep the lower id.
+    private static final Comparator<Map.Entry<Long, Double>> WORST_FIRST =
+            Map.Entry.<Long, Double>comparingByValue()
+                    .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, IndexedBook> books = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private double totalLength;
+
+    @Override
+    public void onBookSaved(Book book) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+        Map<String, Float> terms = new HashMap<>();
+        addField(terms, book.getTitle(), TITLE_WEIGHT);
+        addField(terms, book.getAuthor(), AUTHOR_WEIGHT);
+        addField(terms, book.getGenre(), GENRE_WEIGHT);
+        float length = 0;
+        for (float frequency : terms.values()) {
+            length += frequency;
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeBook(book.getId());
+            if (terms.isEmpty()) {
+                return;
+            }
+            for (Map.Entry<String, Float> term : terms.entrySet()) {
+                postings.computeIfAbsent(term.getKey(), key -> new PostingList())
+                        .add(book.getId(), term.getValue(), length);
+            }
+            books.put(book.getId(), new IndexedBook(terms.keySet().toArray(new String[0]), length));
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onBookDeleted(Long bookId) {
+        remove(List.of(bookId));
+    }
+
+    public void remove(Collection<Long> bookIds) {
+        lock.writeLock().lock();
+        try {
+            bookIds.forEach(this::removeBook);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            books.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return books.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static Map<String, Float> queryTerms(String query) {
+        Map<String, Float> terms = new LinkedHashMap<>();
+        TextAnalyzer.tokenize(query).forEach(term -> terms.put(term, 1.0f));
+        return terms;
+    }
+
+    public SearchHits search(String query, int limit) {
+        return search(queryTerms(query), limit);
+    }
+
+    public SearchHits search(Map<String, Float> weightedTerms, int limit) {
+        return search(weightedTerms, limit, null);
+    }
+
+    public SearchHits search(Map<String, Float> weightedTerms, int limit, LongPredicate filter) {
+        if (weightedTerms.isEmpty() || limit <= 0) {
+            return SearchHits.EMPTY;
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = score(weightedTerms);
+            if (filter != null) {
+                scores.keySet().removeIf(bookId -> !filter.test(bookId));
+            }
+            PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(Math.min(limit, 1024), WORST_FIRST);
+            for (Map.Entry<Long, Double> candidate : scores.entrySet()) {
+                if (top.size() < limit) {
+                    top.add(candidate);
+                } else if (WORST_FIRST.compare(candidate, top.peek()) > 0) {
+                    top.poll();
+                    top.add(candidate);
+                }
+            }
+            List<Long> ranked = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                ranked.add(top.poll().getKey());
+            }
+            Collections.reverse(ranked);
+            return new SearchHits(ranked, scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long[] matchingIds(Map<String, Float> weightedTerms) {
+        lock.readLock().lock();
+        try {
+            int total = 0;
+            for (String term : weightedTerms.keySet()) {
+                PostingList list = postings.get(term);
+                total += list == null ? 0 : list.size();
+            }
+            long[] ids = new long[total];
+            int next = 0;
+            for (String term : weightedTerms.keySet()) {
+                PostingList list = postings.get(term);
+                for (int i = 0; list != null && i < list.size(); i++) {
+                    ids[next++] = list.bookId(i);
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Double> score(Map<String, Float> weightedTerms) {
+        int bookCount = books.size();
+        double averageLength = bookCount == 0 ? 1 : totalLength / bookCount;
+        Map<Long, Double> scores = new HashMap<>();
+        for (Map.Entry<String, Float> term : weightedTerms.entrySet()) {
+            PostingList list = postings.get(term.getKey());
+            if (list == null) {
+                continue;
+            }
+            double idf = term.getValue() * Math.log(1 + (bookCount - list.size() + 0.5) / (list.size() + 0.5));
+            for (int i = 0; i < list.size(); i++) {
+                double frequency = list.frequency(i);
+                double norm = K1 * (1 - B + B * list.length(i) / averageLength);
+                scores.merge(list.bookId(i), idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+            }
+        }
+        return scores;
+    }
+
+    private void removeBook(Long bookId) {
+        IndexedBook existing = books.remove(bookId);
+        if (existing == null) {
+            return;
+        }
+        for (String term : existing.terms()) {
+            PostingList list = postings.get(term);
+            if (list != null) {
+                list.remove(bookId);
+                if (list.size() == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= existing.length();
+    }
+
+    private static void addField(Map<String, Float> terms, String value, float weight) {
+        for (String token : TextAnalyzer.tokenize(value)) {
+            terms.merge(token, weight, Float::sum);
+        }
+    }
+
+    private record IndexedBook(String[] terms, float length) {
+    }
+}
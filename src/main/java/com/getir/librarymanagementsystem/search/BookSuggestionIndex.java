@@ -0,0 +1,201 @@
+package com.getir.librarymanagementsystem.search;
+
+import com.getir.librarymanagementsystem.model.dto.response.SuggestionResponse;
+import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.search.SuggestionTrie.Phrase;
+import com.getir.librarymanagementsystem.service.BookChangeListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+@Component
+public class BookSuggestionIndex implements BookChangeListener {
+
+    public static final int MAX_SUGGESTIONS = SuggestionTrie.MAX_SUGGESTIONS;
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private final Map<Kind, SuggestionTrie> tries = new HashMap<>();
+    private final Map<Kind, Map<String, Phrase>> phrases = new HashMap<>();
+    private final Map<Long, Entry> books = new HashMap<>();
+    private final Map<Long, Long> borrowCounts = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public BookSuggestionIndex() {
+        for (Kind kind : Kind.values()) {
+            tries.put(kind, new SuggestionTrie());
+            phrases.put(kind, new HashMap<>());
+        }
+    }
+
+    @Override
+    public void onBookSaved(Book book) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            detach(books.remove(book.getId()), borrows(book.getId()));
+            Entry entry = new Entry(
+                    attach(Kind.TITLE, book.getTitle(), borrows(book.getId())),
+                    attach(Kind.AUTHOR, book.getAuthor(), borrows(book.getId())));
+            books.put(book.getId(), entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onBookDeleted(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            detach(books.remove(bookId), borrows(bookId));
+            borrowCounts.remove(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onBorrowed(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            borrowCounts.merge(bookId, 1L, Long::sum);
+            adjustBorrows(bookId, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void loadBorrowCounts(Map<Long, Long> counts) {
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<Long, Long> count : counts.entrySet()) {
+                Long previous = borrowCounts.put(count.getKey(), count.getValue());
+                adjustBorrows(count.getKey(), count.getValue() - (previous == null ? 0 : previous));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            for (Kind kind : Kind.values()) {
+                tries.put(kind, new SuggestionTrie());
+                phrases.get(kind).clear();
+            }
+            books.clear();
+            borrowCounts.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<SuggestionResponse> suggest(String prefix, int limit) {
+        String key = key(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<Phrase> titles;
+        List<Phrase> authors;
+        lock.readLock().lock();
+        try {
+            titles = tries.get(Kind.TITLE).complete(key, limit);
+            authors = tries.get(Kind.AUTHOR).complete(key, limit);
+
+            // Both lists are already best-first; merge them while the weights cannot move underneath.
+            List<SuggestionResponse> suggestions = new ArrayList<>(Math.min(limit, titles.size() + authors.size()));
+            int t = 0;
+            int a = 0;
+            while (suggestions.size() < limit && (t < titles.size() || a < authors.size())) {
+                boolean takeTitle = a == authors.size()
+                        || (t < titles.size() && SuggestionTrie.BEST_FIRST.compare(titles.get(t), authors.get(a)) <= 0);
+                suggestions.add(takeTitle ? toResponse(titles.get(t++), Kind.TITLE) : toResponse(authors.get(a++), Kind.AUTHOR));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Phrase attach(Kind kind, String text, long borrows) {
+        String key = key(text);
+        if (key.isEmpty()) {
+            return null;
+        }
+        Phrase phrase = phrases.get(kind).computeIfAbsent(key, k -> new Phrase(k, text.trim()));
+        phrase.text(text.trim());
+        phrase.adjust(1, borrows);
+        tries.get(kind).put(phrase);
+        return phrase;
+    }
+
+    private void detach(Entry entry, long borrows) {
+        if (entry == null) {
+            return;
+        }
+        detach(Kind.TITLE, entry.title(), borrows);
+        detach(Kind.AUTHOR, entry.author(), borrows);
+    }
+
+    private void detach(Kind kind, Phrase phrase, long borrows) {
+        if (phrase == null) {
+            return;
+        }
+        phrase.adjust(-1, -borrows);
+        if (phrase.bookCount() == 0) {
+            phrases.get(kind).remove(phrase.key());
+            tries.get(kind).remove(phrase);
+        } else {
+            tries.get(kind).put(phrase);
+        }
+    }
+
+    private void adjustBorrows(Long bookId, long delta) {
+        Entry entry = books.get(bookId);
+        if (entry == null || delta == 0) {
+            return;
+        }
+        if (entry.title() != null) {
+            entry.title().adjust(0, delta);
+            tries.get(Kind.TITLE).put(entry.title());
+        }
+        if (entry.author() != null) {
+            entry.author().adjust(0, delta);
+            tries.get(Kind.AUTHOR).put(entry.author());
+        }
+    }
+
+    private long borrows(Long bookId) {
+        return borrowCounts.getOrDefault(bookId, 0L);
+    }
+
+    private static SuggestionResponse toResponse(Phrase phrase, Kind kind) {
+        return SuggestionResponse.builder()
+                .text(phrase.text())
+                .type(kind.name().toLowerCase(Locale.ROOT))
+                .borrowCount(phrase.borrows())
+                .bookCount(phrase.bookCount())
+                .build();
+    }
+
+    static String key(String text) {
+        return SEPARATORS.matcher(TextAnalyzer.normalize(text)).replaceAll(" ").trim();
+    }
+
+    private enum Kind {
+        TITLE, AUTHOR
+    }
+
+    private record Entry(Phrase title, Phrase author) {
+    }
+}
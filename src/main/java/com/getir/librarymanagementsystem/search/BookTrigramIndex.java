@@ -0,0 +1,263 @@
+package com.getir.librarymanagementsystem.search;
+
+import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.service.BookChangeListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+public class BookTrigramIndex implements BookChangeListener {
+
+    private static final int MAX_EXPANSIONS = 8;
+    private static final Comparator<Match> CLOSEST_FIRST = Comparator.comparingInt(Match::distance)
+            .thenComparing(Comparator.comparingInt(Match::documentCount).reversed())
+            .thenComparing(Match::term);
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private final Deque<Integer> freeTermIds = new ArrayDeque<>();
+    private final Map<String, TermPostingList> trigrams = new HashMap<>();
+    private final Map<Long, int[]> bookTerms = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ThreadLocal<int[]> overlapCounters = ThreadLocal.withInitial(() -> new int[0]);
+    private int[] documentCounts = new int[1024];
+
+    @Override
+    public void onBookSaved(Book book) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+        Set<String> words = new LinkedHashSet<>(TextAnalyzer.tokenize(book.getTitle()));
+        words.addAll(TextAnalyzer.tokenize(book.getAuthor()));
+
+        lock.writeLock().lock();
+        try {
+            removeBook(book.getId());
+            if (words.isEmpty()) {
+                return;
+            }
+            int[] ids = new int[words.size()];
+            int i = 0;
+            for (String word : words) {
+                int termId = termIds.computeIfAbsent(word, this::addTerm);
+                documentCounts[termId]++;
+                ids[i++] = termId;
+            }
+            bookTerms.put(book.getId(), ids);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onBookDeleted(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeBook(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            termIds.clear();
+            terms.clear();
+            freeTermIds.clear();
+            trigrams.clear();
+            bookTerms.clear();
+            documentCounts = new int[1024];
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int vocabularySize() {
+        lock.readLock().lock();
+        try {
+            return termIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Float> expand(String query) {
+        Map<String, Float> expanded = new LinkedHashMap<>();
+        for (String token : TextAnalyzer.tokenize(query)) {
+            int maxDistance = maxDistance(token.length());
+            if (maxDistance == 0) {
+                expanded.merge(token, 1.0f, Math::max);
+                continue;
+            }
+            for (Match match : matches(token, maxDistance)) {
+                expanded.merge(match.term(), 1.0f / (1 + match.distance()), Math::max);
+            }
+        }
+        return expanded;
+    }
+
+    private List<Match> matches(String token, int maxDistance) {
+        String[] grams = trigrams(token);
+        // An edit changes at most four padded trigrams (an adjacent swap), so a close word shares at least this many.
+        int minShared = Math.max(1, grams.length - 4 * maxDistance);
+        List<Match> matches = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            int[] counts = counters(terms.size());
+            int[] touched = new int[64];
+            int touchedSize = 0;
+            for (String gram : grams) {
+                TermPostingList list = trigrams.get(gram);
+                if (list == null) {
+                    continue;
+                }
+                for (int i = 0; i < list.size(); i++) {
+                    int termId = list.termId(i);
+                    if (counts[termId]++ == 0) {
+                        if (touchedSize == touched.length) {
+                            touched = Arrays.copyOf(touched, touchedSize * 2);
+                        }
+                        touched[touchedSize++] = termId;
+                    }
+                }
+            }
+            for (int i = 0; i < touchedSize; i++) {
+                int termId = touched[i];
+                if (counts[termId] >= minShared) {
+                    String term = terms.get(termId);
+                    int distance = boundedDistance(token, term, maxDistance);
+                    if (distance <= maxDistance) {
+                        matches.add(new Match(term, distance, documentCounts[termId]));
+                    }
+                }
+                counts[termId] = 0;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matches.sort(CLOSEST_FIRST);
+        return matches.size() > MAX_EXPANSIONS ? matches.subList(0, MAX_EXPANSIONS) : matches;
+    }
+
+    private int addTerm(String term) {
+        Integer reused = freeTermIds.poll();
+        int termId;
+        if (reused != null) {
+            termId = reused;
+            terms.set(termId, term);
+        } else {
+            termId = terms.size();
+            terms.add(term);
+            if (termId == documentCounts.length) {
+                documentCounts = Arrays.copyOf(documentCounts, termId * 2);
+            }
+        }
+        for (String gram : trigrams(term)) {
+            trigrams.computeIfAbsent(gram, key -> new TermPostingList()).add(termId);
+        }
+        return termId;
+    }
+
+    private void removeBook(Long bookId) {
+        int[] ids = bookTerms.remove(bookId);
+        if (ids == null) {
+            return;
+        }
+        for (int termId : ids) {
+            if (--documentCounts[termId] > 0) {
+                continue;
+            }
+            String term = terms.get(termId);
+            for (String gram : trigrams(term)) {
+                TermPostingList list = trigrams.get(gram);
+                if (list != null) {
+                    list.remove(termId);
+                    if (list.size() == 0) {
+                        trigrams.remove(gram);
+                    }
+                }
+            }
+            termIds.remove(term);
+            terms.set(termId, null);
+            freeTermIds.push(termId);
+        }
+    }
+
+    private int[] counters(int size) {
+        int[] counts = overlapCounters.get();
+        if (counts.length < size) {
+            counts = new int[Math.max(size, counts.length * 2)];
+            overlapCounters.set(counts);
+        }
+        return counts;
+    }
+
+    private static int maxDistance(int length) {
+        if (length <= 3) {
+            return 0;
+        }
+        return length <= 6 ? 1 : 2;
+    }
+
+    private static String[] trigrams(String word) {
+        String padded = "$$" + word + "$$";
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams.toArray(new String[0]);
+    }
+
+    // Levenshtein with adjacent transpositions; bails out with max + 1 once a whole row exceeds max.
+    static int boundedDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, beforePrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    private record Match(String term, int distance, int documentCount) {
+    }
+}
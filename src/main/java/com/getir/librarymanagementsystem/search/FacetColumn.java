@@ -0,0 +1,91 @@
+package com.getir.librarymanagementsystem.search;
+
+import com.getir.librarymanagementsystem.model.dto.response.FacetCount;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+final class FacetColumn {
+
+    private final Map<String, Integer> valueIds = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+    private final List<OrdinalPostings> postings = new ArrayList<>();
+    // valueId + 1 per ordinal, 0 when the book has no value for this facet
+    private int[] valueByOrdinal = new int[1024];
+
+    void set(int ordinal, String value) {
+        clear(ordinal);
+        if (value == null || value.isBlank()) {
+            return;
+        }
+        int valueId = valueIds.computeIfAbsent(value, key -> {
+            values.add(key);
+            postings.add(new OrdinalPostings());
+            return values.size() - 1;
+        });
+        if (ordinal >= valueByOrdinal.length) {
+            valueByOrdinal = Arrays.copyOf(valueByOrdinal, Math.max(ordinal + 1, valueByOrdinal.length * 2));
+        }
+        valueByOrdinal[ordinal] = valueId + 1;
+        postings.get(valueId).add(ordinal);
+    }
+
+    void clear(int ordinal) {
+        if (ordinal >= valueByOrdinal.length || valueByOrdinal[ordinal] == 0) {
+            return;
+        }
+        postings.get(valueByOrdinal[ordinal] - 1).remove(ordinal);
+        valueByOrdinal[ordinal] = 0;
+    }
+
+    OrdinalPostings postings(String value) {
+        Integer valueId = valueIds.get(value);
+        return valueId == null ? null : postings.get(valueId);
+    }
+
+    List<FacetCount> count(OrdinalBitSet selection, int selectionSize, int limit) {
+        int[] counts = new int[values.size()];
+        // Walking the selection costs one step per hit; intersecting costs one step per posting (or bitset word).
+        long intersectionCost = 0;
+        for (OrdinalPostings posting : postings) {
+            intersectionCost += posting.intersectionCost(selection);
+        }
+        if (intersectionCost < selectionSize) {
+            for (int valueId = 0; valueId < counts.length; valueId++) {
+                counts[valueId] = postings.get(valueId).countIn(selection);
+            }
+        } else {
+            for (int ordinal = selection.nextSetBit(0); ordinal >= 0; ordinal = selection.nextSetBit(ordinal + 1)) {
+                if (ordinal < valueByOrdinal.length && valueByOrdinal[ordinal] != 0) {
+                    counts[valueByOrdinal[ordinal] - 1]++;
+                }
+            }
+        }
+
+        // Keep only the top values in a small heap instead of sorting every value of a wide facet like author.
+        PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, (left, right) -> counts[left] != counts[right]
+                ? Integer.compare(counts[left], counts[right])
+                : values.get(right).compareTo(values.get(left)));
+        for (int valueId = 0; valueId < counts.length; valueId++) {
+            if (counts[valueId] == 0) {
+                continue;
+            }
+            top.add(valueId);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<FacetCount> result = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            int valueId = top.poll();
+            result.add(new FacetCount(values.get(valueId), counts[valueId]));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+}
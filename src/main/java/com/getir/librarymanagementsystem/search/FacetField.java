@@ -0,0 +1,19 @@
+package com.getir.librarymanagementsystem.search;
+
+import com.getir.librarymanagementsystem.model.entity.Book;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.function.Function;
+
+@Getter
+@RequiredArgsConstructor
+public enum FacetField {
+    GENRE("genre", Book::getGenre),
+    AUTHOR("author", Book::getAuthor),
+    YEAR("year", book -> book.getPublicationDate() == null ? null : String.valueOf(book.getPublicationDate().getYear())),
+    AVAILABLE("available", book -> String.valueOf(book.isAvailable()));
+
+    private final String key;
+    private final Function<Book, String> extractor;
+}
@@ -0,0 +1,9 @@
+package com.getir.librarymanagementsystem.search;
+
+import com.getir.librarymanagementsystem.model.dto.response.FacetCount;
+
+import java.util.List;
+import java.util.Map;
+
+public record FacetedHits(SearchHits hits, Map<String, List<FacetCount>> facets) {
+}
@@ -0,0 +1,101 @@
+package com.getir.librarymanagementsystem.search;
+
+import java.util.Arrays;
+
+final class OrdinalBitSet {
+
+    private long[] words;
+
+    OrdinalBitSet() {
+        this(new long[16]);
+    }
+
+    private OrdinalBitSet(long[] words) {
+        this.words = words;
+    }
+
+    void set(int ordinal) {
+        int word = ordinal >>> 6;
+        if (word >= words.length) {
+            words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+        }
+        words[word] |= 1L << ordinal;
+    }
+
+    void clear(int ordinal) {
+        int word = ordinal >>> 6;
+        if (word < words.length) {
+            words[word] &= ~(1L << ordinal);
+        }
+    }
+
+    boolean get(int ordinal) {
+        int word = ordinal >>> 6;
+        return word < words.length && (words[word] & (1L << ordinal)) != 0;
+    }
+
+    void and(OrdinalBitSet other) {
+        int shared = Math.min(words.length, other.words.length);
+        for (int i = 0; i < shared; i++) {
+            words[i] &= other.words[i];
+        }
+        Arrays.fill(words, shared, words.length, 0L);
+    }
+
+    void retainOnly(int[] ordinals, int count) {
+        long[] retained = new long[words.length];
+        for (int i = 0; i < count; i++) {
+            int ordinal = ordinals[i];
+            if (get(ordinal)) {
+                retained[ordinal >>> 6] |= 1L << ordinal;
+            }
+        }
+        words = retained;
+    }
+
+    void clearAll() {
+        Arrays.fill(words, 0L);
+    }
+
+    int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    int andCardinality(OrdinalBitSet other) {
+        int shared = Math.min(words.length, other.words.length);
+        int count = 0;
+        for (int i = 0; i < shared; i++) {
+            count += Long.bitCount(words[i] & other.words[i]);
+        }
+        return count;
+    }
+
+    int nextSetBit(int from) {
+        int word = from >>> 6;
+        if (word >= words.length) {
+            return -1;
+        }
+        long bits = words[word] & (-1L << from);
+        while (true) {
+            if (bits != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            if (++word == words.length) {
+                return -1;
+            }
+            bits = words[word];
+        }
+    }
+
+    int wordCount() {
+        return words.length;
+    }
+
+    OrdinalBitSet copy() {
+        return new OrdinalBitSet(words.clone());
+    }
+}
@@ -0,0 +1,75 @@
+package com.getir.librarymanagementsystem.search;
+
+import java.util.Arrays;
+
+// Rare values keep a small ordinal array; once a value is common enough it switches to a bitset.
+final class OrdinalPostings {
+
+    private static final int DENSE_THRESHOLD = 4096;
+
+    private int[] sparse = new int[4];
+    private OrdinalBitSet dense;
+    private int size;
+
+    void add(int ordinal) {
+        if (dense != null) {
+            dense.set(ordinal);
+        } else if (size == DENSE_THRESHOLD) {
+            dense = new OrdinalBitSet();
+            for (int i = 0; i < size; i++) {
+                dense.set(sparse[i]);
+            }
+            dense.set(ordinal);
+            sparse = null;
+        } else {
+            if (size == sparse.length) {
+                sparse = Arrays.copyOf(sparse, size * 2);
+            }
+            sparse[size] = ordinal;
+        }
+        size++;
+    }
+
+    void remove(int ordinal) {
+        if (dense != null) {
+            dense.clear(ordinal);
+            size--;
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            if (sparse[i] == ordinal) {
+                sparse[i] = sparse[--size];
+                return;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void retainIn(OrdinalBitSet selection) {
+        if (dense != null) {
+            selection.and(dense);
+        } else {
+            selection.retainOnly(sparse, size);
+        }
+    }
+
+    int countIn(OrdinalBitSet selection) {
+        if (dense != null) {
+            return selection.andCardinality(dense);
+        }
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (selection.get(sparse[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    int intersectionCost(OrdinalBitSet selection) {
+        return dense != null ? selection.wordCount() : size;
+    }
+}
@@ -0,0 +1,52 @@
+package com.getir.librarymanagementsystem.search;
+
+import java.util.Arrays;
+
+final class PostingList {
+
+    private long[] bookIds = new long[4];
+    private float[] frequencies = new float[4];
+    private float[] lengths = new float[4];
+    private int size;
+
+    void add(long bookId, float frequency, float length) {
+        if (size == bookIds.length) {
+            int capacity = size * 2;
+            bookIds = Arrays.copyOf(bookIds, capacity);
+            frequencies = Arrays.copyOf(frequencies, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        bookIds[size] = bookId;
+        frequencies[size] = frequency;
+        lengths[size] = length;
+        size++;
+    }
+
+    void remove(long bookId) {
+        for (int i = 0; i < size; i++) {
+            if (bookIds[i] == bookId) {
+                int last = --size;
+                bookIds[i] = bookIds[last];
+                frequencies[i] = frequencies[last];
+                lengths[i] = lengths[last];
+                return;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    long bookId(int index) {
+        return bookIds[index];
+    }
+
+    float frequency(int index) {
+        return frequencies[index];
+    }
+
+    float length(int index) {
+        return lengths[index];
+    }
+}
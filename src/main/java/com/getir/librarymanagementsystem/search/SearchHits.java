@@ -0,0 +1,8 @@
+package com.getir.librarymanagementsystem.search;
+
+import java.util.List;
+
+public record SearchHits(List<Long> bookIds, int totalHits) {
+
+    public static final SearchHits EMPTY = new SearchHits(List.of(), 0);
+}
@@ -0,0 +1,218 @@
+package com.getir.librarymanagementsystem.search;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Every node caches the best phrases of its subtree, so completing a prefix is one walk. Not thread-safe.
+final class SuggestionTrie {
+
+    static final int MAX_SUGGESTIONS = 10;
+    static final Comparator<Phrase> BEST_FIRST = Comparator.comparingLong(Phrase::borrows).reversed()
+            .thenComparing(Comparator.comparingInt(Phrase::bookCount).reversed())
+            .thenComparing(Phrase::key);
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Phrase[] NO_PHRASES = new Phrase[0];
+
+    private final Node root = new Node("");
+
+    void put(Phrase phrase) {
+        put(root, phrase.key(), 0, phrase);
+    }
+
+    void remove(Phrase phrase) {
+        remove(root, phrase.key(), 0);
+    }
+
+    List<Phrase> complete(String prefix, int limit) {
+        Node node = root;
+        int depth = 0;
+        while (depth < prefix.length()) {
+            int index = childIndex(node, prefix.charAt(depth));
+            if (index < 0) {
+                return List.of();
+            }
+            Node child = node.children[index];
+            int matched = commonPrefix(child.label, prefix, depth);
+            if (depth + matched == prefix.length()) {
+                node = child;
+                break;
+            }
+            if (matched < child.label.length()) {
+                return List.of();
+            }
+            node = child;
+            depth += matched;
+        }
+        Phrase[] top = node.top;
+        return Arrays.asList(top).subList(0, Math.min(limit, top.length));
+    }
+
+    private void put(Node node, String key, int depth, Phrase phrase) {
+        if (depth == key.length()) {
+            node.phrase = phrase;
+        } else {
+            int index = childIndex(node, key.charAt(depth));
+            if (index < 0) {
+                Node leaf = new Node(key.substring(depth));
+                leaf.phrase = phrase;
+                recompute(leaf);
+                insertChild(node, -index - 1, leaf);
+            } else {
+                Node child = node.children[index];
+                int common = commonPrefix(child.label, key, depth);
+                if (common < child.label.length()) {
+                    Node split = new Node(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    split.children = new Node[]{child};
+                    node.children[index] = split;
+                    child = split;
+                }
+                put(child, key, depth + common, phrase);
+            }
+        }
+        recompute(node);
+    }
+
+    private void remove(Node node, String key, int depth) {
+        if (depth == key.length()) {
+            node.phrase = null;
+            recompute(node);
+            return;
+        }
+        int index = childIndex(node, key.charAt(depth));
+        if (index < 0) {
+            return;
+        }
+        Node child = node.children[index];
+        if (!key.startsWith(child.label, depth)) {
+            return;
+        }
+        remove(child, key, depth + child.label.length());
+        if (child.phrase == null && child.children.length == 0) {
+            Node[] children = new Node[node.children.length - 1];
+            System.arraycopy(node.children, 0, children, 0, index);
+            System.arraycopy(node.children, index + 1, children, index, children.length - index);
+            node.children = children.length == 0 ? NO_CHILDREN : children;
+        } else if (child.phrase == null && child.children.length == 1) {
+            Node only = child.children[0];
+            only.label = child.label + only.label;
+            node.children[index] = only;
+        }
+        recompute(node);
+    }
+
+    private static void recompute(Node node) {
+        Phrase[] best = new Phrase[MAX_SUGGESTIONS];
+        int size = offer(best, 0, node.phrase);
+        for (Node child : node.children) {
+            for (Phrase candidate : child.top) {
+                if (size == MAX_SUGGESTIONS && BEST_FIRST.compare(candidate, best[size - 1]) >= 0) {
+                    break;
+                }
+                size = offer(best, size, candidate);
+            }
+        }
+        node.top = size == 0 ? NO_PHRASES : Arrays.copyOf(best, size);
+    }
+
+    private static int offer(Phrase[] best, int size, Phrase candidate) {
+        if (candidate == null) {
+            return size;
+        }
+        int position = size;
+        while (position > 0 && BEST_FIRST.compare(candidate, best[position - 1]) < 0) {
+            position--;
+        }
+        if (position == best.length) {
+            return size;
+        }
+        int moved = Math.min(size, best.length - 1) - position;
+        System.arraycopy(best, position, best, position + 1, moved);
+        best[position] = candidate;
+        return Math.min(size + 1, best.length);
+    }
+
+    private static int childIndex(Node node, char first) {
+        int low = 0;
+        int high = node.children.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char label = node.children[middle].label.charAt(0);
+            if (label < first) {
+                low = middle + 1;
+            } else if (label > first) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -low - 1;
+    }
+
+    private static void insertChild(Node node, int position, Node child) {
+        Node[] children = new Node[node.children.length + 1];
+        System.arraycopy(node.children, 0, children, 0, position);
+        children[position] = child;
+        System.arraycopy(node.children, position, children, position + 1, node.children.length - position);
+        node.children = children;
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int length = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < length && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node {
+        private String label;
+        private Node[] children = NO_CHILDREN;
+        private Phrase phrase;
+        private Phrase[] top = NO_PHRASES;
+
+        private Node(String label) {
+            this.label = label;
+        }
+    }
+
+    static final class Phrase {
+        private final String key;
+        private String text;
+        private int bookCount;
+        private long borrows;
+
+        Phrase(String key, String text) {
+            this.key = key;
+            this.text = text;
+        }
+
+        String key() {
+            return key;
+        }
+
+        String text() {
+            return text;
+        }
+
+        int bookCount() {
+            return bookCount;
+        }
+
+        long borrows() {
+            return borrows;
+        }
+
+        void text(String text) {
+            this.text = text;
+        }
+
+        void adjust(int books, long borrowDelta) {
+            bookCount += books;
+            borrows += borrowDelta;
+        }
+    }
+}
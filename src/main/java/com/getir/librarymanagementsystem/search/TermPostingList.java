@@ -0,0 +1,33 @@
+package com.getir.librarymanagementsystem.search;
+
+import java.util.Arrays;
+
+final class TermPostingList {
+
+    private int[] termIds = new int[4];
+    private int size;
+
+    void add(int termId) {
+        if (size == termIds.length) {
+            termIds = Arrays.copyOf(termIds, size * 2);
+        }
+        termIds[size++] = termId;
+    }
+
+    void remove(int termId) {
+        for (int i = 0; i < size; i++) {
+            if (termIds[i] == termId) {
+                termIds[i] = termIds[--size];
+                return;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int termId(int index) {
+        return termIds[index];
+    }
+}
@@ -1,5 +1,6 @@
 package com.getir.librarymanagementsystem.security;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -22,6 +23,9 @@ public class SecurityConfig {
         return http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        // Async dispatches re-enter the chain after the original request was authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Auth endpoints - everyone can access
                         .requestMatchers("/api/auth/**", "/swagger-ui/**", "/v3/api-docs/**", "/h2-console/**", "/webjars/**").permitAll()
 
@@ -31,11 +35,30 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.PUT, "/api/books/**").hasRole("LIBRARIAN")
                         .requestMatchers(HttpMethod.DELETE, "/api/books/**").hasRole("LIBRARIAN")
 
+                        // Export endpoints - only LIBRARIAN
+                        .requestMatchers(HttpMethod.GET, "/api/export/**").hasRole("LIBRARIAN")
+
+                        // Journal endpoints - only LIBRARIAN
+                        .requestMatchers("/api/journal/**").hasRole("LIBRARIAN")
+
                         // Borrow endpoints
+                        .requestMatchers(HttpMethod.PUT, "/api/borrows/check-in").hasRole("LIBRARIAN")
+                        .requestMatchers(HttpMethod.GET, "/api/borrows/reminders/**").hasRole("LIBRARIAN")
+                        .requestMatchers(HttpMethod.GET, "/api/borrows/idempotency/**").hasRole("LIBRARIAN")
+                        .requestMatchers("/api/borrows/overdue-report/jobs/**").hasRole("LIBRARIAN")
                         .requestMatchers(HttpMethod.POST, "/api/borrows/**").hasRole("PATRON")
                         .requestMatchers(HttpMethod.GET, "/api/borrows/**").hasAnyRole("PATRON", "LIBRARIAN")
                         .requestMatchers(HttpMethod.DELETE, "/api/borrows/**").hasRole("LIBRARIAN")
 
+                        // Availability stream - any signed-in user; statistics only LIBRARIAN
+                        .requestMatchers(HttpMethod.GET, "/api/stream/stats").hasRole("LIBRARIAN")
+                        .requestMatchers(HttpMethod.GET, "/api/stream/outbox").hasRole("LIBRARIAN")
+                        .requestMatchers(HttpMethod.GET, "/api/stream/cluster").hasRole("LIBRARIAN")
+                        .requestMatchers(HttpMethod.GET, "/api/stream/**").hasAnyRole("PATRON", "LIBRARIAN")
+
+                        // Hold endpoints - only PATRON
+                        .requestMatchers("/api/holds/**").hasRole("PATRON")
+
                         // Other requests
                         .anyRequest().authenticated()
                 )
@@ -5,21 +5,34 @@ import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
 
+import java.util.Collection;
+
 @Service
 public class BookAvailabilityPublisher {
 
     private final Sinks.Many<BookAvailabilityEvent> sink;
     private final Flux<BookAvailabilityEvent> flux;
+    private long sequence;
 
+    // Nothing is buffered for slow subscribers; the availability feed conflates per book on their behalf.
     public BookAvailabilityPublisher() {
-        this.sink = Sinks.many().multicast().onBackpressureBuffer();
+        this.sink = Sinks.many().multicast().directBestEffort();
         this.flux = sink.asFlux();
     }
 
-    public void publish(BookAvailabilityEvent event) {
+    // Events come from many request threads; a sink drops what is emitted concurrently, so emissions are serialized.
+    public synchronized void publish(BookAvailabilityEvent event) {
+        event.setSequence(++sequence);
         sink.tryEmitNext(event);
     }
 
+    public synchronized void publishAll(Collection<BookAvailabilityEvent> events) {
+        events.forEach(event -> {
+            event.setSequence(++sequence);
+            sink.tryEmitNext(event);
+        });
+    }
+
     public Flux<BookAvailabilityEvent> getStream() {
         return flux;
     }
@@ -0,0 +1,16 @@
+package com.getir.librarymanagementsystem.service;
+
+import com.getir.librarymanagementsystem.model.entity.Book;
+
+public interface BookChangeListener {
+
+    void onBookSaved(Book book);
+
+    void onBookDeleted(Long bookId);
+
+    default void onAvailabilityChanged(Long bookId, boolean available) {
+    }
+
+    default void onBorrowed(Long bookId) {
+    }
+}
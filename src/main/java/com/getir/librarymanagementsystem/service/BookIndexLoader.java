@@ -0,0 +1,52 @@
+package com.getir.librarymanagementsystem.service;
+
+import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.repository.BookBorrowCount;
+import com.getir.librarymanagementsystem.repository.BookRepository;
+import com.getir.librarymanagementsystem.repository.BorrowRepository;
+import com.getir.librarymanagementsystem.search.BookSuggestionIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookIndexLoader {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final BookRepository bookRepository;
+    private final BorrowRepository borrowRepository;
+    private final BookSuggestionIndex bookSuggestionIndex;
+    private final List<BookChangeListener> bookChangeListeners;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        log.info("Loading book indexes from the catalog");
+        long lastId = 0;
+        long loaded = 0;
+        List<Book> chunk = bookRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, CHUNK_SIZE));
+        while (chunk != null && !chunk.isEmpty()) {
+            for (Book book : chunk) {
+                bookChangeListeners.forEach(listener -> listener.onBookSaved(book));
+            }
+            loaded += chunk.size();
+            lastId = chunk.get(chunk.size() - 1).getId();
+            chunk = bookRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, CHUNK_SIZE));
+        }
+        log.info("Book indexes loaded with {} books", loaded);
+
+        List<BookBorrowCount> borrowCounts = borrowRepository.countBorrowsByBook();
+        if (borrowCounts != null && !borrowCounts.isEmpty()) {
+            bookSuggestionIndex.loadBorrowCounts(borrowCounts.stream()
+                    .collect(Collectors.toMap(BookBorrowCount::bookId, BookBorrowCount::borrows)));
+        }
+    }
+}
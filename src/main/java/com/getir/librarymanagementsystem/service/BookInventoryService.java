@@ -0,0 +1,201 @@
+package com.getir.librarymanagementsystem.service;
+
+import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.model.entity.BookCopyStripe;
+import com.getir.librarymanagementsystem.repository.BookCopyCount;
+import com.getir.librarymanagementsystem.repository.BookCopyStripeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+// A borrow starts at a random stripe, so borrowers of a popular title mostly update different rows.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookInventoryService {
+
+    static final int MAX_STRIPES = 8;
+
+    private static final String TAKE_ONE = "update book_copy_stripes set available_copies = available_copies - 1 "
+            + "where book_id = ? and stripe = ? and available_copies > 0";
+
+    private static final String PUT_BACK = "update book_copy_stripes set available_copies = available_copies + ? "
+            + "where book_id = ? and stripe = ?";
+
+    private final BookCopyStripeRepository stripeRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    // stock must run once the book has an id.
+    public static void prepare(Book book) {
+        if (book.getTotalCopies() == null) {
+            book.setTotalCopies(1);
+        }
+        if (book.getTotalCopies() < 0) {
+            throw new IllegalArgumentException("Total copies cannot be negative.");
+        }
+        book.setCopyStripes(stripesFor(book.getTotalCopies()));
+        book.setAvailableCopies(book.getTotalCopies());
+        book.setAvailable(book.getTotalCopies() > 0);
+    }
+
+    public void stock(Book book) {
+        stock(List.of(book));
+    }
+
+    public void stock(Collection<Book> books) {
+        List<BookCopyStripe> stripes = new ArrayList<>();
+        for (Book book : books) {
+            int[] shares = split(book.getTotalCopies(), book.getCopyStripes());
+            for (int stripe = 0; stripe < shares.length; stripe++) {
+                stripes.add(BookCopyStripe.builder().bookId(book.getId()).stripe(stripe).availableCopies(shares[stripe]).build());
+            }
+        }
+        stripeRepository.saveAll(stripes);
+    }
+
+    // Returns the stripe the copy came from, or -1 when no copy is left.
+    public int take(Book book) {
+        return scan(book, randomStripe(book), 0);
+    }
+
+    // Only books whose first stripe turned out empty fall back to scanning their other stripes.
+    public int[] takeEach(List<Book> books) {
+        int[] stripes = new int[books.size()];
+        List<Object[]> attempts = new ArrayList<>(books.size());
+        for (int i = 0; i < books.size(); i++) {
+            stripes[i] = randomStripe(books.get(i));
+            attempts.add(new Object[]{books.get(i).getId(), stripes[i]});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(TAKE_ONE, attempts);
+        for (int i = 0; i < stripes.length; i++) {
+            if (updated[i] == 0) {
+                stripes[i] = scan(books.get(i), stripes[i], 1);
+            }
+        }
+        return stripes;
+    }
+
+    public void giveBack(Long bookId, Integer stripe) {
+        if (stripeRepository.put(bookId, stripe == null ? 0 : stripe, 1) == 0) {
+            log.warn("No copy stripe {} for book {}, returned copy is not counted", stripe, bookId);
+        }
+    }
+
+    // Stripes are updated in book and stripe order so concurrent check-ins lock rows in the same order.
+    public void giveBackAll(Map<Long, List<Integer>> stripesByBook) {
+        List<Object[]> updates = new ArrayList<>();
+        new TreeMap<>(stripesByBook).forEach((bookId, stripes) -> {
+            Map<Integer, Integer> counts = new TreeMap<>();
+            stripes.forEach(stripe -> counts.merge(stripe == null ? 0 : stripe, 1, Integer::sum));
+            counts.forEach((stripe, count) -> updates.add(new Object[]{count, bookId, stripe}));
+        });
+        jdbcTemplate.batchUpdate(PUT_BACK, updates);
+    }
+
+    // The caller's transaction still holds the stripe rows the copies were just put on, so they are there to take.
+    public void takeBack(Long bookId, List<Integer> stripes) {
+        Map<Integer, Integer> counts = new TreeMap<>();
+        stripes.forEach(stripe -> counts.merge(stripe == null ? 0 : stripe, 1, Integer::sum));
+        counts.forEach((stripe, count) -> {
+            if (stripeRepository.take(bookId, stripe, count) == 0) {
+                log.warn("Copy stripe {} of book {} is short of {} handed off copies", stripe, bookId, count);
+            }
+        });
+    }
+
+    public long available(Long bookId) {
+        return stripeRepository.countAvailable(bookId);
+    }
+
+    public Map<Long, Long> available(Collection<Long> bookIds) {
+        Map<Long, Long> counts = new HashMap<>();
+        bookIds.forEach(id -> counts.put(id, 0L));
+        for (BookCopyCount count : stripeRepository.countAvailableByBookIdIn(bookIds)) {
+            counts.put(count.bookId(), count.availableCopies());
+        }
+        return counts;
+    }
+
+    // Returns the stripe of each added copy; removing copies that are on loan throws and rolls the caller back.
+    public List<Integer> resize(Book book, int totalCopies) {
+        if (totalCopies < 0) {
+            throw new IllegalArgumentException("Total copies cannot be negative.");
+        }
+        int current = book.getTotalCopies() == null ? 1 : book.getTotalCopies();
+        int delta = totalCopies - current;
+        List<Integer> addedCopies = new ArrayList<>();
+        if (delta > 0) {
+            int stripes = Math.max(book.getCopyStripes(), stripesFor(totalCopies));
+            List<BookCopyStripe> added = new ArrayList<>();
+            for (int stripe = book.getCopyStripes(); stripe < stripes; stripe++) {
+                added.add(BookCopyStripe.builder().bookId(book.getId()).stripe(stripe).availableCopies(0).build());
+            }
+            stripeRepository.saveAllAndFlush(added);
+            int[] shares = split(delta, stripes);
+            for (int stripe = 0; stripe < stripes; stripe++) {
+                if (shares[stripe] > 0) {
+                    stripeRepository.put(book.getId(), stripe, shares[stripe]);
+                    addedCopies.addAll(Collections.nCopies(shares[stripe], stripe));
+                }
+            }
+            book.setCopyStripes(stripes);
+        } else if (delta < 0) {
+            int missing = -delta;
+            for (BookCopyStripe stripe : stripeRepository.findByBookIdOrderByStripeAsc(book.getId())) {
+                int count = Math.min(missing, stripe.getAvailableCopies());
+                if (count > 0 && stripeRepository.take(book.getId(), stripe.getStripe(), count) == 1) {
+                    missing -= count;
+                }
+                if (missing == 0) {
+                    break;
+                }
+            }
+            if (missing > 0) {
+                throw new BookUnavailableException("Cannot remove copies that are on loan.");
+            }
+        }
+        book.setTotalCopies(totalCopies);
+        return addedCopies;
+    }
+
+    public void remove(Long bookId) {
+        stripeRepository.deleteByBookId(bookId);
+    }
+
+    private int scan(Book book, int start, int from) {
+        int stripes = Math.max(1, book.getCopyStripes());
+        for (int i = from; i < stripes; i++) {
+            int stripe = (start + i) % stripes;
+            if (stripeRepository.take(book.getId(), stripe, 1) == 1) {
+                return stripe;
+            }
+        }
+        return -1;
+    }
+
+    private static int randomStripe(Book book) {
+        return ThreadLocalRandom.current().nextInt(Math.max(1, book.getCopyStripes()));
+    }
+
+    static int stripesFor(int copies) {
+        return Math.max(1, Math.min(copies, MAX_STRIPES));
+    }
+
+    private static int[] split(int copies, int stripes) {
+        int[] shares = new int[Math.max(1, stripes)];
+        for (int stripe = 0; stripe < shares.length; stripe++) {
+            shares[stripe] = copies / shares.length + (stripe < copies % shares.length ? 1 : 0);
+        }
+        return shares;
+    }
+}
@@ -1,14 +1,43 @@
 package com.getir.librarymanagementsystem.service;
 
+import com.getir.librarymanagementsystem.cache.BookCache;
+import com.getir.librarymanagementsystem.cluster.ClusterEventBus;
+import com.getir.librarymanagementsystem.model.dto.pagination.BookSortField;
+import com.getir.librarymanagementsystem.model.dto.pagination.KeysetCursor;
+import com.getir.librarymanagementsystem.model.dto.pagination.KeysetPage;
+import com.getir.librarymanagementsystem.model.dto.response.BookCacheStatsResponse;
+import com.getir.librarymanagementsystem.model.dto.response.BookResponse;
+import com.getir.librarymanagementsystem.model.dto.response.FacetedSearchResponse;
+import com.getir.librarymanagementsystem.model.dto.response.SuggestionResponse;
 import com.getir.librarymanagementsystem.model.entity.Book;
 import com.getir.librarymanagementsystem.repository.BookRepository;
+import com.getir.librarymanagementsystem.repository.HoldRepository;
+import com.getir.librarymanagementsystem.repository.RowCountEstimator;
+import com.getir.librarymanagementsystem.search.BookFacetIndex;
+import com.getir.librarymanagementsystem.search.BookSearchIndex;
+import com.getir.librarymanagementsystem.search.BookSuggestionIndex;
+import com.getir.librarymanagementsystem.search.BookTrigramIndex;
+import com.getir.librarymanagementsystem.search.FacetField;
+import com.getir.librarymanagementsystem.search.FacetedHits;
+import com.getir.librarymanagementsystem.search.SearchHits;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -17,10 +46,34 @@ import java.util.Optional;
 public class BookService {
 
     private final BookRepository bookRepository;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookTrigramIndex bookTrigramIndex;
+    private final BookFacetIndex bookFacetIndex;
+    private final BookSuggestionIndex bookSuggestionIndex;
+    private final BookCache bookCache;
+    private final BookInventoryService bookInventory;
+    private final HoldRepository holdRepository;
+    private final RowCountEstimator rowCountEstimator;
+    private final List<BookChangeListener> bookChangeListeners;
+    private final ClusterEventBus clusterEventBus;
+    private final BorrowService borrowService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     public Book save(Book book) {
         log.debug("Saving book: {}", book);
-        return bookRepository.save(book);
+        boolean created = book.getId() == null;
+        if (created) {
+            BookInventoryService.prepare(book);
+        }
+        Book saved = bookRepository.save(book);
+        if (created) {
+            bookInventory.stock(saved);
+        }
+        bookChangeListeners.forEach(listener -> listener.onBookSaved(saved));
+        clusterEventBus.bookChanged(saved.getId());
+        return saved;
     }
 
     public Book update(Long id, Book book) {
@@ -28,7 +81,7 @@ public class BookService {
                 .orElseThrow(() -> new RuntimeException("Book not found"));
 
         if (!existing.getIsbn().equals(book.getIsbn())) {
-            Optional<Book> isbnOwner = bookRepository.findByIsbn(book.getIsbn());
+            Optional<Book> isbnOwner = findByIsbn(book.getIsbn());
             if (isbnOwner.isPresent() && !isbnOwner.get().getId().equals(id)) {
                 throw new IllegalArgumentException("ISBN already exists for another book.");
             }
@@ -40,31 +93,147 @@ public class BookService {
         existing.setPublicationDate(book.getPublicationDate());
         existing.setGenre(book.getGenre());
         existing.setAvailable(book.isAvailable());
+        List<Integer> addedCopies = List.of();
+        if (book.getTotalCopies() != null && !book.getTotalCopies().equals(existing.getTotalCopies())) {
+            addedCopies = bookInventory.resize(existing, book.getTotalCopies());
+            existing.setAvailableCopies((int) bookInventory.available(id));
+            existing.setAvailable(book.isAvailable() && existing.getAvailableCopies() > 0);
+        }
 
-        return bookRepository.save(existing);
+        Book saved = bookRepository.save(existing);
+        if (!addedCopies.isEmpty()) {
+            // Handing copies to holds updates the book row in bulk, so it is written before and read back after.
+            bookRepository.flush();
+            borrowService.shelveAddedCopies(id, addedCopies);
+            entityManager.refresh(saved);
+        }
+        bookChangeListeners.forEach(listener -> listener.onBookSaved(saved));
+        clusterEventBus.bookChanged(saved.getId());
+        return saved;
     }
 
 
     public void delete(Long id) {
         log.debug("Deleting book with ID: {}", id);
+        bookInventory.remove(id);
+        holdRepository.deleteByBookId(id);
         bookRepository.deleteById(id);
+        bookChangeListeners.forEach(listener -> listener.onBookDeleted(id));
+        clusterEventBus.bookDeleted(id);
     }
 
     public Optional<Book> findById(Long id) {
         log.debug("Searching for book by ID: {}", id);
-        return bookRepository.findById(id);
+        return bookCache.findById(id, bookRepository::findById);
+    }
+
+    public Optional<Book> findByIsbn(String isbn) {
+        log.debug("Searching for book by ISBN: {}", isbn);
+        return bookCache.findByIsbn(isbn, bookRepository::findByIsbn);
+    }
+
+    public BookCacheStatsResponse cacheStats() {
+        return bookCache.stats();
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<BookResponse> findPage(BookSortField sort, KeysetCursor after, int limit, boolean includeTotal) {
+        log.debug("Fetching books sorted by {} after {} (limit {})", sort, after, limit);
+        Pageable window = PageRequest.of(0, limit + 1);
+        List<BookResponse> rows = switch (sort) {
+            case ID -> bookRepository.findResponsePageByIdAfter(after == null ? 0L : after.id(), window);
+            case TITLE -> {
+                if (after == null) {
+                    yield bookRepository.findFirstResponsePageByTitle(window);
+                }
+                yield after.value() == null
+                        ? bookRepository.findUntitledResponsePageAfter(after.id(), window)
+                        : bookRepository.findResponsePageByTitleAfter(after.value(), after.id(), window);
+            }
+        };
+
+        boolean hasNext = rows.size() > limit;
+        List<BookResponse> items = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            BookResponse last = items.get(items.size() - 1);
+            String value = sort == BookSortField.TITLE ? last.getTitle() : null;
+            nextCursor = new KeysetCursor(sort.name(), last.getId(), value).encode();
+        }
+        Long total = includeTotal ? rowCountEstimator.estimate("books", bookRepository::count) : null;
+        return new KeysetPage<>(items, nextCursor, total);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<BookResponse> search(String keyword, int page, int size) {
+        return search(keyword, page, size, false);
     }
 
-    public List<Book> findAll() {
-        log.debug("Fetching all books");
-        return bookRepository.findAll();
+    @Transactional(readOnly = true)
+    public Page<BookResponse> search(String keyword, int page, int size, boolean fuzzy) {
+        log.debug("Searching books with keyword: {} (page {}, size {}, fuzzy {})", keyword, page, size, fuzzy);
+        PageRequest pageRequest = PageRequest.of(page, size);
+        int limit = (int) Math.min(Integer.MAX_VALUE, pageRequest.getOffset() + size);
+        SearchHits hits = fuzzy
+                ? bookSearchIndex.search(bookTrigramIndex.expand(keyword), limit)
+                : bookSearchIndex.search(keyword, limit);
+        List<Long> pageIds = hits.bookIds().stream().skip(pageRequest.getOffset()).toList();
+        List<BookResponse> books = loadInRankOrder(pageIds);
+        return new PageImpl<>(books, pageRequest, hits.totalHits() - (pageIds.size() - books.size()));
+    }
+
+    @Transactional(readOnly = true)
+    public FacetedSearchResponse facetedSearch(String keyword, boolean fuzzy, Map<FacetField, String> filters,
+                                               int page, int size, int facetLimit) {
+        log.debug("Faceted search with keyword: {} and filters {} (page {}, size {})", keyword, filters, page, size);
+        PageRequest pageRequest = PageRequest.of(page, size);
+        int limit = (int) Math.min(Integer.MAX_VALUE, pageRequest.getOffset() + size);
+        FacetedHits result;
+        if (keyword == null || keyword.isBlank()) {
+            result = bookFacetIndex.search(filters, null, facetLimit, limit, null);
+        } else {
+            Map<String, Float> terms = fuzzy ? bookTrigramIndex.expand(keyword) : BookSearchIndex.queryTerms(keyword);
+            result = bookFacetIndex.search(filters, bookSearchIndex.matchingIds(terms), facetLimit, limit,
+                    filter -> bookSearchIndex.search(terms, limit, filter));
+        }
+
+        List<Long> pageIds = result.hits().bookIds().stream().skip(pageRequest.getOffset()).toList();
+        List<BookResponse> books = loadInRankOrder(pageIds);
+        return FacetedSearchResponse.builder()
+                .hits(books)
+                .totalHits(result.hits().totalHits() - (pageIds.size() - books.size()))
+                .page(page)
+                .size(size)
+                .facets(result.facets())
+                .build();
     }
 
-    public List<Book> search(String keyword) {
-        log.debug("Searching books with keyword: {}", keyword);
-        return bookRepository.findAll().stream()
-                .filter(b -> b.getTitle().toLowerCase().contains(keyword.toLowerCase())
-                        || b.getAuthor().toLowerCase().contains(keyword.toLowerCase()))
-                .toList();
+    // Served from memory; no transaction, so a keystroke never checks out a pooled connection.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<SuggestionResponse> suggest(String prefix, int limit) {
+        return bookSuggestionIndex.suggest(prefix, limit);
+    }
+
+    private List<BookResponse> loadInRankOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, BookResponse> found = bookRepository.findResponsesByIdIn(ids).stream()
+                .collect(Collectors.toMap(BookResponse::getId, Function.identity()));
+        List<BookResponse> books = new ArrayList<>(ids.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            BookResponse book = found.get(id);
+            if (book != null) {
+                books.add(book);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            log.warn("Dropping {} stale entries from the search indexes", missing.size());
+            missing.forEach(id -> bookChangeListeners.forEach(listener -> listener.onBookDeleted(id)));
+        }
+        return books;
     }
 }
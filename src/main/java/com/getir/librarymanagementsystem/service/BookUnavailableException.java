@@ -0,0 +1,12 @@
+package com.getir.librarymanagementsystem.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class BookUnavailableException extends RuntimeException {
+
+    public BookUnavailableException(String message) {
+        super(message);
+    }
+}
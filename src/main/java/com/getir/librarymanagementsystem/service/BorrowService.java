@@ -1,26 +1,71 @@
 package com.getir.librarymanagementsystem.service;
 
+import com.getir.librarymanagementsystem.cache.BookCache;
+import com.getir.librarymanagementsystem.journal.CirculationEventType;
+import com.getir.librarymanagementsystem.journal.CirculationJournal;
+import com.getir.librarymanagementsystem.journal.CirculationRecord;
 import com.getir.librarymanagementsystem.model.dto.event.BookAvailabilityEvent;
+import com.getir.librarymanagementsystem.model.dto.pagination.BorrowSortField;
+import com.getir.librarymanagementsystem.model.dto.pagination.InvalidPageRequestException;
+import com.getir.librarymanagementsystem.model.dto.pagination.KeysetCursor;
+import com.getir.librarymanagementsystem.model.dto.pagination.KeysetPage;
+import com.getir.librarymanagementsystem.model.dto.request.BatchBorrowRequest;
+import com.getir.librarymanagementsystem.model.dto.request.BatchReturnRequest;
 import com.getir.librarymanagementsystem.model.dto.request.BorrowRequest;
+import com.getir.librarymanagementsystem.model.dto.response.BatchBorrowItem;
+import com.getir.librarymanagementsystem.model.dto.response.BatchBorrowResponse;
+import com.getir.librarymanagementsystem.model.dto.response.BatchItemStatus;
+import com.getir.librarymanagementsystem.model.dto.response.BatchReturnItem;
+import com.getir.librarymanagementsystem.model.dto.response.BatchReturnResponse;
 import com.getir.librarymanagementsystem.model.dto.response.BorrowResponse;
 import com.getir.librarymanagementsystem.model.dto.response.OverdueReportResponse;
+import com.getir.librarymanagementsystem.model.dto.response.ReminderStatsResponse;
 import com.getir.librarymanagementsystem.model.entity.Book;
 import com.getir.librarymanagementsystem.model.entity.Borrow;
+import com.getir.librarymanagementsystem.model.entity.Hold;
+import com.getir.librarymanagementsystem.model.entity.HoldStatus;
 import com.getir.librarymanagementsystem.model.entity.User;
 import com.getir.librarymanagementsystem.model.mapper.BorrowMapper;
+import com.getir.librarymanagementsystem.outbox.AvailabilityOutbox;
+import com.getir.librarymanagementsystem.reminder.DueDateReminderScheduler;
 import com.getir.librarymanagementsystem.repository.BookRepository;
+import com.getir.librarymanagementsystem.repository.BorrowCheckIn;
 import com.getir.librarymanagementsystem.repository.BorrowRepository;
+import com.getir.librarymanagementsystem.repository.HoldRepository;
+import com.getir.librarymanagementsystem.repository.RowCountEstimator;
 import com.getir.librarymanagementsystem.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -32,9 +77,20 @@ public class BorrowService {
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
     private final BorrowMapper borrowMapper;
+    private final RowCountEstimator rowCountEstimator;
     private static final int BORROW_PERIOD_DAYS = 14;
-    private final BookAvailabilityPublisher bookAvailabilityPublisher;
-
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+    private static final int CHECK_IN_CHUNK_SIZE = 500;
+    private final AvailabilityOutbox availabilityOutbox;
+    private final List<BookChangeListener> bookChangeListeners;
+    private final BookCache bookCache;
+    private final BookInventoryService bookInventory;
+    private final TransactionTemplate transactionTemplate;
+    private final DueDateReminderScheduler dueDateReminders;
+    private final CirculationJournal circulationJournal;
+    private final HoldRepository holdRepository;
+
+    @Transactional
     public BorrowResponse borrowBook(BorrowRequest request, Authentication authentication) {
         String username = authentication.getName();
         log.info("User '{}' attempting to borrow book with ID {}", username, request.getBookId());
@@ -45,32 +101,40 @@ public class BorrowService {
                     return new RuntimeException("User not found");
                 });
 
-        Book book = bookRepository.findById(request.getBookId())
+        Book book = bookCache.findById(request.getBookId(), bookRepository::findById)
                 .orElseThrow(() -> {
                     log.error("Book with ID {} not found", request.getBookId());
                     return new RuntimeException("Book not found");
                 });
 
-        if (!book.isAvailable()) {
-            log.warn("Book with ID {} is not available for borrowing", book.getId());
-            throw new RuntimeException("Book is not available");
+        // A decrement-if-positive update on a stripe, so concurrent borrowers never take more copies than exist.
+        int stripe = bookInventory.take(book);
+        if (stripe < 0) {
+            log.warn("Book with ID {} has no copy left for borrowing", book.getId());
+            throw new BookUnavailableException("Book is not available");
+        }
+        long remaining = bookInventory.available(book.getId());
+        // Other borrowers hold at most one uncommitted take per stripe, so only a count this low can hide an empty shelf.
+        if (remaining < BookInventoryService.MAX_STRIPES) {
+            remaining = syncAvailability(List.of(book.getId())).get(book.getId());
         }
-
-        book.setAvailable(false);
-        bookRepository.save(book);
-
-        bookAvailabilityPublisher.publish(
-                new BookAvailabilityEvent(book.getId(), false)
-        );
 
         Borrow borrow = Borrow.builder()
                 .user(user)
-                .book(book)
+                .book(bookRepository.getReferenceById(book.getId()))
                 .borrowDate(request.getBorrowDate())
                 .returnDate(request.getReturnDate())
+                .dueDate(dueDate(request.getBorrowDate(), request.getReturnDate()))
+                .copyStripe(stripe)
                 .build();
 
         Borrow saved = borrowRepository.save(borrow);
+        notifyAvailabilityChanged(book.getId(), remaining);
+        afterCommit(() -> {
+            bookChangeListeners.forEach(listener -> listener.onBorrowed(book.getId()));
+            dueDateReminders.schedule(saved.getId(), saved.getDueDate());
+            circulationJournal.append(CirculationRecord.of(CirculationEventType.BORROWED, saved));
+        });
         log.info("User '{}' successfully borrowed book '{}'", username, book.getTitle());
 
         return BorrowResponse.builder()
@@ -79,22 +143,131 @@ public class BorrowService {
                 .bookTitle(book.getTitle())
                 .borrowDate(saved.getBorrowDate())
                 .returnDate(saved.getReturnDate())
+                .dueDate(saved.getDueDate())
                 .build();
     }
 
-    public List<BorrowResponse> getAllBorrows() {
-        log.debug("Fetching all borrow records");
-        return borrowRepository.findAll().stream().map(borrow ->
-                BorrowResponse.builder()
-                        .id(borrow.getId())
-                        .username(borrow.getUser().getUsername())
-                        .bookTitle(borrow.getBook().getTitle())
-                        .borrowDate(borrow.getBorrowDate())
-                        .returnDate(borrow.getReturnDate())
-                        .build()
-        ).collect(Collectors.toList());
+    // All or nothing: items that were fine are reported as rolled back when another one failed.
+    @Transactional
+    public BatchBorrowResponse borrowBooks(BatchBorrowRequest request, Authentication authentication) {
+        String username = authentication.getName();
+        List<Long> bookIds = request.getBookIds();
+        log.info("User '{}' attempting to borrow {} books", username, bookIds.size());
+
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> {
+                    log.error("User '{}' not found while borrowing", username);
+                    return new UsernameNotFoundException("User not found");
+                });
+
+        Map<Long, Book> found = bookRepository.findAllById(new HashSet<>(bookIds)).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        List<BatchBorrowItem> items = new ArrayList<>(bookIds.size());
+        List<Book> books = new ArrayList<>(bookIds.size());
+        Set<Long> seen = new HashSet<>();
+        for (Long bookId : bookIds) {
+            BatchItemStatus status = !seen.add(bookId) ? BatchItemStatus.DUPLICATE
+                    : found.containsKey(bookId) ? BatchItemStatus.BORROWED : BatchItemStatus.NOT_FOUND;
+            items.add(BatchBorrowItem.builder().bookId(bookId).status(status).build());
+            if (status == BatchItemStatus.BORROWED) {
+                books.add(found.get(bookId));
+            }
+        }
+
+        int[] stripes = books.isEmpty() ? new int[0] : bookInventory.takeEach(books);
+        boolean completed = books.size() == bookIds.size();
+        for (int i = 0, b = 0; i < items.size(); i++) {
+            if (items.get(i).getStatus() == BatchItemStatus.BORROWED && stripes[b++] < 0) {
+                items.get(i).setStatus(BatchItemStatus.UNAVAILABLE);
+                completed = false;
+            }
+        }
+        if (!completed) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            items.stream().filter(item -> item.getStatus() == BatchItemStatus.BORROWED)
+                    .forEach(item -> item.setStatus(BatchItemStatus.ROLLED_BACK));
+            log.warn("Batch borrow by user '{}' rolled back: {}", username, items);
+            return BatchBorrowResponse.builder().completed(false).items(items).build();
+        }
+
+        List<Long> ids = books.stream().map(Book::getId).toList();
+        Map<Long, Long> remaining = new HashMap<>(bookInventory.available(ids));
+        List<Long> low = ids.stream().filter(id -> remaining.get(id) < BookInventoryService.MAX_STRIPES).toList();
+        if (!low.isEmpty()) {
+            remaining.putAll(syncAvailability(low));
+        }
+
+        List<Borrow> borrows = new ArrayList<>(books.size());
+        for (int i = 0; i < books.size(); i++) {
+            borrows.add(Borrow.builder()
+                    .user(user)
+                    .book(books.get(i))
+                    .borrowDate(request.getBorrowDate())
+                    .returnDate(request.getReturnDate())
+                    .dueDate(dueDate(request.getBorrowDate(), request.getReturnDate()))
+                    .copyStripe(stripes[i])
+                    .build());
+        }
+        List<Borrow> saved = borrowRepository.saveAll(borrows);
+        for (int i = 0; i < saved.size(); i++) {
+            Borrow borrow = saved.get(i);
+            items.get(i).setBorrow(BorrowResponse.builder()
+                    .id(borrow.getId())
+                    .username(user.getUsername())
+                    .bookTitle(books.get(i).getTitle())
+                    .borrowDate(borrow.getBorrowDate())
+                    .returnDate(borrow.getReturnDate())
+                    .dueDate(borrow.getDueDate())
+                    .build());
+        }
+        notifyAvailabilityChanged(remaining);
+        afterCommit(() -> {
+            ids.forEach(id -> bookChangeListeners.forEach(listener -> listener.onBorrowed(id)));
+            saved.forEach(borrow -> dueDateReminders.schedule(borrow.getId(), borrow.getDueDate()));
+            saved.forEach(borrow -> circulationJournal.append(CirculationRecord.of(CirculationEventType.BORROWED, borrow)));
+        });
+        log.info("User '{}' successfully borrowed {} books", username, saved.size());
+        return BatchBorrowResponse.builder().completed(true).items(items).build();
     }
 
+    @Transactional(readOnly = true)
+    public KeysetPage<BorrowResponse> getBorrowPage(BorrowSortField sort, KeysetCursor after, int limit, boolean includeTotal) {
+        log.debug("Fetching borrow records sorted by {} after {} (limit {})", sort, after, limit);
+        Pageable window = PageRequest.of(0, limit + 1);
+        List<Borrow> rows = switch (sort) {
+            case ID -> borrowRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after.id(), window);
+            case BORROW_DATE -> {
+                if (after == null) {
+                    yield borrowRepository.findFirstPageByBorrowDate(window);
+                }
+                yield after.value() == null
+                        ? borrowRepository.findUndatedPageAfter(after.id(), window)
+                        : borrowRepository.findPageByBorrowDateAfter(parseDate(after.value()), after.id(), window);
+            }
+        };
+
+        boolean hasNext = rows.size() > limit;
+        List<Borrow> items = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            Borrow last = items.get(items.size() - 1);
+            String value = sort == BorrowSortField.BORROW_DATE && last.getBorrowDate() != null
+                    ? last.getBorrowDate().toString() : null;
+            nextCursor = new KeysetCursor(sort.name(), last.getId(), value).encode();
+        }
+        Long total = includeTotal ? rowCountEstimator.estimate("borrow", borrowRepository::count) : null;
+        return new KeysetPage<>(items.stream().map(borrowMapper::toResponse).toList(), nextCursor, total);
+    }
+
+    private static LocalDate parseDate(String value) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidPageRequestException("Invalid cursor");
+        }
+    }
+
+    @Transactional
     public BorrowResponse returnBook(Long borrowId, Authentication authentication) {
         String username = authentication.getName();
         log.info("User '{}' attempting to return borrow ID {}", username, borrowId);
@@ -121,21 +294,147 @@ public class BorrowService {
             throw new AccessDeniedException("You are not authorized to return this book.");
         }
 
-        borrow.setReturnDate(LocalDate.now());
+        LocalDate today = LocalDate.now();
+        if (borrowRepository.markReturned(borrowId, today, Instant.now()) == 0) {
+            log.warn("Borrow record {} was returned concurrently", borrowId);
+            throw new AccessDeniedException("Book is already returned");
+        }
+        borrow.setReturnDate(today);
         borrow.setReturned(true);
         Book book = borrow.getBook();
-        book.setAvailable(true);
-        bookRepository.save(book);
+        returnCopy(book, borrow.getCopyStripe());
+        afterCommit(() -> {
+            dueDateReminders.cancel(borrowId);
+            circulationJournal.append(CirculationRecord.of(CirculationEventType.RETURNED, borrow));
+        });
+
+        log.info("User '{}' successfully returned book '{}'", username, book.getTitle());
 
-        bookAvailabilityPublisher.publish(
-                new BookAvailabilityEvent(book.getId(), true)
-        );
+        return borrowMapper.toResponse(borrow);
+    }
 
-        Borrow updated = borrowRepository.save(borrow);
+    // Each chunk runs in its own transaction, so one bad item only costs its chunk a row-by-row retry.
+    public BatchReturnResponse checkIn(BatchReturnRequest request) {
+        long started = System.nanoTime();
+        List<Long> borrowIds = request.getBorrowIds() == null ? List.of() : request.getBorrowIds();
+        List<String> isbns = request.getIsbns() == null ? List.of() : request.getIsbns();
+        log.info("Checking in {} borrow ids and {} ISBNs", borrowIds.size(), isbns.size());
 
-        log.info("User '{}' successfully returned book '{}'", username, book.getTitle());
+        List<BatchReturnItem> errors = new ArrayList<>();
+        List<BorrowCheckIn> open = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+
+        Map<Long, BorrowCheckIn> byId = new HashMap<>();
+        for (List<Long> part : chunks(List.copyOf(new LinkedHashSet<>(borrowIds)), LOOKUP_CHUNK_SIZE)) {
+            borrowRepository.findCheckInsByIdIn(part).forEach(checkIn -> byId.put(checkIn.borrowId(), checkIn));
+        }
+        for (Long borrowId : borrowIds) {
+            BorrowCheckIn checkIn = byId.get(borrowId);
+            if (checkIn == null) {
+                errors.add(BatchReturnItem.builder().borrowId(borrowId).status(BatchItemStatus.NOT_FOUND).build());
+            } else if (!seen.add(borrowId)) {
+                errors.add(BatchReturnItem.builder().borrowId(borrowId).status(BatchItemStatus.DUPLICATE).build());
+            } else if (checkIn.returned()) {
+                errors.add(BatchReturnItem.builder().borrowId(borrowId).status(BatchItemStatus.ALREADY_RETURNED).build());
+            } else {
+                open.add(checkIn);
+            }
+        }
+
+        Map<String, Deque<BorrowCheckIn>> openByIsbn = new HashMap<>();
+        for (List<String> part : chunks(List.copyOf(new LinkedHashSet<>(isbns)), LOOKUP_CHUNK_SIZE)) {
+            borrowRepository.findOpenCheckInsByIsbnIn(part).forEach(checkIn ->
+                    openByIsbn.computeIfAbsent(checkIn.isbn(), isbn -> new ArrayDeque<>()).add(checkIn));
+        }
+        for (String isbn : isbns) {
+            Deque<BorrowCheckIn> candidates = openByIsbn.getOrDefault(isbn, new ArrayDeque<>());
+            BorrowCheckIn checkIn = candidates.poll();
+            while (checkIn != null && !seen.add(checkIn.borrowId())) {
+                checkIn = candidates.poll();
+            }
+            if (checkIn == null) {
+                errors.add(BatchReturnItem.builder().isbn(isbn).status(BatchItemStatus.NOT_FOUND).build());
+            } else {
+                open.add(checkIn);
+            }
+        }
+
+        // Chunks that hold all returns of a title publish a single event for it.
+        open.sort(Comparator.comparing(BorrowCheckIn::bookId));
+        long returned = 0;
+        for (List<BorrowCheckIn> chunk : chunks(open, CHECK_IN_CHUNK_SIZE)) {
+            returned += closeChunk(chunk, errors);
+        }
 
-        return borrowMapper.toResponse(updated);
+        long elapsedNanos = System.nanoTime() - started;
+        BatchReturnResponse response = BatchReturnResponse.builder()
+                .processed(borrowIds.size() + isbns.size())
+                .returned(returned)
+                .failed(errors.size())
+                .elapsedMillis(elapsedNanos / 1_000_000)
+                .returnsPerSecond(elapsedNanos == 0 ? 0 : returned / (elapsedNanos / 1e9))
+                .errors(errors)
+                .build();
+        log.info("Checked in {} of {} returns in {} ms ({} returns/s), {} failed", response.getReturned(),
+                response.getProcessed(), response.getElapsedMillis(), Math.round(response.getReturnsPerSecond()),
+                response.getFailed());
+        return response;
+    }
+
+    private int closeChunk(List<BorrowCheckIn> chunk, List<BatchReturnItem> errors) {
+        LocalDate today = LocalDate.now();
+        List<Long> ids = chunk.stream().map(BorrowCheckIn::borrowId).toList();
+        Integer closed = transactionTemplate.execute(status -> {
+            if (borrowRepository.markAllReturned(ids, today, Instant.now()) != ids.size()) {
+                status.setRollbackOnly();
+                return null;
+            }
+            release(chunk);
+            return chunk.size();
+        });
+        if (closed != null) {
+            return closed;
+        }
+
+        // Someone returned one of these borrows since the lookup; close the chunk one borrow at a time.
+        log.warn("Check-in chunk of {} borrows raced with other returns, retrying row by row", chunk.size());
+        return transactionTemplate.execute(status -> {
+            List<BorrowCheckIn> released = new ArrayList<>();
+            for (BorrowCheckIn checkIn : chunk) {
+                if (borrowRepository.markReturned(checkIn.borrowId(), today, Instant.now()) == 1) {
+                    released.add(checkIn);
+                } else {
+                    errors.add(BatchReturnItem.builder().borrowId(checkIn.borrowId())
+                            .status(BatchItemStatus.ALREADY_RETURNED).build());
+                }
+            }
+            if (!released.isEmpty()) {
+                release(released);
+            }
+            return released.size();
+        });
+    }
+
+    private void release(List<BorrowCheckIn> closed) {
+        Map<Long, List<Integer>> stripesByBook = closed.stream().collect(Collectors.groupingBy(
+                BorrowCheckIn::bookId, LinkedHashMap::new,
+                Collectors.mapping(BorrowCheckIn::copyStripe, Collectors.toList())));
+        bookInventory.giveBackAll(stripesByBook);
+        Map<Long, Long> remaining = restock(stripesByBook);
+        List<Long> borrowIds = closed.stream().map(BorrowCheckIn::borrowId).toList();
+        notifyAvailabilityChanged(remaining);
+        afterCommit(() -> {
+            dueDateReminders.cancelAll(borrowIds);
+            closed.forEach(checkIn -> circulationJournal.append(CirculationRecord.returned(checkIn)));
+        });
+    }
+
+    private static <T> List<List<T>> chunks(List<T> items, int size) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += size) {
+            chunks.add(items.subList(from, Math.min(items.size(), from + size)));
+        }
+        return chunks;
     }
 
     public List<BorrowResponse> getBorrowHistoryForUser(Authentication authentication) {
@@ -153,23 +452,28 @@ public class BorrowService {
     }
 
     public List<BorrowResponse> getOverdueBorrows() {
-        LocalDate threshold = LocalDate.now().minusDays(BORROW_PERIOD_DAYS);
-        log.info("Fetching overdue borrows before {}", threshold);
+        LocalDate today = LocalDate.now();
+        log.info("Fetching borrows due before {}", today);
 
-        List<Borrow> overdues = borrowRepository.findByReturnDateIsNullAndBorrowDateBefore(threshold);
+        List<Borrow> overdues = borrowRepository.findOverdue(today);
         return overdues.stream().map(borrowMapper::toResponse).toList();
     }
 
+    public ReminderStatsResponse reminderStats() {
+        return dueDateReminders.stats();
+    }
+
     public List<OverdueReportResponse> getOverdueReport() {
-        LocalDate dueDateThreshold = LocalDate.now().minusDays(BORROW_PERIOD_DAYS);
-        log.info("Generating overdue report for borrows before {}", dueDateThreshold);
+        LocalDate today = LocalDate.now();
+        log.info("Generating overdue report for borrows due before {}", today);
 
-        List<Borrow> overdueBorrows = borrowRepository.findByReturnDateIsNullAndBorrowDateBefore(dueDateThreshold);
+        List<Borrow> overdueBorrows = borrowRepository.findOverdue(today);
         return overdueBorrows.stream()
                 .map(borrowMapper::toOverdueResponse)
                 .collect(Collectors.toList());
     }
 
+    @Transactional
     public void delete(Long id) {
         log.warn("Deleting borrow record with ID {}", id);
         Borrow borrow = borrowRepository.findById(id)
@@ -178,10 +482,137 @@ public class BorrowService {
                     return new RuntimeException("Borrow not found");
                 });
 
-        borrow.getBook().setAvailable(true);
-        bookRepository.save(borrow.getBook());
+        // A returned borrow no longer holds the book, which may already be out with someone else.
+        if (!borrow.isReturned()) {
+            returnCopy(borrow.getBook(), borrow.getCopyStripe());
+            afterCommit(() -> dueDateReminders.cancel(id));
+        }
+        CirculationRecord deleted = CirculationRecord.of(CirculationEventType.DELETED, borrow);
         borrowRepository.deleteById(id);
+        afterCommit(() -> circulationJournal.append(deleted));
 
         log.info("Borrow record {} deleted successfully", id);
     }
+
+    // The return date a borrower asked for is the due date; otherwise the standard loan period applies.
+    private static LocalDate dueDate(LocalDate borrowDate, LocalDate requestedReturnDate) {
+        if (requestedReturnDate != null) {
+            return requestedReturnDate;
+        }
+        return (borrowDate == null ? LocalDate.now() : borrowDate).plusDays(BORROW_PERIOD_DAYS);
+    }
+
+    private void returnCopy(Book book, Integer copyStripe) {
+        bookInventory.giveBack(book.getId(), copyStripe);
+        notifyAvailabilityChanged(restock(Map.of(book.getId(), Collections.singletonList(copyStripe))));
+    }
+
+    // Copies added to a title are served like returned ones: waiting holds come before the next borrower.
+    @Transactional
+    public void shelveAddedCopies(Long bookId, List<Integer> copyStripes) {
+        notifyAvailabilityChanged(restock(Map.of(bookId, copyStripes)));
+    }
+
+    // Holds are looked up under the book row locks, which placing a hold takes too, so no hold misses a copy.
+    private Map<Long, Long> restock(Map<Long, List<Integer>> stripesByBook) {
+        List<Long> ids = lockBooks(stripesByBook.keySet());
+        Set<Long> handedOff = new HashSet<>();
+        for (Long bookId : holdRepository.findBookIdsWithWaitingHolds(ids)) {
+            List<Integer> stripes = stripesByBook.get(bookId);
+            if (handOff(bookId, stripes) == stripes.size()) {
+                handedOff.add(bookId);
+            }
+        }
+        Map<Long, Long> remaining = new HashMap<>(recount(ids));
+        remaining.keySet().removeAll(handedOff);
+        return remaining;
+    }
+
+    // Rows are locked before the count, so of two writers racing on a last copy the second sees the first's change.
+    private Map<Long, Long> syncAvailability(Collection<Long> bookIds) {
+        return recount(lockBooks(bookIds));
+    }
+
+    private List<Long> lockBooks(Collection<Long> bookIds) {
+        List<Long> ids = bookIds.stream().sorted().distinct().toList();
+        bookRepository.lockAllById(ids);
+        return ids;
+    }
+
+    private Map<Long, Long> recount(List<Long> ids) {
+        Instant now = Instant.now();
+        bookRepository.markAllUnavailable(ids, now);
+        bookRepository.markAllAvailable(ids, now);
+        return bookInventory.available(ids);
+    }
+
+    // Returns how many copies, from the front of the list, went to holds; SKIP LOCKED leaves holds others serve.
+    private int handOff(Long bookId, List<Integer> copyStripes) {
+        List<Hold> holds = holdRepository.claimWaiting(bookId, PageRequest.of(0, copyStripes.size()));
+        if (holds.isEmpty()) {
+            return 0;
+        }
+        LocalDate today = LocalDate.now();
+        Instant now = Instant.now();
+        List<Borrow> borrows = new ArrayList<>(holds.size());
+        for (int i = 0; i < holds.size(); i++) {
+            borrows.add(Borrow.builder()
+                    .user(holds.get(i).getUser())
+                    .book(holds.get(i).getBook())
+                    .borrowDate(today)
+                    .dueDate(dueDate(today, null))
+                    .copyStripe(copyStripes.get(i))
+                    .build());
+        }
+        List<Borrow> saved = borrowRepository.saveAll(borrows);
+        bookInventory.takeBack(bookId, copyStripes.subList(0, holds.size()));
+        long remaining = bookInventory.available(bookId);
+        List<BookAvailabilityEvent> events = new ArrayList<>(holds.size());
+        for (int i = 0; i < holds.size(); i++) {
+            Hold hold = holds.get(i);
+            hold.setStatus(HoldStatus.FULFILLED);
+            hold.setFulfilledAt(now);
+            hold.setBorrowId(saved.get(i).getId());
+            events.add(new BookAvailabilityEvent(bookId, remaining > 0, remaining, hold.getId(), hold.getBorrowId()));
+        }
+        // markReturned and markAllReturned clear the persistence context without flushing, and check-ins run them.
+        holdRepository.flush();
+        availabilityOutbox.addAll(events);
+        afterCommit(() -> saved.forEach(borrow -> {
+            bookChangeListeners.forEach(listener -> listener.onBorrowed(bookId));
+            dueDateReminders.schedule(borrow.getId(), borrow.getDueDate());
+            circulationJournal.append(CirculationRecord.of(CirculationEventType.BORROWED, borrow));
+        }));
+        log.info("Handed {} copies of book {} to waiting holds", holds.size(), bookId);
+        return holds.size();
+    }
+
+    // Subscribers get the change through the outbox, written in this transaction; local listeners after commit.
+    private void notifyAvailabilityChanged(Long bookId, long availableCopies) {
+        boolean available = availableCopies > 0;
+        availabilityOutbox.add(new BookAvailabilityEvent(bookId, available, availableCopies));
+        afterCommit(() -> bookChangeListeners.forEach(listener -> listener.onAvailabilityChanged(bookId, available)));
+    }
+
+    private void notifyAvailabilityChanged(Map<Long, Long> availableCopies) {
+        List<BookAvailabilityEvent> events = new ArrayList<>(availableCopies.size());
+        availableCopies.forEach((bookId, copies) -> events.add(new BookAvailabilityEvent(bookId, copies > 0, copies)));
+        availabilityOutbox.addAll(events);
+        afterCommit(() -> availableCopies.forEach((bookId, copies) ->
+                bookChangeListeners.forEach(listener -> listener.onAvailabilityChanged(bookId, copies > 0))));
+    }
+
+    // Indexes, caches and subscribers must not see a flip that is later rolled back.
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
 }
@@ -0,0 +1,120 @@
+package com.getir.librarymanagementsystem.service;
+
+import com.getir.librarymanagementsystem.cache.BookCache;
+import com.getir.librarymanagementsystem.model.dto.request.HoldRequest;
+import com.getir.librarymanagementsystem.model.dto.response.HoldResponse;
+import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.model.entity.Hold;
+import com.getir.librarymanagementsystem.model.entity.HoldStatus;
+import com.getir.librarymanagementsystem.model.entity.User;
+import com.getir.librarymanagementsystem.repository.BookRepository;
+import com.getir.librarymanagementsystem.repository.HoldRepository;
+import com.getir.librarymanagementsystem.repository.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+// Serving holds is part of returning a copy, see BorrowService.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HoldService {
+
+    private final HoldRepository holdRepository;
+    private final BookRepository bookRepository;
+    private final UserRepository userRepository;
+    private final BookCache bookCache;
+    private final BookInventoryService bookInventory;
+
+    @Transactional
+    public HoldResponse placeHold(HoldRequest request, Authentication authentication) {
+        String username = authentication.getName();
+        log.info("User '{}' attempting to place a hold on book with ID {}", username, request.getBookId());
+
+        User user = findUser(username);
+        Book book = bookCache.findById(request.getBookId(), bookRepository::findById)
+                .orElseThrow(() -> {
+                    log.error("Book with ID {} not found", request.getBookId());
+                    return new RuntimeException("Book not found");
+                });
+
+        // Returns pick between shelf and holds under this lock, so no copy comes back unseen before the hold commits.
+        bookRepository.lockAllById(List.of(book.getId()));
+        if (bookInventory.available(book.getId()) > 0) {
+            log.warn("Book with ID {} has copies on the shelf, hold rejected", book.getId());
+            throw new HoldRejectedException("Book is available, borrow it instead");
+        }
+        if (holdRepository.existsWaiting(user.getId(), book.getId())) {
+            log.warn("User '{}' already holds book with ID {}", username, book.getId());
+            throw new HoldRejectedException("You already have a hold on this book");
+        }
+
+        Hold hold = holdRepository.save(Hold.builder()
+                .user(user)
+                .book(bookRepository.getReferenceById(book.getId()))
+                .status(HoldStatus.WAITING)
+                .placedAt(Instant.now())
+                .build());
+        log.info("User '{}' placed hold {} on book '{}'", username, hold.getId(), book.getTitle());
+        return toResponse(hold, username, book.getId(), book.getTitle());
+    }
+
+    @Transactional(readOnly = true)
+    public List<HoldResponse> getWaitingHolds(Authentication authentication) {
+        User user = findUser(authentication.getName());
+        return holdRepository.findByUserIdAndStatusOrderByPlacedAtAscIdAsc(user.getId(), HoldStatus.WAITING).stream()
+                .map(hold -> toResponse(hold, user.getUsername(), hold.getBook().getId(), hold.getBook().getTitle()))
+                .toList();
+    }
+
+    @Transactional
+    public void cancelHold(Long holdId, Authentication authentication) {
+        String username = authentication.getName();
+        log.info("User '{}' attempting to cancel hold {}", username, holdId);
+        User user = findUser(username);
+        Hold hold = holdRepository.findById(holdId)
+                .orElseThrow(() -> {
+                    log.error("Hold {} not found", holdId);
+                    return new EntityNotFoundException("Hold not found");
+                });
+        if (!hold.getUser().getId().equals(user.getId())) {
+            log.warn("User '{}' is not authorized to cancel hold {}", username, holdId);
+            throw new AccessDeniedException("You are not authorized to cancel this hold.");
+        }
+        if (holdRepository.cancelWaiting(holdId, Instant.now()) == 0) {
+            log.warn("Hold {} is no longer waiting", holdId);
+            throw new HoldRejectedException("Hold is no longer waiting");
+        }
+        log.info("User '{}' cancelled hold {}", username, holdId);
+    }
+
+    private User findUser(String username) {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> {
+                    log.error("User '{}' not found", username);
+                    return new UsernameNotFoundException("User not found");
+                });
+    }
+
+    private HoldResponse toResponse(Hold hold, String username, Long bookId, String bookTitle) {
+        return HoldResponse.builder()
+                .id(hold.getId())
+                .username(username)
+                .bookId(bookId)
+                .bookTitle(bookTitle)
+                .status(hold.getStatus())
+                .position(hold.getStatus() == HoldStatus.WAITING
+                        ? holdRepository.countAhead(bookId, hold.getPlacedAt(), hold.getId()) + 1
+                        : null)
+                .placedAt(hold.getPlacedAt())
+                .build();
+    }
+}
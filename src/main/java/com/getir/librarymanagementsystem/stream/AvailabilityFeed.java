@@ -0,0 +1,158 @@
+package com.getir.librarymanagementsystem.stream;
+
+import com.getir.librarymanagementsystem.model.dto.event.BookAvailabilityEvent;
+import com.getir.librarymanagementsystem.model.dto.response.AvailabilityFeedStatsResponse;
+import com.getir.librarymanagementsystem.service.BookAvailabilityPublisher;
+import com.getir.librarymanagementsystem.service.BookInventoryService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Event ids carry this instance's start time, since sequence numbers begin again after a restart.
+@Slf4j
+@Component
+public class AvailabilityFeed {
+
+    private final BookInventoryService bookInventory;
+    private final AvailabilityRing ring;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Long, Set<ConflatingMailbox>> subscribersByBook = new ConcurrentHashMap<>();
+    private final Set<ConflatingMailbox> allBookSubscribers = ConcurrentHashMap.newKeySet();
+    private final Set<ConflatingMailbox> subscribers = ConcurrentHashMap.newKeySet();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder conflated = new LongAdder();
+    private final LongAdder resumed = new LongAdder();
+    private final LongAdder snapshots = new LongAdder();
+    private final LongAdder resets = new LongAdder();
+    private final Disposable upstream;
+
+    public AvailabilityFeed(BookAvailabilityPublisher publisher, BookInventoryService bookInventory,
+                            @Value("${library.stream.replay-capacity:65536}") int replayCapacity) {
+        this.bookInventory = bookInventory;
+        this.ring = new AvailabilityRing(replayCapacity);
+        this.upstream = publisher.getStream()
+                .subscribe(this::route, error -> log.error("Book availability stream failed", error));
+    }
+
+    // An empty set follows every book; such a client that cannot be resumed gets a reset event instead.
+    public Flux<FeedEvent> subscribe(Collection<Long> bookIds, String lastEventId) {
+        Set<Long> ids = Set.copyOf(bookIds);
+        return Flux.create(sink -> {
+            ConflatingMailbox mailbox = new ConflatingMailbox(sink, delivered);
+            register(mailbox, ids);
+            sink.onRequest(n -> mailbox.drain());
+            sink.onDispose(() -> unregister(mailbox, ids));
+            Long resumeFrom = parseEventId(lastEventId);
+            List<BookAvailabilityEvent> missed = resumeFrom == null ? null : ring.since(resumeFrom);
+            if (missed != null) {
+                resumed.increment();
+                missed.stream()
+                        .filter(event -> ids.isEmpty() || ids.contains(event.getBookId()))
+                        .forEach(mailbox::offer);
+            } else if (ids.isEmpty()) {
+                if (lastEventId != null) {
+                    resets.increment();
+                    mailbox.offerReset(ring.head());
+                }
+            } else {
+                snapshots.increment();
+                // Read before the copies, so the snapshot holds at least every event up to it.
+                long asOf = ring.head();
+                bookInventory.available(ids).forEach((bookId, copies) ->
+                        mailbox.offerSnapshot(new BookAvailabilityEvent(bookId, copies > 0, copies), asOf));
+            }
+            mailbox.open();
+        }, FluxSink.OverflowStrategy.BUFFER);
+    }
+
+    public String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    public AvailabilityFeedStatsResponse stats() {
+        return AvailabilityFeedStatsResponse.builder()
+                .subscribers(subscribers.size())
+                .allBookSubscribers(allBookSubscribers.size())
+                .indexedBooks(subscribersByBook.size())
+                .published(published.sum())
+                .delivered(delivered.sum())
+                .conflated(conflated.sum())
+                .pending(subscribers.stream().mapToLong(ConflatingMailbox::size).sum())
+                .headSequence(ring.head())
+                .replayCapacity(ring.capacity())
+                .resumed(resumed.sum())
+                .snapshots(snapshots.sum())
+                .resets(resets.sum())
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        upstream.dispose();
+    }
+
+    void route(BookAvailabilityEvent event) {
+        published.increment();
+        ring.append(event);
+        Set<ConflatingMailbox> followers = subscribersByBook.get(event.getBookId());
+        if (followers != null) {
+            followers.forEach(mailbox -> deliver(mailbox, event));
+        }
+        allBookSubscribers.forEach(mailbox -> deliver(mailbox, event));
+    }
+
+    private void deliver(ConflatingMailbox mailbox, BookAvailabilityEvent event) {
+        if (mailbox.offer(event)) {
+            conflated.increment();
+        }
+    }
+
+    private Long parseEventId(String lastEventId) {
+        if (lastEventId == null || !lastEventId.startsWith(epoch + "-")) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void register(ConflatingMailbox mailbox, Set<Long> ids) {
+        subscribers.add(mailbox);
+        if (ids.isEmpty()) {
+            allBookSubscribers.add(mailbox);
+            return;
+        }
+        for (Long id : ids) {
+            subscribersByBook.compute(id, (bookId, followers) -> {
+                Set<ConflatingMailbox> set = followers == null ? ConcurrentHashMap.newKeySet() : followers;
+                set.add(mailbox);
+                return set;
+            });
+        }
+    }
+
+    private void unregister(ConflatingMailbox mailbox, Set<Long> ids) {
+        subscribers.remove(mailbox);
+        allBookSubscribers.remove(mailbox);
+        for (Long id : ids) {
+            subscribersByBook.computeIfPresent(id, (bookId, followers) -> {
+                followers.remove(mailbox);
+                return followers.isEmpty() ? null : followers;
+            });
+        }
+    }
+}
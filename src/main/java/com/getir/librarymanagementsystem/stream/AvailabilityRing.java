@@ -0,0 +1,52 @@
+package com.getir.librarymanagementsystem.stream;
+
+import com.getir.librarymanagementsystem.model.dto.event.BookAvailabilityEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// One thread appends; readers don't lock and spot a slot overwritten under them by its sequence number.
+final class AvailabilityRing {
+
+    private final AtomicReferenceArray<BookAvailabilityEvent> slots;
+    private final int mask;
+    private volatile long head;
+
+    AvailabilityRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    // Sequence numbers must increase by one with every call.
+    void append(BookAvailabilityEvent event) {
+        slots.set((int) (event.getSequence() & mask), event);
+        head = event.getSequence();
+    }
+
+    long head() {
+        return head;
+    }
+
+    int capacity() {
+        return slots.length();
+    }
+
+    // Null when some of the events are no longer held.
+    List<BookAvailabilityEvent> since(long sequence) {
+        long last = head;
+        if (sequence > last || last - sequence > slots.length()) {
+            return null;
+        }
+        List<BookAvailabilityEvent> events = new ArrayList<>((int) (last - sequence));
+        for (long next = sequence + 1; next <= last; next++) {
+            BookAvailabilityEvent event = slots.get((int) (next & mask));
+            if (event == null || event.getSequence() != next) {
+                return null;
+            }
+            events.add(event);
+        }
+        return events;
+    }
+}
@@ -0,0 +1,122 @@
+package com.getir.librarymanagementsystem.stream;
+
+import com.getir.librarymanagementsystem.model.dto.event.BookAvailabilityEvent;
+import reactor.core.publisher.FluxSink;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Snapshot entries go out first, then events in sequence order, so every emitted sequence is safe to resume from.
+final class ConflatingMailbox {
+
+    private static final long RESET = Long.MIN_VALUE;
+    private static final Comparator<Entry> ORDER = Comparator.comparingLong(Entry::order)
+            .thenComparingLong(Entry::bookId);
+
+    private final FluxSink<FeedEvent> sink;
+    private final LongAdder delivered;
+    private final Map<Long, Entry> latest = new ConcurrentHashMap<>();
+    private final NavigableSet<Entry> pending = new ConcurrentSkipListSet<>(ORDER);
+    // Highest sequence accepted per book, delivered or not.
+    private final Map<Long, Long> newest = new ConcurrentHashMap<>();
+    private final AtomicInteger snapshotEntries = new AtomicInteger();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile long snapshotSequence;
+    private volatile boolean open;
+
+    ConflatingMailbox(FluxSink<FeedEvent> sink, LongAdder delivered) {
+        this.sink = sink;
+        this.delivered = delivered;
+    }
+
+    // Returns true when the event replaced one the subscriber had not received yet.
+    boolean offer(BookAvailabilityEvent event) {
+        boolean replaced = enqueue(event.getBookId(), event.getSequence(), false, event);
+        drain();
+        return replaced;
+    }
+
+    // Events up to asOf are part of the snapshot; later events for the book replace it.
+    void offerSnapshot(BookAvailabilityEvent event, long asOf) {
+        snapshotSequence = asOf;
+        event.setSequence(asOf);
+        enqueue(event.getBookId(), asOf, true, event);
+        drain();
+    }
+
+    void offerReset(long asOf) {
+        Entry reset = new Entry(0, RESET, asOf, null, false);
+        latest.put(RESET, reset);
+        pending.add(reset);
+        drain();
+    }
+
+    // Events are only collected until now, so a replay or snapshot is complete before the first one goes out.
+    void open() {
+        open = true;
+        drain();
+    }
+
+    int size() {
+        return latest.size();
+    }
+
+    // A thread that finds another one draining leaves a note so the running drain makes another pass.
+    void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            while (open && sink.requestedFromDownstream() > 0 && !sink.isCancelled()) {
+                Entry entry = pending.pollFirst();
+                if (entry == null) {
+                    break;
+                }
+                if (!latest.remove(entry.bookId(), entry)) {
+                    continue;
+                }
+                Long resumeSequence = entry.sequence();
+                if (entry.snapshot()) {
+                    // A snapshot is only a resume point once all of it has gone out.
+                    resumeSequence = snapshotEntries.decrementAndGet() == 0 ? snapshotSequence : null;
+                }
+                sink.next(new FeedEvent(resumeSequence, entry.event()));
+                delivered.increment();
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private boolean enqueue(long bookId, long sequence, boolean snapshot, BookAvailabilityEvent event) {
+        boolean[] replaced = {false};
+        newest.compute(bookId, (id, seen) -> {
+            if (seen != null && seen >= sequence) {
+                return seen;
+            }
+            Entry entry = new Entry(snapshot ? 0 : sequence, bookId, sequence, event, snapshot);
+            if (snapshot) {
+                snapshotEntries.incrementAndGet();
+            }
+            Entry previous = latest.put(bookId, entry);
+            if (previous != null) {
+                pending.remove(previous);
+                replaced[0] = true;
+                if (previous.snapshot()) {
+                    snapshotEntries.decrementAndGet();
+                }
+            }
+            pending.add(entry);
+            return sequence;
+        });
+        return replaced[0];
+    }
+
+    private record Entry(long order, long bookId, long sequence, BookAvailabilityEvent event, boolean snapshot) {
+    }
+}
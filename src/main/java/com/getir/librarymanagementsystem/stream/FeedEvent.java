@@ -0,0 +1,11 @@
+package com.getir.librarymanagementsystem.stream;
+
+import com.getir.librarymanagementsystem.model.dto.event.BookAvailabilityEvent;
+
+// resumeSequence is null while a snapshot is incomplete; event is null when the client has to reload.
+public record FeedEvent(Long resumeSequence, BookAvailabilityEvent event) {
+
+    public boolean isReset() {
+        return event == null;
+    }
+}
@@ -0,0 +1,191 @@
+package com.getir.librarymanagementsystem.benchmark;
+
+import com.getir.librarymanagementsystem.model.dto.event.BookAvailabilityEvent;
+import com.getir.librarymanagementsystem.service.BookAvailabilityPublisher;
+import com.getir.librarymanagementsystem.service.BookInventoryService;
+import com.getir.librarymanagementsystem.stream.AvailabilityFeed;
+import com.getir.librarymanagementsystem.stream.FeedEvent;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Publishers own disjoint books, so the slow subscribers can be checked to end on each book's last state.
+@Tag("benchmark")
+class AvailabilityFeedLoadBenchmark {
+
+    private static final int BOOKS = 2_000;
+    private static final int FAST_SUBSCRIBERS = 9_000;
+    private static final int SLOW_SUBSCRIBERS = 1_000;
+    private static final int BOOKS_PER_FAST_SUBSCRIBER = 5;
+    private static final int BOOKS_PER_SLOW_SUBSCRIBER = 50;
+    private static final int PUBLISHERS = 8;
+    private static final int EVENTS = 400_000;
+
+    @Test
+    void tenThousandSubscribersWithConflatedSlowConsumers() throws Exception {
+        BookAvailabilityPublisher publisher = new BookAvailabilityPublisher();
+        BookInventoryService bookInventory = mock(BookInventoryService.class);
+        when(bookInventory.available(anyCollection())).thenReturn(Map.of());
+        AvailabilityFeed feed = new AvailabilityFeed(publisher, bookInventory, 65536);
+
+        long[] publishedAt = new long[EVENTS];
+        AtomicLongArray latencyBuckets = new AtomicLongArray(64);
+        Random random = new Random(42);
+        List<Fast> fast = new ArrayList<>(FAST_SUBSCRIBERS);
+        for (int i = 0; i < FAST_SUBSCRIBERS; i++) {
+            Fast subscriber = new Fast(publishedAt, latencyBuckets);
+            feed.subscribe(randomBooks(random, BOOKS_PER_FAST_SUBSCRIBER), null).map(FeedEvent::event).subscribe(subscriber);
+            fast.add(subscriber);
+        }
+        List<Slow> slow = new ArrayList<>(SLOW_SUBSCRIBERS);
+        for (int i = 0; i < SLOW_SUBSCRIBERS; i++) {
+            Slow subscriber = new Slow();
+            feed.subscribe(randomBooks(random, BOOKS_PER_SLOW_SUBSCRIBER), null).map(FeedEvent::event).subscribe(subscriber);
+            slow.add(subscriber);
+        }
+        assertEquals(FAST_SUBSCRIBERS + SLOW_SUBSCRIBERS, feed.stats().getSubscribers());
+
+        ScheduledExecutorService readers = Executors.newScheduledThreadPool(4);
+        slow.forEach(subscriber -> readers.scheduleAtFixedRate(() -> subscriber.request(2), 0, 5, TimeUnit.MILLISECONDS));
+        AtomicLong maxPending = new AtomicLong();
+        readers.scheduleAtFixedRate(() -> maxPending.accumulateAndGet(feed.stats().getPending(), Math::max),
+                0, 20, TimeUnit.MILLISECONDS);
+
+        long[] lastEventOfBook = new long[BOOKS];
+        Arrays.fill(lastEventOfBook, -1);
+        ExecutorService publishers = Executors.newFixedThreadPool(PUBLISHERS);
+        long started = System.nanoTime();
+        try {
+            List<Future<?>> runs = new ArrayList<>();
+            for (int p = 0; p < PUBLISHERS; p++) {
+                int owner = p;
+                runs.add(publishers.submit(() -> {
+                    Random books = new Random(owner);
+                    for (int event = owner; event < EVENTS; event += PUBLISHERS) {
+                        // Books owner, owner + PUBLISHERS, ... belong to this publisher only.
+                        int book = owner + PUBLISHERS * books.nextInt(BOOKS / PUBLISHERS);
+                        publishedAt[event] = System.nanoTime();
+                        publisher.publish(new BookAvailabilityEvent((long) book, event % 3 != 0, event));
+                        lastEventOfBook[book] = event;
+                    }
+                }));
+            }
+            for (Future<?> run : runs) {
+                run.get();
+            }
+        } finally {
+            publishers.shutdown();
+        }
+        double publishSeconds = (System.nanoTime() - started) / 1e9;
+
+        readers.shutdownNow();
+        readers.awaitTermination(5, TimeUnit.SECONDS);
+        long pendingAtEnd = feed.stats().getPending();
+        slow.forEach(subscriber -> subscriber.request(Long.MAX_VALUE));
+
+        for (Slow subscriber : slow) {
+            subscriber.lastEvent.forEach((book, event) -> {
+                if (lastEventOfBook[book.intValue()] >= 0) {
+                    assertEquals(lastEventOfBook[book.intValue()], event.longValue(), "last state of book " + book);
+                }
+            });
+        }
+        long fastReceived = fast.stream().mapToLong(subscriber -> subscriber.received).sum();
+        long slowReceived = slow.stream().mapToLong(subscriber -> subscriber.received).sum();
+        System.out.printf("%-12s %-14s %-14s %-14s %-12s %-12s %-12s%n", "events", "events/s", "fast received",
+                "slow received", "conflated", "max pending", "p99 us");
+        System.out.printf("%-12d %-14d %-14d %-14d %-12d %-12d %-12d%n", EVENTS, Math.round(EVENTS / publishSeconds),
+                fastReceived, slowReceived, feed.stats().getConflated(), Math.max(maxPending.get(), pendingAtEnd),
+                percentileMicros(latencyBuckets, 0.99));
+        // Pending events are bounded by the books slow subscribers follow, however many events were published.
+        assertTrue(maxPending.get() <= (long) SLOW_SUBSCRIBERS * BOOKS_PER_SLOW_SUBSCRIBER
+                + (long) FAST_SUBSCRIBERS * BOOKS_PER_FAST_SUBSCRIBER);
+    }
+
+    private static Set<Long> randomBooks(Random random, int count) {
+        Set<Long> books = new HashSet<>();
+        while (books.size() < count) {
+            books.add((long) random.nextInt(BOOKS));
+        }
+        return books;
+    }
+
+    // Latencies are bucketed by powers of two of microseconds.
+    private static long percentileMicros(AtomicLongArray buckets, double quantile) {
+        long total = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            total += buckets.get(i);
+        }
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= total * quantile) {
+                return 1L << i;
+            }
+        }
+        return -1;
+    }
+
+    private static final class Fast extends BaseSubscriber<BookAvailabilityEvent> {
+
+        private final long[] publishedAt;
+        private final AtomicLongArray latencyBuckets;
+        private volatile long received;
+
+        private Fast(long[] publishedAt, AtomicLongArray latencyBuckets) {
+            this.publishedAt = publishedAt;
+            this.latencyBuckets = latencyBuckets;
+        }
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        protected void hookOnNext(BookAvailabilityEvent event) {
+            long micros = Math.max(1, (System.nanoTime() - publishedAt[(int) event.getAvailableCopies()]) / 1000);
+            latencyBuckets.incrementAndGet(63 - Long.numberOfLeadingZeros(micros));
+            received++;
+        }
+    }
+
+    private static final class Slow extends BaseSubscriber<BookAvailabilityEvent> {
+
+        private final Map<Long, Long> lastEvent = new ConcurrentHashMap<>();
+        private volatile long received;
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+        }
+
+        @Override
+        protected void hookOnNext(BookAvailabilityEvent event) {
+            lastEvent.put(event.getBookId(), event.getAvailableCopies());
+            received++;
+        }
+    }
+}
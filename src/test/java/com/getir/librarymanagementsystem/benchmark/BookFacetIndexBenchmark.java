@@ -0,0 +1,78 @@
+package com.getir.librarymanagementsystem.benchmark;
+
+import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.search.BookFacetIndex;
+import com.getir.librarymanagementsystem.search.BookSearchIndex;
+import com.getir.librarymanagementsystem.search.FacetField;
+import com.getir.librarymanagementsystem.search.FacetedHits;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("benchmark")
+class BookFacetIndexBenchmark {
+
+    private static final int BOOKS = 1_000_000;
+    private static final int AUTHORS = 50_000;
+    private static final int QUERIES = 200;
+    private static final String[] GENRES = {
+            "Fantasy", "Sci-Fi", "Mystery", "Romance", "Horror", "History", "Poetry", "Biography", "Thriller", "Drama"};
+    private static final String[] WORDS = {
+            "dragon", "empire", "garden", "shadow", "river", "winter", "letters", "night", "crown", "stone",
+            "voyage", "silence", "machine", "island", "kingdom", "mirror", "forest", "storm", "secret", "city"};
+
+    @Test
+    void facetCountsOverTheWholeCatalog() {
+        Random random = new Random(11);
+        BookFacetIndex facetIndex = new BookFacetIndex();
+        BookSearchIndex searchIndex = new BookSearchIndex();
+        for (long id = 1; id <= BOOKS; id++) {
+            Book book = Book.builder()
+                    .id(id)
+                    .title(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)])
+                    .author("Author " + random.nextInt(AUTHORS))
+                    .genre(GENRES[random.nextInt(GENRES.length)])
+                    .publicationDate(LocalDate.of(1900 + random.nextInt(125), 1, 1))
+                    .available(random.nextBoolean())
+                    .build();
+            facetIndex.onBookSaved(book);
+            searchIndex.onBookSaved(book);
+        }
+
+        Map<FacetField, String> genreFilter = new EnumMap<>(FacetField.class);
+        genreFilter.put(FacetField.GENRE, "Fantasy");
+        genreFilter.put(FacetField.AVAILABLE, "true");
+
+        run("catalog, no filter", () -> facetIndex.search(Map.of(), null, 10, 20, null));
+        run("catalog, genre+available", () -> facetIndex.search(genreFilter, null, 10, 20, null));
+        run("keyword, genre+available", () -> {
+            Map<String, Float> terms = BookSearchIndex.queryTerms("dragon");
+            return facetIndex.search(genreFilter, searchIndex.matchingIds(terms), 10, 20,
+                    filter -> searchIndex.search(terms, 20, filter));
+        });
+    }
+
+    private static void run(String label, Supplier<FacetedHits> query) {
+        for (int i = 0; i < QUERIES / 4; i++) {
+            query.get();
+        }
+        long[] samples = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long start = System.nanoTime();
+            FacetedHits result = query.get();
+            samples[i] = System.nanoTime() - start;
+            assertTrue(result.hits().totalHits() > 0);
+        }
+        Arrays.sort(samples);
+        System.out.printf("%-28s p50 %6d us  p99 %6d us%n", label,
+                samples[QUERIES / 2] / 1000, samples[(int) (QUERIES * 0.99)] / 1000);
+    }
+}
@@ -0,0 +1,69 @@
+package com.getir.librarymanagementsystem.benchmark;
+
+import com.getir.librarymanagementsystem.importer.BookImportService;
+import com.getir.librarymanagementsystem.importer.ImportFormat;
+import com.getir.librarymanagementsystem.model.dto.response.BookImportResponse;
+import com.getir.librarymanagementsystem.repository.BookRepository;
+import com.getir.librarymanagementsystem.search.BookSearchIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Tag("benchmark")
+@ActiveProfiles("test")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class BookImportBenchmark {
+
+    private static final int[] IMPORT_SIZES = {10_000, 100_000};
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAllInBatch();
+        bookSearchIndex.clear();
+    }
+
+    @Test
+    void importThroughput() {
+        System.out.printf("%-10s %-12s %-12s%n", "rows", "elapsed ms", "rows/s");
+        long offset = 0;
+        for (int size : IMPORT_SIZES) {
+            byte[] csv = generateCsv(offset, size);
+            offset += size;
+
+            BookImportResponse response = bookImportService.importBooks(new ByteArrayInputStream(csv), ImportFormat.CSV);
+
+            assertEquals(size, response.getImported());
+            System.out.printf("%-10d %-12d %-12d%n", size, response.getElapsedMillis(),
+                    Math.round(response.getRowsPerSecond()));
+        }
+    }
+
+    private static byte[] generateCsv(long offset, int rows) {
+        StringBuilder csv = new StringBuilder(rows * 80).append("title,author,isbn,publicationDate,genre,available\n");
+        for (long i = offset; i < offset + rows; i++) {
+            csv.append("Book ").append(i).append(",Author ").append(i % 5_000)
+                    .append(",").append(9_780_000_000_000L + i)
+                    .append(",2001-01-").append(String.format("%02d", i % 28 + 1))
+                    .append(",Genre ").append(i % 40)
+                    .append(",true\n");
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,103 @@
+package com.getir.librarymanagementsystem.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Tag("benchmark")
+@ActiveProfiles("test")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class BookProjectionBenchmark {
+
+    private static final int CATALOG_SIZE = 20_000;
+    private static final int PAGE_SIZE = 500;
+    private static final int ROUNDS = 200;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        List<Book> books = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            books.add(Book.builder()
+                    .title("Book " + i)
+                    .author("Author " + i % 5_000)
+                    .isbn(String.valueOf(9_780_000_000_000L + i))
+                    .publicationDate(LocalDate.of(1950 + i % 70, 1, 1))
+                    .genre("Genre " + i % 40)
+                    .available(true)
+                    .build());
+        }
+        bookRepository.saveAll(books);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void projectionPagesAllocateLessThanEntityPages() {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        System.out.printf("%-22s %-12s %-14s%n", "path", "pages/s", "KB per page");
+        measure("entity (read-write)", () -> readWrite.execute(status -> serialize(
+                bookRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, PAGE_SIZE)))));
+        measure("entity (read-only)", () -> readOnly.execute(status -> serialize(
+                bookRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, PAGE_SIZE)))));
+        measure("projection", () -> readOnly.execute(status -> serialize(
+                bookRepository.findResponsePageByIdAfter(0L, PageRequest.of(0, PAGE_SIZE)))));
+    }
+
+    private void measure(String path, Supplier<Integer> page) {
+        for (int i = 0; i < ROUNDS / 4; i++) {
+            page.get();
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            assertEquals(PAGE_SIZE, page.get());
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        System.out.printf("%-22s %-12d %-14d%n", path, Math.round(ROUNDS / (elapsed / 1e9)), allocated / ROUNDS / 1024);
+    }
+
+    private int serialize(List<?> rows) {
+        try {
+            objectMapper.writeValueAsBytes(rows);
+            return rows.size();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
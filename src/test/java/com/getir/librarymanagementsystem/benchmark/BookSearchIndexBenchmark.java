@@ -0,0 +1,98 @@
+package com.getir.librarymanagementsystem.benchmark;
+
+import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.search.BookSearchIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@Tag("benchmark")
+class BookSearchIndexBenchmark {
+
+    private static final int[] CATALOG_SIZES = {10_000, 100_000, 500_000};
+    private static final int QUERIES = 2_000;
+
+    @Test
+    void searchLatencyStaysFlatAsCatalogGrows() {
+        System.out.printf("%-10s %-14s %-14s %-14s%n", "books", "index p50 us", "index p99 us", "scan p50 us");
+        for (int size : CATALOG_SIZES) {
+            Random random = new Random(42);
+            List<Book> catalog = generateCatalog(size, random);
+            BookSearchIndex index = new BookSearchIndex();
+            catalog.forEach(index::onBookSaved);
+
+            List<String> queries = new ArrayList<>(QUERIES);
+            for (int i = 0; i < QUERIES; i++) {
+                Book book = catalog.get(random.nextInt(size));
+                queries.add(i % 2 == 0 ? book.getAuthor() : book.getTitle());
+            }
+
+            // warm up
+            queries.forEach(query -> index.search(query, 20));
+
+            long[] indexed = new long[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                long start = System.nanoTime();
+                assertFalse(index.search(queries.get(i), 20).bookIds().isEmpty());
+                indexed[i] = System.nanoTime() - start;
+            }
+
+            int scans = Math.min(QUERIES, 50);
+            long[] scanned = new long[scans];
+            for (int i = 0; i < scans; i++) {
+                String keyword = queries.get(i).split(" ")[0].toLowerCase();
+                long start = System.nanoTime();
+                catalog.stream()
+                        .filter(b -> b.getTitle().toLowerCase().contains(keyword)
+                                || b.getAuthor().toLowerCase().contains(keyword))
+                        .toList();
+                scanned[i] = System.nanoTime() - start;
+            }
+
+            System.out.printf("%-10d %-14d %-14d %-14d%n", size,
+                    percentile(indexed, 0.50) / 1000, percentile(indexed, 0.99) / 1000, percentile(scanned, 0.50) / 1000);
+        }
+    }
+
+    private static List<Book> generateCatalog(int size, Random random) {
+        // Vocabulary grows with the catalog, as it does for real collections, so per-term posting lists stay short.
+        int vocabulary = Math.max(1_000, size / 10);
+        List<Book> catalog = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            String title = word(random.nextInt(vocabulary)) + " " + word(random.nextInt(vocabulary))
+                    + " " + word(random.nextInt(vocabulary));
+            String author = word(random.nextInt(vocabulary)) + " " + word(random.nextInt(vocabulary));
+            catalog.add(Book.builder()
+                    .id(id)
+                    .title(title)
+                    .author(author)
+                    .genre("genre" + random.nextInt(50))
+                    .isbn("isbn-" + id)
+                    .available(true)
+                    .build());
+        }
+        return catalog;
+    }
+
+    private static String word(int n) {
+        StringBuilder word = new StringBuilder();
+        do {
+            word.append((char) ('a' + n % 26));
+            n /= 26;
+        } while (n > 0);
+        return word.append("x").toString().toUpperCase(Locale.ROOT);
+    }
+
+    private static long percentile(long[] samples, double percentile) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(percentile * sorted.length))];
+    }
+}
@@ -0,0 +1,90 @@
+package com.getir.librarymanagementsystem.benchmark;
+
+import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.search.BookSuggestionIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("benchmark")
+class BookSuggestionIndexBenchmark {
+
+    private static final int BOOKS = 1_000_000;
+    private static final int QUERIES = 100_000;
+    private static final int THREADS = 8;
+    private static final String[] SYLLABLES = {
+            "ka", "lo", "mer", "vin", "sto", "ev", "sky", "tol", "an", "dre", "bro", "nte", "haw", "king",
+            "ros", "sel", "mi", "ra", "dun", "ber", "gal", "ith", "or", "wel", "pa", "tri", "cia", "ne"};
+
+    @Test
+    void suggestLatencyAndThroughput() throws Exception {
+        Random random = new Random(3);
+        BookSuggestionIndex index = new BookSuggestionIndex();
+        List<String> titles = new ArrayList<>(BOOKS);
+        for (long id = 1; id <= BOOKS; id++) {
+            String title = word(random) + " " + word(random) + " " + word(random);
+            titles.add(title);
+            index.onBookSaved(Book.builder().id(id).title(title).author(word(random) + " " + word(random)).build());
+        }
+        for (int i = 0; i < BOOKS; i++) {
+            index.onBorrowed(1L + random.nextInt(BOOKS));
+        }
+
+        String[] prefixes = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String title = titles.get(random.nextInt(BOOKS));
+            prefixes[i] = title.substring(0, 1 + random.nextInt(Math.min(12, title.length())));
+        }
+        for (String prefix : prefixes) {
+            index.suggest(prefix, 10);
+        }
+
+        long[] samples = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long start = System.nanoTime();
+            assertTrue(!index.suggest(prefixes[i], 10).isEmpty());
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        System.out.printf("suggest p50 %d ns, p99 %d ns, p99.9 %d ns%n",
+                samples[QUERIES / 2], samples[(int) (QUERIES * 0.99)], samples[(int) (QUERIES * 0.999)]);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t;
+            workers.add(pool.submit(() -> {
+                for (int i = offset; i < QUERIES; i += THREADS) {
+                    index.suggest(prefixes[i], 10);
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+        System.out.printf("%d threads: %d requests/s%n", THREADS, QUERIES * 1_000_000_000L / elapsed);
+    }
+
+    private static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        int syllables = 2 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,95 @@
+package com.getir.librarymanagementsystem.benchmark;
+
+import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.search.BookSearchIndex;
+import com.getir.librarymanagementsystem.search.BookTrigramIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@Tag("benchmark")
+class BookTrigramIndexBenchmark {
+
+    private static final int BOOKS = 1_000_000;
+    private static final int VOCABULARY = 200_000;
+    private static final int QUERIES = 2_000;
+    private static final String[] SYLLABLES = {
+            "ka", "lo", "mer", "vin", "sto", "ev", "sky", "tol", "an", "dre", "bro", "nte", "haw", "king",
+            "ros", "sel", "mi", "ra", "dun", "ber", "gal", "ith", "or", "wel", "pa", "tri", "cia", "ne"};
+
+    @Test
+    void fuzzySearchStaysInSingleDigitMilliseconds() {
+        Random random = new Random(7);
+        String[] words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            words[i] = word(random);
+        }
+
+        BookSearchIndex searchIndex = new BookSearchIndex();
+        BookTrigramIndex trigramIndex = new BookTrigramIndex();
+        for (long id = 1; id <= BOOKS; id++) {
+            Book book = Book.builder()
+                    .id(id)
+                    .title(words[random.nextInt(VOCABULARY)] + " " + words[random.nextInt(VOCABULARY)])
+                    .author(words[random.nextInt(VOCABULARY)] + " " + words[random.nextInt(VOCABULARY)])
+                    .genre("Fiction")
+                    .build();
+            searchIndex.onBookSaved(book);
+            trigramIndex.onBookSaved(book);
+        }
+
+        String[] queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = misspell(words[random.nextInt(VOCABULARY)], random);
+        }
+        for (String query : queries) {
+            searchIndex.search(trigramIndex.expand(query), 20);
+        }
+
+        long[] expansion = new long[QUERIES];
+        long[] total = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long start = System.nanoTime();
+            Map<String, Float> terms = trigramIndex.expand(queries[i]);
+            long expanded = System.nanoTime();
+            searchIndex.search(terms, 20);
+            long end = System.nanoTime();
+            assertFalse(terms.isEmpty());
+            expansion[i] = expanded - start;
+            total[i] = end - start;
+        }
+
+        System.out.printf("books %d, vocabulary %d%n", BOOKS, trigramIndex.vocabularySize());
+        System.out.printf("expand p50 %d us, p99 %d us%n", percentile(expansion, 0.50) / 1000, percentile(expansion, 0.99) / 1000);
+        System.out.printf("fuzzy search p50 %d us, p99 %d us%n", percentile(total, 0.50) / 1000, percentile(total, 0.99) / 1000);
+    }
+
+    private static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        int syllables = 2 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    private static String misspell(String word, Random random) {
+        char[] chars = word.toCharArray();
+        int i = random.nextInt(chars.length - 1);
+        char swapped = chars[i];
+        chars[i] = chars[i + 1];
+        chars[i + 1] = swapped;
+        return new String(chars);
+    }
+
+    private static long percentile(long[] samples, double percentile) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(percentile * (sorted.length - 1)))];
+    }
+}
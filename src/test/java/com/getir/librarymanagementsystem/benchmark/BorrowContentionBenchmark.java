@@ -0,0 +1,134 @@
+package com.getir.librarymanagementsystem.benchmark;
+
+import com.getir.librarymanagementsystem.model.dto.request.BorrowRequest;
+import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.model.entity.Role;
+import com.getir.librarymanagementsystem.model.entity.User;
+import com.getir.librarymanagementsystem.repository.BookCopyStripeRepository;
+import com.getir.librarymanagementsystem.repository.BookRepository;
+import com.getir.librarymanagementsystem.repository.BorrowRepository;
+import com.getir.librarymanagementsystem.repository.UserRepository;
+import com.getir.librarymanagementsystem.service.BookService;
+import com.getir.librarymanagementsystem.service.BookUnavailableException;
+import com.getir.librarymanagementsystem.service.BorrowService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Tag("benchmark")
+@ActiveProfiles("test")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class BorrowContentionBenchmark {
+
+    private static final int TITLES = 200;
+    private static final int COPIES_PER_TITLE = 10;
+    private static final int[] BORROWERS_PER_TITLE = {1, 4, 16, 64};
+    private static final int THREADS = 32;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookCopyStripeRepository bookCopyStripeRepository;
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        borrowRepository.deleteAllInBatch();
+        bookCopyStripeRepository.deleteAllInBatch();
+        bookRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void borrowersNeverTakeMoreCopiesThanEachTitleHas() throws Exception {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < BORROWERS_PER_TITLE[BORROWERS_PER_TITLE.length - 1]; i++) {
+            users.add(User.builder().username("borrower" + i).password("x").role(Role.PATRON).build());
+        }
+        userRepository.saveAll(users);
+
+        System.out.printf("%-18s %-10s %-10s %-10s %-14s%n", "borrowers/title", "attempts", "won", "rejected", "attempts/s");
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int borrowers : BORROWERS_PER_TITLE) {
+                borrowRepository.deleteAllInBatch();
+                bookCopyStripeRepository.deleteAllInBatch();
+                bookRepository.deleteAllInBatch();
+                List<Book> books = new ArrayList<>(TITLES);
+                for (int i = 0; i < TITLES; i++) {
+                    books.add(bookService.save(Book.builder().title("Hot title " + i).isbn("contention-" + borrowers + "-" + i)
+                            .available(true).totalCopies(COPIES_PER_TITLE).build()));
+                }
+
+                AtomicInteger won = new AtomicInteger();
+                AtomicInteger rejected = new AtomicInteger();
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> attempts = new ArrayList<>(TITLES * borrowers);
+                for (Book book : books) {
+                    for (int b = 0; b < borrowers; b++) {
+                        String username = users.get(b).getUsername();
+                        attempts.add(pool.submit(() -> {
+                            start.await();
+                            BorrowRequest request = new BorrowRequest();
+                            request.setBookId(book.getId());
+                            request.setBorrowDate(LocalDate.now());
+                            try {
+                                borrowService.borrowBook(request, new UsernamePasswordAuthenticationToken(username, null));
+                                won.incrementAndGet();
+                            } catch (BookUnavailableException e) {
+                                rejected.incrementAndGet();
+                            }
+                            return null;
+                        }));
+                    }
+                }
+
+                long begin = System.nanoTime();
+                start.countDown();
+                for (Future<?> attempt : attempts) {
+                    attempt.get();
+                }
+                long elapsed = System.nanoTime() - begin;
+
+                int expected = TITLES * Math.min(borrowers, COPIES_PER_TITLE);
+                assertEquals(expected, won.get());
+                assertEquals(expected, borrowRepository.count());
+                assertEquals(TITLES * COPIES_PER_TITLE - expected,
+                        bookRepository.findAll().stream().mapToInt(Book::getAvailableCopies).sum());
+                assertEquals(borrowers < COPIES_PER_TITLE ? TITLES : 0,
+                        bookRepository.findAll().stream().filter(Book::isAvailable).count());
+                System.out.printf("%-18d %-10d %-10d %-10d %-14d%n", borrowers, attempts.size(), won.get(),
+                        rejected.get(), Math.round(attempts.size() / (elapsed / 1e9)));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
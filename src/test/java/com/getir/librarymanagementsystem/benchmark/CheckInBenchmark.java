@@ -0,0 +1,120 @@
+package com.getir.librarymanagementsystem.benchmark;
+
+import com.getir.librarymanagementsystem.model.dto.request.BatchReturnRequest;
+import com.getir.librarymanagementsystem.model.dto.response.BatchReturnResponse;
+import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.model.entity.Borrow;
+import com.getir.librarymanagementsystem.model.entity.Role;
+import com.getir.librarymanagementsystem.model.entity.User;
+import com.getir.librarymanagementsystem.repository.BookCopyStripeRepository;
+import com.getir.librarymanagementsystem.repository.BookRepository;
+import com.getir.librarymanagementsystem.repository.BorrowRepository;
+import com.getir.librarymanagementsystem.repository.UserRepository;
+import com.getir.librarymanagementsystem.service.BookInventoryService;
+import com.getir.librarymanagementsystem.service.BorrowService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Tag("benchmark")
+@ActiveProfiles("test")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class CheckInBenchmark {
+
+    private static final int TITLES = 2_000;
+    private static final int COPIES_PER_TITLE = 5;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookCopyStripeRepository bookCopyStripeRepository;
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookInventoryService bookInventory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        borrowRepository.deleteAllInBatch();
+        bookCopyStripeRepository.deleteAllInBatch();
+        bookRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void checkInTenThousandReturns() {
+        User patron = userRepository.save(User.builder().username("drop-box").password("x").role(Role.PATRON).build());
+        System.out.printf("%-10s %-10s %-10s %-12s%n", "keyed by", "returns", "ms", "returns/s");
+        run("borrow id", patron, borrows -> {
+            BatchReturnRequest request = new BatchReturnRequest();
+            request.setBorrowIds(borrows.stream().map(Borrow::getId).toList());
+            return request;
+        });
+        run("isbn", patron, borrows -> {
+            BatchReturnRequest request = new BatchReturnRequest();
+            request.setIsbns(borrows.stream().map(borrow -> borrow.getBook().getIsbn()).toList());
+            return request;
+        });
+    }
+
+    private void run(String keyedBy, User patron, Function<List<Borrow>, BatchReturnRequest> request) {
+        borrowRepository.deleteAllInBatch();
+        bookCopyStripeRepository.deleteAllInBatch();
+        bookRepository.deleteAllInBatch();
+
+        List<Book> books = new ArrayList<>(TITLES);
+        for (int i = 0; i < TITLES; i++) {
+            Book book = Book.builder().title("Title " + i).isbn("drop-box-" + i).available(false)
+                    .totalCopies(COPIES_PER_TITLE).build();
+            BookInventoryService.prepare(book);
+            book.setAvailable(false);
+            books.add(book);
+        }
+        bookRepository.saveAll(books);
+        bookInventory.stock(books);
+        // Every copy is out.
+        jdbcTemplate.update("update book_copy_stripes set available_copies = 0");
+
+        List<Borrow> borrows = new ArrayList<>(TITLES * COPIES_PER_TITLE);
+        for (Book book : books) {
+            for (int copy = 0; copy < COPIES_PER_TITLE; copy++) {
+                borrows.add(Borrow.builder().user(patron).book(book).borrowDate(LocalDate.now().minusDays(copy))
+                        .copyStripe(copy % book.getCopyStripes()).build());
+            }
+        }
+        borrowRepository.saveAll(borrows);
+
+        BatchReturnResponse response = borrowService.checkIn(request.apply(borrows));
+
+        assertEquals(borrows.size(), response.getReturned());
+        assertEquals(0, response.getFailed());
+        assertEquals(TITLES * COPIES_PER_TITLE,
+                bookRepository.findAll().stream().mapToInt(Book::getAvailableCopies).sum());
+        assertEquals(TITLES, bookRepository.findAll().stream().filter(Book::isAvailable).count());
+        System.out.printf("%-10s %-10d %-10d %-12d%n", keyedBy, response.getReturned(), response.getElapsedMillis(),
+                Math.round(response.getReturnsPerSecond()));
+    }
+}
@@ -0,0 +1,74 @@
+package com.getir.librarymanagementsystem.benchmark;
+
+import com.getir.librarymanagementsystem.journal.CirculationEventType;
+import com.getir.librarymanagementsystem.journal.CirculationJournal;
+import com.getir.librarymanagementsystem.journal.CirculationRecord;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Tag("benchmark")
+class CirculationJournalBenchmark {
+
+    private static final int RECORDS = 2_000_000;
+    private static final int[] THREADS = {1, 4, 16};
+    private static final LocalDate BORROWED_ON = LocalDate.of(2025, 6, 1);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendAndReplayThroughput() throws InterruptedException {
+        System.out.printf("%-8s %-14s %-12s %-14s %-10s%n",
+                "threads", "appends/s", "flushes", "replays/s", "segments");
+        for (int threads : THREADS) {
+            Path dir = directory.resolve("threads-" + threads);
+            CirculationJournal journal = new CirculationJournal(dir, 64L * 1024 * 1024, 65536);
+            try {
+                int perThread = RECORDS / threads;
+                List<Thread> writers = new ArrayList<>();
+                long started = System.nanoTime();
+                for (int t = 0; t < threads; t++) {
+                    long offset = (long) t * perThread;
+                    Thread writer = new Thread(() -> {
+                        for (long i = 1; i <= perThread; i++) {
+                            journal.append(borrowed(offset + i, (offset + i) % 5000));
+                        }
+                    });
+                    writers.add(writer);
+                    writer.start();
+                }
+                for (Thread writer : writers) {
+                    writer.join();
+                }
+                journal.sync();
+                double appendSeconds = (System.nanoTime() - started) / 1e9;
+
+                AtomicLong last = new AtomicLong();
+                started = System.nanoTime();
+                long replayed = journal.replay(record -> last.set(record.sequence()));
+                double replaySeconds = (System.nanoTime() - started) / 1e9;
+
+                assertEquals((long) perThread * threads, replayed);
+                assertEquals(replayed, last.get());
+                System.out.printf("%-8d %-14.0f %-12d %-14.0f %-10d%n", threads, replayed / appendSeconds,
+                        journal.flushCount(), replayed / replaySeconds, journal.segmentCount());
+            } finally {
+                journal.close();
+            }
+        }
+    }
+
+    private static CirculationRecord borrowed(long borrowId, long bookId) {
+        return new CirculationRecord(0, System.currentTimeMillis(), CirculationEventType.BORROWED, borrowId, bookId,
+                7, BORROWED_ON, BORROWED_ON.plusDays(14), 3);
+    }
+}
@@ -0,0 +1,90 @@
+package com.getir.librarymanagementsystem.benchmark;
+
+import com.getir.librarymanagementsystem.reminder.DueDateReminderScheduler;
+import com.getir.librarymanagementsystem.reminder.MutableClock;
+import com.getir.librarymanagementsystem.repository.BorrowReminder;
+import com.getir.librarymanagementsystem.repository.BorrowRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Tag("benchmark")
+class DueDateReminderBenchmark {
+
+    private static final int[] OPEN_LOANS = {100_000, 1_000_000, 3_000_000};
+    private static final int LOAN_DAYS = 28;
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    @Test
+    void memoryPerReminderAndTickCostStayFlatAsLoansGrow() {
+        System.out.printf("%-10s %-14s %-14s %-12s %-14s %-14s%n",
+                "loans", "schedules/s", "heap B/loan", "estimate B", "tick p99 us", "tick max ms");
+        for (int loans : OPEN_LOANS) {
+            Random random = new Random(42);
+            LocalDate[] dueDates = new LocalDate[loans + 1];
+            long expected = 0;
+            for (int id = 1; id <= loans; id++) {
+                dueDates[id] = START.plusDays(1 + random.nextInt(LOAN_DAYS));
+                expected += dueDates[id].isAfter(START.plusDays(1)) ? 2 : 1;
+            }
+
+            BorrowRepository borrowRepository = mock(BorrowRepository.class);
+            when(borrowRepository.findRemindersByIdIn(anyList())).thenAnswer(invocation -> {
+                Collection<Long> ids = invocation.getArgument(0);
+                return ids.stream().map(id -> new BorrowReminder(id, "patron", null, "Book",
+                        dueDates[id.intValue()], false)).toList();
+            });
+            AtomicLong sent = new AtomicLong();
+            MutableClock clock = new MutableClock(START.atStartOfDay().toInstant(ZoneOffset.UTC));
+            DueDateReminderScheduler scheduler = new DueDateReminderScheduler(borrowRepository,
+                    reminders -> sent.addAndGet(reminders.size()), clock, 2, LocalTime.of(9, 0), 500, 60);
+
+            long heapBefore = usedHeap();
+            long begin = System.nanoTime();
+            for (int id = 1; id <= loans; id++) {
+                scheduler.schedule((long) id, dueDates[id]);
+            }
+            long scheduling = System.nanoTime() - begin;
+            long heapAfter = usedHeap();
+
+            Instant end = START.plusDays(LOAN_DAYS + 2L).atStartOfDay().toInstant(ZoneOffset.UTC);
+            long[] ticks = new long[(int) Duration.between(clock.instant(), end).toMinutes()];
+            for (int i = 0; i < ticks.length; i++) {
+                clock.set(clock.instant().plus(Duration.ofMinutes(1)));
+                long start = System.nanoTime();
+                scheduler.tick();
+                ticks[i] = System.nanoTime() - start;
+            }
+
+            assertEquals(expected, sent.get());
+            assertEquals(0, scheduler.pendingCount());
+            Arrays.sort(ticks);
+            System.out.printf("%-10d %-14d %-14d %-12d %-14d %-14d%n", loans,
+                    Math.round(loans / (scheduling / 1e9)), (heapAfter - heapBefore) / loans,
+                    DueDateReminderScheduler.ESTIMATED_BYTES_PER_REMINDER,
+                    ticks[(int) (ticks.length * 0.99)] / 1000, ticks[ticks.length - 1] / 1_000_000);
+        }
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
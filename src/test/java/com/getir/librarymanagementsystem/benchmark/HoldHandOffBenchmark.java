@@ -0,0 +1,167 @@
+package com.getir.librarymanagementsystem.benchmark;
+
+import com.getir.librarymanagementsystem.model.dto.request.BorrowRequest;
+import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.model.entity.Hold;
+import com.getir.librarymanagementsystem.model.entity.HoldStatus;
+import com.getir.librarymanagementsystem.model.entity.Role;
+import com.getir.librarymanagementsystem.model.entity.User;
+import com.getir.librarymanagementsystem.repository.BookCopyStripeRepository;
+import com.getir.librarymanagementsystem.repository.BookRepository;
+import com.getir.librarymanagementsystem.repository.BorrowRepository;
+import com.getir.librarymanagementsystem.repository.HoldRepository;
+import com.getir.librarymanagementsystem.repository.UserRepository;
+import com.getir.librarymanagementsystem.service.BookService;
+import com.getir.librarymanagementsystem.service.BorrowService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Every measured return claims the head of a hold queue and turns it into a borrow.
+@Tag("benchmark")
+@ActiveProfiles("test")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class HoldHandOffBenchmark {
+
+    private static final int TITLES = 2000;
+    private static final int QUEUE_DEPTH = 100;
+    private static final int HANDOFFS_PER_TITLE = 10;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookCopyStripeRepository bookCopyStripeRepository;
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        holdRepository.deleteAllInBatch();
+        borrowRepository.deleteAllInBatch();
+        bookCopyStripeRepository.deleteAllInBatch();
+        bookRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void returnsHandTheCopyToTheOldestHold() throws Exception {
+        List<User> users = new ArrayList<>(QUEUE_DEPTH + 1);
+        for (int i = 0; i <= QUEUE_DEPTH; i++) {
+            users.add(User.builder().username("holder" + i).password("x").role(Role.PATRON).build());
+        }
+        userRepository.saveAll(users);
+
+        List<Book> books = new ArrayList<>(TITLES);
+        for (int i = 0; i < TITLES; i++) {
+            books.add(bookService.save(Book.builder().title("Waitlisted " + i).isbn("hold-" + i)
+                    .available(true).totalCopies(1).build()));
+        }
+        List<Long> firstBorrows = new ArrayList<>(TITLES);
+        for (Book book : books) {
+            BorrowRequest request = new BorrowRequest();
+            request.setBookId(book.getId());
+            request.setBorrowDate(LocalDate.now());
+            firstBorrows.add(borrowService.borrowBook(request, authentication(users.get(0))).getId());
+        }
+
+        long started = System.nanoTime();
+        Instant placed = Instant.now();
+        List<List<Hold>> queues = new ArrayList<>(TITLES);
+        List<Hold> holds = new ArrayList<>(TITLES * QUEUE_DEPTH);
+        for (int i = 0; i < TITLES; i++) {
+            List<Hold> queue = new ArrayList<>(QUEUE_DEPTH);
+            for (int position = 1; position <= QUEUE_DEPTH; position++) {
+                queue.add(Hold.builder().user(users.get(position)).book(books.get(i)).status(HoldStatus.WAITING)
+                        .placedAt(placed.plusMillis(position)).build());
+            }
+            queues.add(queue);
+            holds.addAll(queue);
+        }
+        holdRepository.saveAll(holds);
+        System.out.printf("Queued %d holds in %d ms%n", holds.size(), (System.nanoTime() - started) / 1_000_000);
+
+        long[] latencies = new long[TITLES * HANDOFFS_PER_TITLE];
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> chains = new ArrayList<>(TITLES);
+            for (int t = 0; t < TITLES; t++) {
+                int title = t;
+                chains.add(pool.submit(() -> {
+                    start.await();
+                    Long borrowId = firstBorrows.get(title);
+                    User holder = users.get(0);
+                    for (int k = 0; k < HANDOFFS_PER_TITLE; k++) {
+                        long begin = System.nanoTime();
+                        borrowService.returnBook(borrowId, authentication(holder));
+                        latencies[title * HANDOFFS_PER_TITLE + k] = System.nanoTime() - begin;
+
+                        Hold served = holdRepository.findById(queues.get(title).get(k).getId()).orElseThrow();
+                        assertEquals(HoldStatus.FULFILLED, served.getStatus());
+                        borrowId = served.getBorrowId();
+                        holder = users.get(k + 1);
+                    }
+                    return null;
+                }));
+            }
+
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> chain : chains) {
+                chain.get();
+            }
+            long elapsed = System.nanoTime() - begin;
+
+            Arrays.sort(latencies);
+            System.out.printf("%-10s %-10s %-14s %-10s %-10s %-10s%n",
+                    "holds", "handoffs", "handoffs/s", "p50 ms", "p99 ms", "max ms");
+            System.out.printf("%-10d %-10d %-14d %-10.2f %-10.2f %-10.2f%n", holds.size(), latencies.length,
+                    Math.round(latencies.length / (elapsed / 1e9)), percentile(latencies, 0.50),
+                    percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals((long) TITLES * (HANDOFFS_PER_TITLE + 1), borrowRepository.count());
+        assertEquals(0, bookRepository.findAll().stream().mapToInt(Book::getAvailableCopies).sum());
+    }
+
+    private static UsernamePasswordAuthenticationToken authentication(User user) {
+        return new UsernamePasswordAuthenticationToken(user.getUsername(), null);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * quantile))] / 1e6;
+    }
+}
@@ -0,0 +1,131 @@
+package com.getir.librarymanagementsystem.cluster;
+
+import com.getir.librarymanagementsystem.model.dto.event.BookAvailabilityEvent;
+import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.repository.BookRepository;
+import com.getir.librarymanagementsystem.service.BookAvailabilityPublisher;
+import com.getir.librarymanagementsystem.service.BookChangeListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ClusterEventBusTest {
+
+    private LoopbackClusterTransport transport;
+    private Node first;
+    private Node second;
+
+    @BeforeEach
+    void setUp() {
+        transport = new LoopbackClusterTransport();
+        first = new Node("first");
+        second = new Node("second");
+    }
+
+    @AfterEach
+    void tearDown() {
+        first.subscription.dispose();
+        second.subscription.dispose();
+    }
+
+    @Test
+    void whenAvailabilityIsPublished_thenSubscribersOnEveryNodeReceiveIt() {
+        first.bus.publishAvailability(List.of(update(1, 7L, 0)));
+
+        assertEquals(1, first.received.size());
+        assertEquals(1, second.received.size());
+        assertEquals(0, second.received.get(0).getAvailableCopies());
+        // The sending node already told its own caches; the others learn about it from the bus.
+        assertTrue(first.listener.availability.isEmpty());
+        assertEquals(List.of(7L), second.listener.availability);
+    }
+
+    @Test
+    void whenAnEventIsRedeliveredOrLate_thenItIsDropped() {
+        first.bus.publishAvailability(List.of(update(1, 7L, 2), update(3, 7L, 0)));
+        second.bus.publishAvailability(List.of(update(3, 7L, 0), update(2, 7L, 1)));
+
+        assertEquals(List.of(2L, 0L), second.received.stream().map(BookAvailabilityEvent::getAvailableCopies).toList());
+        assertEquals(2, second.bus.stats().getStaleEvents());
+    }
+
+    @Test
+    void whenAMessageArrivesTwice_thenItIsAppliedOnce() {
+        ClusterMessage message = new ClusterMessage("elsewhere", 1, List.of(update(1, 7L, 0)), List.of(), List.of());
+
+        transport.send(message);
+        transport.send(message);
+
+        assertEquals(1, second.received.size());
+        assertEquals(1, second.bus.stats().getDuplicateMessages());
+    }
+
+    @Test
+    void whenBooksChange_thenOtherNodesGetOneBatchedInvalidationPerBook() {
+        Book book = Book.builder().id(5L).title("Dune").isbn("dune").build();
+        when(second.bookRepository.findAllById(anyIterable())).thenReturn(List.of(book));
+
+        first.bus.bookChanged(5L);
+        first.bus.bookChanged(5L);
+        first.bus.bookDeleted(6L);
+        first.bus.bookChanged(6L);
+        first.bus.flush();
+
+        assertEquals(List.of(5L), second.listener.saved);
+        assertEquals(List.of(6L), second.listener.deleted);
+        assertTrue(first.listener.saved.isEmpty());
+        assertEquals(2, first.bus.stats().getInvalidationsSent());
+        assertEquals(2, first.bus.stats().getInvalidationsCoalesced());
+        assertEquals(2, first.bus.stats().getMessagesSent());
+    }
+
+    private static AvailabilityUpdate update(long outboxId, Long bookId, long copies) {
+        return new AvailabilityUpdate(outboxId, new BookAvailabilityEvent(bookId, copies > 0, copies));
+    }
+
+    private final class Node {
+
+        private final BookAvailabilityPublisher publisher = new BookAvailabilityPublisher();
+        private final BookRepository bookRepository = mock(BookRepository.class);
+        private final RecordingListener listener = new RecordingListener();
+        private final List<BookAvailabilityEvent> received = new CopyOnWriteArrayList<>();
+        private final Disposable subscription = publisher.getStream().subscribe(received::add);
+        private final ClusterEventBus bus;
+
+        private Node(String name) {
+            bus = new ClusterEventBus(transport, publisher, bookRepository, List.of(listener), name, 50);
+        }
+    }
+
+    private static final class RecordingListener implements BookChangeListener {
+
+        private final List<Long> saved = new CopyOnWriteArrayList<>();
+        private final List<Long> deleted = new CopyOnWriteArrayList<>();
+        private final List<Long> availability = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onBookSaved(Book book) {
+            saved.add(book.getId());
+        }
+
+        @Override
+        public void onBookDeleted(Long bookId) {
+            deleted.add(bookId);
+        }
+
+        @Override
+        public void onAvailabilityChanged(Long bookId, boolean available) {
+            availability.add(bookId);
+        }
+    }
+}
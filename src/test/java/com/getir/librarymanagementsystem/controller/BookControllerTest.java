@@ -1,13 +1,25 @@
 package com.getir.librarymanagementsystem.controller;
 
+import com.getir.librarymanagementsystem.cache.BookResponseCache;
+import com.getir.librarymanagementsystem.model.dto.pagination.BookSortField;
+import com.getir.librarymanagementsystem.model.dto.pagination.KeysetCursor;
+import com.getir.librarymanagementsystem.model.dto.pagination.KeysetPage;
+import com.getir.librarymanagementsystem.model.dto.response.BookCacheStatsResponse;
+import com.getir.librarymanagementsystem.model.dto.response.BookResponse;
+import com.getir.librarymanagementsystem.model.dto.response.FacetCount;
+import com.getir.librarymanagementsystem.model.dto.response.FacetedSearchResponse;
+import com.getir.librarymanagementsystem.model.dto.response.SuggestionResponse;
 import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.search.FacetField;
 import com.getir.librarymanagementsystem.service.BookService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
@@ -15,12 +27,18 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -39,6 +57,14 @@ class BookControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private BookResponseCache bookResponseCache;
+
+    @BeforeEach
+    void setUp() {
+        bookResponseCache.clear();
+    }
+
     @Test
     @WithMockUser(roles = "LIBRARIAN")
     void save_shouldReturnSavedBook() throws Exception {
@@ -97,6 +123,63 @@ class BookControllerTest {
                 .andExpect(jsonPath("$.title").value("Existing Book"));
     }
 
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void findById_withMatchingETag_shouldReturnNotModifiedFromCache() throws Exception {
+        Book book = new Book();
+        book.setId(1L);
+        book.setTitle("Existing Book");
+        book.setVersion(3L);
+        when(bookService.findById(1L)).thenReturn(Optional.of(book));
+
+        String etag = mockMvc.perform(get("/api/books/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3-0\""))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/books/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(bookService, times(1)).findById(1L);
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void findById_afterBookChange_shouldRenderNewVersion() throws Exception {
+        Book book = new Book();
+        book.setId(1L);
+        book.setTitle("Existing Book");
+        book.setVersion(3L);
+        when(bookService.findById(1L)).thenReturn(Optional.of(book));
+        mockMvc.perform(get("/api/books/1")).andExpect(status().isOk());
+
+        book.setVersion(4L);
+        bookResponseCache.onAvailabilityChanged(1L, false);
+
+        mockMvc.perform(get("/api/books/1").header("If-None-Match", "\"1-3-0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-4-0\""));
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void findById_afterCopyBorrowed_shouldRenderNewETag() throws Exception {
+        Book book = new Book();
+        book.setId(1L);
+        book.setVersion(3L);
+        book.setAvailableCopies(5);
+        when(bookService.findById(1L)).thenReturn(Optional.of(book));
+        mockMvc.perform(get("/api/books/1")).andExpect(header().string("ETag", "\"1-3-5\""));
+
+        book.setAvailableCopies(4);
+        bookResponseCache.onAvailabilityChanged(1L, true);
+
+        mockMvc.perform(get("/api/books/1").header("If-None-Match", "\"1-3-5\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3-4\""))
+                .andExpect(jsonPath("$.availableCopies").value(4));
+    }
+
     @Test
     @WithMockUser(roles = "LIBRARIAN")
     void findById_shouldReturnNotFoundWhenNotExists() throws Exception {
@@ -109,38 +192,168 @@ class BookControllerTest {
     @Test
     @WithMockUser(roles = "LIBRARIAN")
     void findAll_shouldReturnAllBooks() throws Exception {
-        Book book1 = new Book();
+        BookResponse book1 = new BookResponse();
         book1.setId(1L);
-        Book book2 = new Book();
+        BookResponse book2 = new BookResponse();
         book2.setId(2L);
-        List<Book> books = Arrays.asList(book1, book2);
+        List<BookResponse> books = Arrays.asList(book1, book2);
 
-        when(bookService.findAll()).thenReturn(books);
+        when(bookService.findPage(eq(BookSortField.ID), isNull(), eq(50), eq(false)))
+                .thenReturn(new KeysetPage<>(books, "next", null));
 
         mockMvc.perform(get("/api/books"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$.length()").value(2))
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[1].id").value(2));
     }
 
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void findAll_withMatchingETag_shouldReturnNotModifiedFromCache() throws Exception {
+        BookResponse book = new BookResponse();
+        book.setId(1L);
+        when(bookService.findPage(eq(BookSortField.ID), isNull(), eq(50), eq(false)))
+                .thenReturn(new KeysetPage<>(List.of(book), null, null));
+
+        String etag = mockMvc.perform(get("/api/books"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/books").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        verify(bookService, times(1)).findPage(eq(BookSortField.ID), isNull(), eq(50), eq(false));
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void findAll_shouldRejectUnknownSort() throws Exception {
+        mockMvc.perform(get("/api/books").param("sort", "isbn"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void findAll_shouldRejectCursorOfAnotherSort() throws Exception {
+        String cursor = new KeysetCursor("ID", 10L, null).encode();
+
+        mockMvc.perform(get("/api/books").param("sort", "title").param("after", cursor))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser(roles = "LIBRARIAN")
     void search_shouldReturnMatchingBooks() throws Exception {
-        Book book = new Book();
+        BookResponse book = new BookResponse();
         book.setId(1L);
         book.setTitle("Matching Book");
-        List<Book> books = List.of(book);
+        List<BookResponse> books = List.of(book);
 
-        when(bookService.search(anyString())).thenReturn(books);
+        when(bookService.search(anyString(), anyInt(), anyInt(), eq(false))).thenReturn(new PageImpl<>(books));
 
         mockMvc.perform(get("/api/books/search")
                         .param("keyword", "match"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"))
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$.length()").value(1))
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].title").value("Matching Book"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void search_withFuzzy_shouldUseFuzzyMode() throws Exception {
+        BookResponse book = new BookResponse();
+        book.setId(1L);
+        book.setTitle("Crime and Punishment");
+
+        when(bookService.search(eq("dostoevksy"), eq(0), eq(20), eq(true))).thenReturn(new PageImpl<>(List.of(book)));
+
+        mockMvc.perform(get("/api/books/search")
+                        .param("keyword", "dostoevksy")
+                        .param("fuzzy", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Crime and Punishment"));
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void facetedSearch_shouldPassFiltersAndReturnFacets() throws Exception {
+        BookResponse book = new BookResponse();
+        book.setId(1L);
+        book.setTitle("The Hobbit");
+        FacetedSearchResponse response = FacetedSearchResponse.builder()
+                .hits(List.of(book))
+                .totalHits(1)
+                .page(0)
+                .size(20)
+                .facets(Map.of("genre", List.of(new FacetCount("Fantasy", 1))))
+                .build();
+
+        when(bookService.facetedSearch(eq("hobbit"), eq(false),
+                eq(Map.of(FacetField.GENRE, "Fantasy", FacetField.YEAR, "1937")), eq(0), eq(20), eq(10)))
+                .thenReturn(response);
+
+        mockMvc.perform(get("/api/books/search/faceted")
+                        .param("keyword", "hobbit")
+                        .param("genre", "Fantasy")
+                        .param("year", "1937"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalHits").value(1))
+                .andExpect(jsonPath("$.hits[0].title").value("The Hobbit"))
+                .andExpect(jsonPath("$.facets.genre[0].value").value("Fantasy"))
+                .andExpect(jsonPath("$.facets.genre[0].count").value(1));
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void suggest_shouldReturnCompletions() throws Exception {
+        SuggestionResponse suggestion = SuggestionResponse.builder()
+                .text("The Hobbit")
+                .type("title")
+                .borrowCount(12)
+                .bookCount(1)
+                .build();
+        when(bookService.suggest("hob", 5)).thenReturn(List.of(suggestion));
+
+        mockMvc.perform(get("/api/books/suggest")
+                        .param("prefix", "hob")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].text").value("The Hobbit"))
+                .andExpect(jsonPath("$[0].type").value("title"))
+                .andExpect(jsonPath("$[0].borrowCount").value(12));
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void suggest_withTooLargeLimit_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/books/suggest")
+                        .param("prefix", "hob")
+                        .param("limit", "50"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void cacheStats_shouldReturnCounters() throws Exception {
+        BookCacheStatsResponse stats = BookCacheStatsResponse.builder()
+                .size(2)
+                .maximumSize(10000)
+                .hits(3)
+                .misses(1)
+                .hitRate(0.75)
+                .build();
+        when(bookService.cacheStats()).thenReturn(stats);
+
+        mockMvc.perform(get("/api/books/cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(2))
+                .andExpect(jsonPath("$.hits").value(3))
+                .andExpect(jsonPath("$.hitRate").value(0.75));
+    }
+}
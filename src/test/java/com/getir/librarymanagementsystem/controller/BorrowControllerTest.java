@@ -1,6 +1,14 @@
 package com.getir.librarymanagementsystem.controller;
 
+import com.getir.librarymanagementsystem.model.dto.pagination.BorrowSortField;
+import com.getir.librarymanagementsystem.model.dto.pagination.KeysetPage;
+import com.getir.librarymanagementsystem.model.dto.request.BatchBorrowRequest;
+import com.getir.librarymanagementsystem.model.dto.request.BatchReturnRequest;
 import com.getir.librarymanagementsystem.model.dto.request.BorrowRequest;
+import com.getir.librarymanagementsystem.model.dto.response.BatchBorrowItem;
+import com.getir.librarymanagementsystem.model.dto.response.BatchBorrowResponse;
+import com.getir.librarymanagementsystem.model.dto.response.BatchItemStatus;
+import com.getir.librarymanagementsystem.model.dto.response.BatchReturnResponse;
 import com.getir.librarymanagementsystem.model.dto.response.BorrowResponse;
 import com.getir.librarymanagementsystem.model.dto.response.OverdueReportResponse;
 import com.getir.librarymanagementsystem.service.BorrowService;
@@ -73,6 +81,71 @@ class BorrowControllerTest {
                 .andExpect(jsonPath("$.returned").value(false));
     }
 
+    @Test
+    @WithMockUser(roles = "PATRON")
+    void borrowBatch_shouldReturnConflictWithPerItemResults() throws Exception {
+        BatchBorrowRequest request = new BatchBorrowRequest();
+        request.setBookIds(List.of(1L, 2L));
+        BatchBorrowResponse response = BatchBorrowResponse.builder()
+                .completed(false)
+                .items(List.of(
+                        BatchBorrowItem.builder().bookId(1L).status(BatchItemStatus.ROLLED_BACK).build(),
+                        BatchBorrowItem.builder().bookId(2L).status(BatchItemStatus.UNAVAILABLE).build()))
+                .build();
+        when(borrowService.borrowBooks(any(BatchBorrowRequest.class), any(Authentication.class))).thenReturn(response);
+
+        mockMvc.perform(post("/api/borrows/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.completed").value(false))
+                .andExpect(jsonPath("$.items[1].status").value("UNAVAILABLE"));
+    }
+
+    @Test
+    @WithMockUser(roles = "PATRON")
+    void borrowBatch_withoutBooks_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/borrows/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookIds\":[]}"))
+                .andExpect(status().isBadRequest());
+        verify(borrowService, never()).borrowBooks(any(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void checkIn_shouldReturnSummary() throws Exception {
+        BatchReturnRequest request = new BatchReturnRequest();
+        request.setIsbns(List.of("9780132350884"));
+        when(borrowService.checkIn(any(BatchReturnRequest.class)))
+                .thenReturn(BatchReturnResponse.builder().processed(1).returned(1).errors(List.of()).build());
+
+        mockMvc.perform(put("/api/borrows/check-in")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.returned").value(1));
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void checkIn_withoutKeys_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(put("/api/borrows/check-in")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+        verify(borrowService, never()).checkIn(any());
+    }
+
+    @Test
+    @WithMockUser(roles = "PATRON")
+    void checkIn_asPatron_shouldBeForbidden() throws Exception {
+        mockMvc.perform(put("/api/borrows/check-in")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"borrowIds\":[1]}"))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     @WithMockUser(roles = "LIBRARIAN")
     void getAll_shouldReturnAllBorrows() throws Exception {
@@ -82,10 +155,16 @@ class BorrowControllerTest {
                 .borrowDate(today)
                 .build();
 
-        when(borrowService.getAllBorrows()).thenReturn(List.of(response));
+        when(borrowService.getBorrowPage(eq(BorrowSortField.BORROW_DATE), isNull(), eq(10), eq(true)))
+                .thenReturn(new KeysetPage<>(List.of(response), null, 1L));
 
-        mockMvc.perform(get("/api/borrows"))
+        mockMvc.perform(get("/api/borrows")
+                        .param("sort", "borrowDate")
+                        .param("limit", "10")
+                        .param("includeTotal", "true"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
                 .andExpect(jsonPath("$[0].id").value(1L))
                 .andExpect(jsonPath("$[0].bookTitle").value("Test Book"))
                 .andExpect(jsonPath("$[0].borrowDate").value(today.toString()));
@@ -112,6 +191,51 @@ class BorrowControllerTest {
                 .andExpect(jsonPath("$.returnDate").value(today.toString()));
     }
 
+    @Test
+    @WithMockUser(username = "idempotent-patron", roles = "PATRON")
+    void borrow_withRepeatedIdempotencyKey_shouldReturnOriginalBorrow() throws Exception {
+        BorrowRequest request = new BorrowRequest();
+        request.setBookId(1L);
+        BorrowResponse response = BorrowResponse.builder()
+                .id(7L)
+                .bookTitle("Test Book")
+                .build();
+
+        when(borrowService.borrowBook(any(BorrowRequest.class), any(Authentication.class)))
+                .thenReturn(response);
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/borrows")
+                            .header("Idempotency-Key", "borrow-retry")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(7L));
+        }
+        verify(borrowService, times(1)).borrowBook(any(BorrowRequest.class), any(Authentication.class));
+
+        request.setBookId(2L);
+        mockMvc.perform(post("/api/borrows")
+                        .header("Idempotency-Key", "borrow-retry")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    @WithMockUser(username = "idempotent-returner", roles = "PATRON")
+    void returnBook_withRepeatedIdempotencyKey_shouldNotReturnTwice() throws Exception {
+        when(borrowService.returnBook(anyLong(), any(Authentication.class)))
+                .thenReturn(BorrowResponse.builder().id(3L).returned(true).build());
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(put("/api/borrows/return/3").header("Idempotency-Key", "return-retry"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.returned").value(true));
+        }
+        verify(borrowService, times(1)).returnBook(eq(3L), any(Authentication.class));
+    }
+
     @Test
     @WithMockUser(roles = "LIBRARIAN")
     void getOverdueReport_shouldReturnReport() throws Exception {
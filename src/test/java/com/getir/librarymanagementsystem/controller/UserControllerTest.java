@@ -68,9 +68,7 @@ class UserControllerTest {
     @Test
     @WithMockUser(roles = "LIBRARIAN")
     void getAllUsers_shouldReturnList() throws Exception {
-        when(userRepository.findAll()).thenReturn(List.of(user));
-
-        when(userMapper.toResponse(any(User.class))).thenReturn(userResponse);
+        when(userRepository.findAllResponses()).thenReturn(List.of(userResponse));
 
         mockMvc.perform(get("/api/users"))
                 .andExpect(status().isOk())
@@ -82,11 +80,13 @@ class UserControllerTest {
     @Test
     @WithMockUser(roles = "LIBRARIAN")
     void getUserById_shouldReturnUser() throws Exception {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.findResponseById(1L)).thenReturn(Optional.of(userResponse));
 
         mockMvc.perform(get("/api/users/1"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.username", is("testuser")));
+                .andExpect(jsonPath("$.username", is("testuser")))
+                .andExpect(jsonPath("$.password").doesNotExist());
+        verify(userRepository, never()).findById(any());
     }
 
     @Test
@@ -117,7 +117,8 @@ class UserControllerTest {
                         .content(objectMapper.writeValueAsString(updatedUser)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.username", is("updatedUser")))
-                .andExpect(jsonPath("$.name", is("Updated Name")));
+                .andExpect(jsonPath("$.name", is("Updated Name")))
+                .andExpect(jsonPath("$.password").doesNotExist());
     }
 
     @Test
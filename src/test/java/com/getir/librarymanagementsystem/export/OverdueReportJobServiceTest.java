@@ -0,0 +1,56 @@
+package com.getir.librarymanagementsystem.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.getir.librarymanagementsystem.model.dto.response.ReportJobResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
+
+class OverdueReportJobServiceTest {
+
+    // Nothing is retained past completion, so every finished report is due for purging right away.
+    private final OverdueReportJobService service =
+            new OverdueReportJobService(mock(JdbcTemplate.class), new ObjectMapper(), 1, 1, 0);
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void whenAnExpiredReportIsBeingDownloaded_thenItsFileIsKeptUntilTheDownloadEnds() throws Exception {
+        String id = awaitCompleted(service.submit(ExportFormat.CSV));
+        ReportFile download = service.file(id).orElseThrow();
+
+        service.purgeExpired();
+        assertTrue(Files.exists(download.path()));
+        assertTrue(service.status(id).isPresent());
+
+        download.close();
+        download.close();
+        Thread.sleep(5);
+        service.purgeExpired();
+        assertFalse(Files.exists(download.path()));
+        assertTrue(service.status(id).isEmpty());
+    }
+
+    private String awaitCompleted(ReportJobResponse job) throws InterruptedException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            ReportJobStatus status = service.status(job.getId()).orElseThrow().getStatus();
+            assertFalse(status == ReportJobStatus.FAILED);
+            if (status == ReportJobStatus.COMPLETED) {
+                return job.getId();
+            }
+            Thread.sleep(20);
+        }
+        fail("Overdue report job " + job.getId() + " did not complete");
+        return null;
+    }
+}
@@ -0,0 +1,269 @@
+package com.getir.librarymanagementsystem.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class IdempotencyStoreTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from idempotency_keys");
+    }
+
+    @Test
+    void whenAKeyIsRepeated_thenTheOriginalResultIsReturned() {
+        IdempotencyStore store = store(3600, 10);
+
+        String first = store.execute("alice:borrow", "k1", 1L, String.class, this::run);
+        String second = store.execute("alice:borrow", "k1", 1L, String.class, this::run);
+
+        assertEquals(first, second);
+        assertEquals(1, runs.get());
+        assertEquals(1, store.stats().getReplayed());
+        assertEquals(1, store.stats().getSize());
+    }
+
+    @Test
+    void whenARetryReachesAnotherNode_thenItGetsTheOriginalResult() {
+        IdempotencyStore node = store(3600, 10);
+        IdempotencyStore otherNode = store(3600, 10);
+
+        String first = node.execute("alice:borrow", "k1", 1L, String.class, this::run);
+        String retried = otherNode.execute("alice:borrow", "k1", 1L, String.class, this::run);
+
+        assertEquals(first, retried);
+        assertEquals(1, runs.get());
+        assertEquals(1, otherNode.stats().getReplayed());
+    }
+
+    @Test
+    void whenKeysDifferOrHaveAnotherScope_thenTheMutationRunsAgain() {
+        IdempotencyStore store = store(3600, 10);
+
+        store.execute("alice:borrow", "k1", 1L, String.class, this::run);
+        store.execute("alice:borrow", "k2", 1L, String.class, this::run);
+        store.execute("bob:borrow", "k1", 1L, String.class, this::run);
+        store.execute("alice:borrow", null, 1L, String.class, this::run);
+        store.execute("alice:borrow", null, 1L, String.class, this::run);
+
+        assertEquals(5, runs.get());
+    }
+
+    @Test
+    void whenAKeyIsReusedForAnotherRequest_thenItIsRejected() {
+        IdempotencyStore store = store(3600, 10);
+        store.execute("alice:return", "k1", 1L, String.class, this::run);
+
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> store(3600, 10).execute("alice:return", "k1", 2L, String.class, this::run));
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> store.execute("alice:return", "k1", 2L, String.class, this::run));
+        assertEquals(1, runs.get());
+        assertEquals(1, store.stats().getRejected());
+    }
+
+    @Test
+    void whenTheKeyIsBlankOrTooLong_thenItIsInvalid() {
+        IdempotencyStore store = store(3600, 10);
+
+        assertThrows(InvalidIdempotencyKeyException.class,
+                () -> store.execute("alice:borrow", " ", 1L, String.class, this::run));
+        assertThrows(InvalidIdempotencyKeyException.class, () -> store.execute("alice:borrow",
+                "k".repeat(IdempotencyStore.MAX_KEY_LENGTH + 1), 1L, String.class, this::run));
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void whenTheMutationFails_thenTheFailureIsNotKept() {
+        IdempotencyStore store = store(3600, 10);
+
+        assertThrows(IllegalStateException.class, () -> store.execute("alice:borrow", "k1", 1L, String.class, () -> {
+            throw new IllegalStateException("No copies available");
+        }));
+        store.execute("alice:borrow", "k1", 1L, String.class, this::run);
+
+        assertEquals(1, runs.get());
+        assertEquals(1, store.stats().getFailed());
+        assertEquals(0, store.stats().getInFlight());
+    }
+
+    @Test
+    void whenRetriesArriveWhileTheOriginalRuns_thenTheyWaitForItsResult() throws Exception {
+        IdempotencyStore store = store(3600, 10);
+        IdempotencyStore otherNode = store(3600, 10);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> original = executor.submit(() -> store.execute("alice:borrow", "k1", 1L, String.class, () -> {
+                started.countDown();
+                await(release);
+                return run();
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<String> retry = executor.submit(() -> store.execute("alice:borrow", "k1", 1L, String.class, this::run));
+            Future<String> remote = executor.submit(() -> otherNode.execute("alice:borrow", "k1", 1L, String.class, this::run));
+            while (store.stats().getCoalesced() < 1 || otherNode.stats().getCoalesced() < 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertEquals(original.get(5, TimeUnit.SECONDS), retry.get(5, TimeUnit.SECONDS));
+            assertEquals(original.get(), remote.get(5, TimeUnit.SECONDS));
+            assertEquals(1, runs.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void whenTheOriginalOutlastsTheWait_thenTheRetryIsTurnedAway() throws Exception {
+        IdempotencyStore store = store(3600, 10);
+        IdempotencyStore impatient = store(3600, 0);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> original = executor.submit(() -> store.execute("alice:borrow", "k1", 1L, String.class, () -> {
+                started.countDown();
+                await(release);
+                return run();
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertThrows(IdempotencyKeyInProgressException.class,
+                    () -> impatient.execute("alice:borrow", "k1", 1L, String.class, this::run));
+            assertEquals(1, impatient.stats().getTimedOut());
+            release.countDown();
+            original.get(5, TimeUnit.SECONDS);
+            assertEquals(1, runs.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void whenResultsExpire_thenTheMutationRunsAgainAndTheRowsArePurged() {
+        IdempotencyStore expiring = store(0, 10);
+        expiring.execute("alice:borrow", "k1", 1L, String.class, this::run);
+        expiring.execute("alice:borrow", "k1", 1L, String.class, this::run);
+
+        assertEquals(2, runs.get());
+        assertEquals(1, expiring.stats().getExpirations());
+
+        expiring.execute("alice:borrow", "k2", 1L, String.class, this::run);
+        assertEquals(2, expiring.purgeExpired());
+        assertEquals(0, expiring.stats().getSize());
+    }
+
+    @Test
+    void whenTheResultIsNotKept_thenARetryRunsTheMutationAgain() {
+        IdempotencyStore store = store(3600, 10);
+
+        store.execute("alice:borrow-batch", "k1", 1L, String.class, this::run, result -> false);
+        store.execute("alice:borrow-batch", "k1", 1L, String.class, this::run, result -> true);
+        store.execute("alice:borrow-batch", "k1", 1L, String.class, this::run, result -> true);
+
+        assertEquals(2, runs.get());
+        assertEquals(1, store.stats().getReplayed());
+    }
+
+    @Test
+    void whenTheOriginalOutlivesItsClaim_thenExtendingTheClaimKeepsRetriesWaiting() throws Exception {
+        IdempotencyStore store = store(3600, 10);
+        IdempotencyStore impatient = store(3600, 0);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> original = executor.submit(() -> store.execute("alice:check-in", "k1", 1L, String.class, () -> {
+                started.countDown();
+                await(release);
+                return run();
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            jdbcTemplate.update("update idempotency_keys set expires_at = ?", Timestamp.from(Instant.now().minusSeconds(1)));
+
+            assertEquals(1, store.extendClaims());
+            assertThrows(IdempotencyKeyInProgressException.class,
+                    () -> impatient.execute("alice:check-in", "k1", 1L, String.class, this::run));
+            release.countDown();
+            original.get(5, TimeUnit.SECONDS);
+            assertEquals(1, runs.get());
+            assertEquals(0, store.stats().getLostClaims());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void whenTheClaimIsTakenOver_thenTheLostClaimIsCounted() throws Exception {
+        IdempotencyStore store = store(3600, 10);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> original = executor.submit(() -> store.execute("alice:check-in", "k1", 1L, String.class, () -> {
+                started.countDown();
+                await(release);
+                return run();
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            jdbcTemplate.update("delete from idempotency_keys");
+            release.countDown();
+            original.get(5, TimeUnit.SECONDS);
+
+            assertEquals(1, store.stats().getLostClaims());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private IdempotencyStore store(long ttlSeconds, long waitSeconds) {
+        return new IdempotencyStore(jdbcTemplate, transactionManager, objectMapper, ttlSeconds, 60, waitSeconds);
+    }
+
+    private String run() {
+        return "borrow-" + runs.incrementAndGet();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
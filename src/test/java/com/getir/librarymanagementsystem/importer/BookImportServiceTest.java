@@ -0,0 +1,60 @@
+package com.getir.librarymanagementsystem.importer;
+
+import com.getir.librarymanagementsystem.model.dto.response.BookImportResponse;
+import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.repository.BookRepository;
+import com.getir.librarymanagementsystem.service.BookService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class BookImportServiceTest {
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private BookService bookService;
+
+    @SpyBean
+    private BookRepository bookRepository;
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void whenAnIsbnIsTakenAfterTheLookup_thenOnlyThatRowIsRejected() {
+        bookService.save(Book.builder().title("Clean Code").author("Robert C. Martin").isbn("9780132350884").available(true).build());
+        // Hides the existing row from the lookup, as a concurrent import committing in between would.
+        doReturn(Set.of()).when(bookRepository).findExistingIsbns(any());
+
+        String csv = "title,author,isbn\n"
+                + "Refactoring,Martin Fowler,9780201485677\n"
+                + "Clean Code Again,Someone,9780132350884\n";
+        BookImportResponse response = bookImportService.importBooks(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV);
+
+        assertEquals(1, response.getImported());
+        assertEquals(1, response.getFailed());
+        assertEquals(3, response.getErrors().get(0).getLine());
+        assertEquals("9780132350884", response.getErrors().get(0).getIsbn());
+        assertEquals(2, bookRepository.count());
+        assertTrue(bookRepository.findByIsbn("9780201485677").isPresent());
+    }
+}
@@ -2,6 +2,7 @@ package com.getir.librarymanagementsystem.integration;
 
 import com.getir.librarymanagementsystem.model.entity.Book;
 import com.getir.librarymanagementsystem.repository.BookRepository;
+import com.getir.librarymanagementsystem.service.BookService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +13,7 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -36,6 +38,9 @@ class BookControllerIntegrationTest {
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private BookService bookService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -66,8 +71,8 @@ class BookControllerIntegrationTest {
                 .available(true)
                 .build();
 
-        book1 = bookRepository.save(book1);
-        book2 = bookRepository.save(book2);
+        book1 = bookService.save(book1);
+        book2 = bookService.save(book2);
     }
 
     @AfterEach
@@ -156,6 +161,25 @@ class BookControllerIntegrationTest {
                 .andExpect(jsonPath("$.available", is(book1.isAvailable())));
     }
 
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void whenPollingWithETag_thenNotModifiedUntilBookChanges() throws Exception {
+        String etag = mockMvc.perform(get("/api/books/{id}", book1.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/api/books/{id}", book1.getId()).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        book1.setTitle("Clean Code, 2nd Edition");
+        bookService.update(book1.getId(), book1);
+
+        mockMvc.perform(get("/api/books/{id}", book1.getId()).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title", is("Clean Code, 2nd Edition")));
+    }
+
     @Test
     @WithMockUser(roles = "LIBRARIAN")
     void whenFindAll_thenReturnAllBooks() throws Exception {
@@ -168,6 +192,32 @@ class BookControllerIntegrationTest {
                 .andExpect(jsonPath("$[1].title", is(book2.getTitle())));
     }
 
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void whenFindAllByTitleWithLimit_thenWalkPagesWithCursor() throws Exception {
+        MvcResult firstPage = mockMvc.perform(get("/api/books")
+                        .param("sort", "title")
+                        .param("limit", "1")
+                        .param("includeTotal", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].title", is(book1.getTitle())))
+                .andExpect(header().string("X-Total-Count", "2"))
+                .andReturn();
+
+        String cursor = firstPage.getResponse().getHeader("X-Next-Cursor");
+        assertNotNull(cursor);
+
+        mockMvc.perform(get("/api/books")
+                        .param("sort", "title")
+                        .param("limit", "1")
+                        .param("after", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].title", is(book2.getTitle())))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
     @Test
     @WithMockUser(roles = "LIBRARIAN")
     void whenSearchByTitle_thenReturnMatchingBooks() throws Exception {
@@ -202,4 +252,64 @@ class BookControllerIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(0)));
     }
-}
\ No newline at end of file
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void whenImportCsv_thenInsertValidRowsAndReportRejectedOnes() throws Exception {
+        String csv = "title,author,isbn,publicationDate,genre,available\n"
+                + "Refactoring,Martin Fowler,9780201485677,1999-07-08,Programming,true\n"
+                + "\"Code Complete, 2nd Edition\",Steve McConnell,9780735619678,2004-06-09,Programming,false\n"
+                + "Clean Code Again,Someone,9780132350884,,Programming,true\n"
+                + "No Isbn,Nobody,,,Misc,true\n"
+                + "Refactoring Copy,Martin Fowler,9780201485677,,Programming,true\n";
+
+        mockMvc.perform(post("/api/books/import")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.processed", is(5)))
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.failed", is(3)))
+                .andExpect(jsonPath("$.errors", hasSize(3)))
+                .andExpect(jsonPath("$.errors[0].line", is(5)))
+                .andExpect(jsonPath("$.errors[1].line", is(6)))
+                .andExpect(jsonPath("$.errors[2].isbn", is("9780132350884")));
+
+        assertEquals(4, bookRepository.count());
+        Book imported = bookRepository.findByIsbn("9780735619678").orElseThrow();
+        assertEquals("Code Complete, 2nd Edition", imported.getTitle());
+        assertFalse(imported.isAvailable());
+
+        mockMvc.perform(get("/api/books/search").param("keyword", "refactoring"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void whenImportNdjson_thenInsertRows() throws Exception {
+        String ndjson = "{\"title\":\"Refactoring\",\"author\":\"Martin Fowler\",\"isbn\":\"9780201485677\"}\n"
+                + "not json\n"
+                + "{\"title\":\"The Pragmatic Programmer\",\"author\":\"Andrew Hunt\",\"isbn\":\"9780201616224\"}\n";
+
+        mockMvc.perform(post("/api/books/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.errors[0].line", is(2)));
+
+        assertEquals(4, bookRepository.count());
+        assertTrue(bookRepository.findByIsbn("9780201616224").orElseThrow().isAvailable());
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void whenImportCsvWithoutIsbnColumn_thenReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/books/import")
+                        .contentType("text/csv")
+                        .content("title,author\nRefactoring,Martin Fowler\n"))
+                .andExpect(status().isBadRequest());
+    }
+}
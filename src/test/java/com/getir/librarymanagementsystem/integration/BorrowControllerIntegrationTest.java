@@ -0,0 +1,458 @@
+package com.getir.librarymanagementsystem.integration;
+
+import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.model.entity.Borrow;
+import com.getir.librarymanagementsystem.model.entity.HoldStatus;
+import com.getir.librarymanagementsystem.model.entity.Role;
+import com.getir.librarymanagementsystem.model.entity.User;
+import com.getir.librarymanagementsystem.repository.BookCopyStripeRepository;
+import com.getir.librarymanagementsystem.repository.BookRepository;
+import com.getir.librarymanagementsystem.repository.BorrowRepository;
+import com.getir.librarymanagementsystem.repository.HoldRepository;
+import com.getir.librarymanagementsystem.repository.UserRepository;
+import com.getir.librarymanagementsystem.service.BookService;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+class BorrowControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookCopyStripeRepository bookCopyStripeRepository;
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Book bestseller;
+    private Book lastCopy;
+    private User patron;
+
+    @BeforeEach
+    void setup() {
+        patron = userRepository.save(User.builder().username("patron").password("x").role(Role.PATRON).build());
+        bestseller = bookService.save(Book.builder().title("Bestseller").isbn("batch-1").available(true).totalCopies(20).build());
+        lastCopy = bookService.save(Book.builder().title("Rare").isbn("batch-2").available(true).totalCopies(1).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        holdRepository.deleteAllInBatch();
+        borrowRepository.deleteAllInBatch();
+        bookCopyStripeRepository.deleteAllInBatch();
+        bookRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @WithMockUser(username = "patron", roles = "PATRON")
+    void whenBatchBorrowing_thenEveryBookLosesOneCopy() throws Exception {
+        mockMvc.perform(post("/api/borrows/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookIds\":[" + bestseller.getId() + "," + lastCopy.getId() + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completed").value(true))
+                .andExpect(jsonPath("$.items[0].status").value("BORROWED"))
+                .andExpect(jsonPath("$.items[1].borrow.bookTitle").value("Rare"));
+
+        assertEquals(2, borrowRepository.count());
+        Book bestsellerAfter = bookRepository.findById(bestseller.getId()).orElseThrow();
+        assertEquals(19, bestsellerAfter.getAvailableCopies());
+        assertTrue(bestsellerAfter.isAvailable());
+        Book lastCopyAfter = bookRepository.findById(lastCopy.getId()).orElseThrow();
+        assertEquals(0, lastCopyAfter.getAvailableCopies());
+        assertFalse(lastCopyAfter.isAvailable());
+    }
+
+    @Test
+    @WithMockUser(username = "patron", roles = "PATRON")
+    void whenOneBookOfBatchIsOut_thenNothingIsBorrowed() throws Exception {
+        String ids = "{\"bookIds\":[" + lastCopy.getId() + "]}";
+        mockMvc.perform(post("/api/borrows/batch").contentType(MediaType.APPLICATION_JSON).content(ids))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/borrows/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookIds\":[" + bestseller.getId() + "," + lastCopy.getId() + "]}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.completed").value(false))
+                .andExpect(jsonPath("$.items[0].status").value("ROLLED_BACK"))
+                .andExpect(jsonPath("$.items[1].status").value("UNAVAILABLE"));
+
+        assertEquals(1, borrowRepository.count());
+        assertEquals(20, bookRepository.findById(bestseller.getId()).orElseThrow().getAvailableCopies());
+    }
+
+    @Test
+    @WithMockUser(username = "patron", roles = {"PATRON", "LIBRARIAN"})
+    void whenCheckingInByIsbn_thenCopiesGoBackOnTheShelf() throws Exception {
+        mockMvc.perform(post("/api/borrows/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookIds\":[" + bestseller.getId() + "," + lastCopy.getId() + "]}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(put("/api/borrows/check-in")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"isbns\":[\"batch-1\",\"batch-2\",\"batch-2\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.returned").value(2))
+                .andExpect(jsonPath("$.errors[0].isbn").value("batch-2"))
+                .andExpect(jsonPath("$.errors[0].status").value("NOT_FOUND"));
+
+        assertTrue(borrowRepository.findAll().stream().allMatch(borrow -> borrow.isReturned()));
+        assertEquals(20, bookRepository.findById(bestseller.getId()).orElseThrow().getAvailableCopies());
+        Book lastCopyAfter = bookRepository.findById(lastCopy.getId()).orElseThrow();
+        assertEquals(1, lastCopyAfter.getAvailableCopies());
+        assertTrue(lastCopyAfter.isAvailable());
+    }
+
+    @Test
+    @WithMockUser(username = "patron", roles = {"PATRON", "LIBRARIAN"})
+    void whenListingBorrows_thenStatementCountDoesNotGrowWithRows() throws Exception {
+        List<Borrow> borrows = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            Book book = bookService.save(Book.builder().title("Overdue " + i).isbn("overdue-" + i).available(true).build());
+            borrows.add(Borrow.builder().user(patron).book(book).borrowDate(LocalDate.now().minusDays(30))
+                    .dueDate(LocalDate.now().minusDays(16)).build());
+        }
+        borrowRepository.saveAll(borrows);
+
+        assertStatements(1, "/api/borrows?limit=50");
+        assertStatements(1, "/api/borrows/history?sort=borrowDate&limit=50");
+        assertStatements(1, "/api/borrows/overdue");
+        assertStatements(1, "/api/borrows/overdue-report");
+        // The user lookup plus one select for the borrows.
+        assertStatements(2, "/api/borrows/my-history");
+    }
+
+    @Test
+    @WithMockUser(username = "patron", roles = {"PATRON", "LIBRARIAN"})
+    void whenRequestedReturnDateHasPassed_thenBorrowIsOverdue() throws Exception {
+        LocalDate today = LocalDate.now();
+        mockMvc.perform(post("/api/borrows")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":" + lastCopy.getId() + ",\"borrowDate\":\"" + today.minusDays(10)
+                                + "\",\"returnDate\":\"" + today.minusDays(1) + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dueDate").value(today.minusDays(1).toString()));
+        mockMvc.perform(post("/api/borrows")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":" + bestseller.getId() + ",\"borrowDate\":\"" + today + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dueDate").value(today.plusDays(14).toString()));
+
+        mockMvc.perform(get("/api/borrows/overdue-report"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].bookTitle").value("Rare"))
+                .andExpect(jsonPath("$[0].dueDate").value(today.minusDays(1).toString()));
+    }
+
+    @Test
+    @WithMockUser(username = "patron", roles = {"PATRON", "LIBRARIAN"})
+    void whenOverdueReportJobCompletes_thenFileIsDownloadedAndReusedUntilNextBorrow() throws Exception {
+        LocalDate today = LocalDate.now();
+        mockMvc.perform(post("/api/borrows")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":" + lastCopy.getId() + ",\"borrowDate\":\"" + today.minusDays(10)
+                                + "\",\"returnDate\":\"" + today.minusDays(1) + "\"}"))
+                .andExpect(status().isOk());
+
+        String id = submitOverdueReport();
+        awaitReport(id);
+        MvcResult started = mockMvc.perform(get("/api/borrows/overdue-report/jobs/" + id + "/download"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String csv = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/csv"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        String[] lines = csv.split("\r\n");
+        assertEquals("borrowId,bookTitle,username,borrowDate,dueDate", lines[0]);
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].endsWith(",Rare,patron," + today.minusDays(10) + "," + today.minusDays(1)));
+
+        assertEquals(id, submitOverdueReport());
+
+        mockMvc.perform(post("/api/borrows")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":" + bestseller.getId() + ",\"borrowDate\":\"" + today + "\"}"))
+                .andExpect(status().isOk());
+        assertNotEquals(id, submitOverdueReport());
+    }
+
+    @Test
+    @WithMockUser(username = "patron", roles = {"PATRON", "LIBRARIAN"})
+    void whenAnOverdueLoanIsReturnedToAWaitingHold_thenTheReportIsBuiltAgain() throws Exception {
+        userRepository.save(User.builder().username("first").password("x").role(Role.PATRON).build());
+        LocalDate today = LocalDate.now();
+        String borrowed = mockMvc.perform(post("/api/borrows")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":" + lastCopy.getId() + ",\"borrowDate\":\"" + today.minusDays(10)
+                                + "\",\"returnDate\":\"" + today.minusDays(1) + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Integer borrowId = JsonPath.read(borrowed, "$.id");
+        mockMvc.perform(post("/api/holds").with(user("first").roles("PATRON"))
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"bookId\":" + lastCopy.getId() + "}"))
+                .andExpect(status().isCreated());
+
+        String id = submitOverdueReport();
+        awaitReport(id);
+
+        mockMvc.perform(put("/api/borrows/return/" + borrowId)).andExpect(status().isOk());
+
+        String rebuilt = submitOverdueReport();
+        assertNotEquals(id, rebuilt);
+        awaitReport(rebuilt);
+        MvcResult started = mockMvc.perform(get("/api/borrows/overdue-report/jobs/" + rebuilt + "/download"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String csv = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertEquals(1, csv.split("\r\n").length);
+    }
+
+    @Test
+    @WithMockUser(username = "patron", roles = "PATRON")
+    void whenPatronRequestsOverdueReportJob_thenForbidden() throws Exception {
+        mockMvc.perform(post("/api/borrows/overdue-report/jobs")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(username = "patron", roles = {"PATRON", "LIBRARIAN"})
+    void whenACopyComesBack_thenItIsBorrowedToTheOldestHold() throws Exception {
+        User first = userRepository.save(User.builder().username("first").password("x").role(Role.PATRON).build());
+        User second = userRepository.save(User.builder().username("second").password("x").role(Role.PATRON).build());
+        String borrowed = mockMvc.perform(post("/api/borrows")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":" + lastCopy.getId() + "}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Integer borrowId = JsonPath.read(borrowed, "$.id");
+
+        String hold = "{\"bookId\":" + lastCopy.getId() + "}";
+        mockMvc.perform(post("/api/holds").with(user("first").roles("PATRON"))
+                        .contentType(MediaType.APPLICATION_JSON).content(hold))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.status").value("WAITING"))
+                .andExpect(jsonPath("$.position").value(1));
+        mockMvc.perform(post("/api/holds").with(user("second").roles("PATRON"))
+                        .contentType(MediaType.APPLICATION_JSON).content(hold))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.position").value(2));
+
+        mockMvc.perform(put("/api/borrows/return/" + borrowId)).andExpect(status().isOk());
+
+        List<Borrow> open = borrowRepository.findAll().stream().filter(borrow -> !borrow.isReturned()).toList();
+        assertEquals(1, open.size());
+        assertEquals(first.getId(), open.get(0).getUser().getId());
+        Book afterReturn = bookRepository.findById(lastCopy.getId()).orElseThrow();
+        assertEquals(0, afterReturn.getAvailableCopies());
+        assertFalse(afterReturn.isAvailable());
+        mockMvc.perform(get("/api/holds").with(user("first").roles("PATRON")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/holds").with(user("second").roles("PATRON")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].position").value(1));
+
+        mockMvc.perform(put("/api/borrows/check-in")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"isbns\":[\"batch-2\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.returned").value(1));
+
+        open = borrowRepository.findAll().stream().filter(borrow -> !borrow.isReturned()).toList();
+        assertEquals(1, open.size());
+        assertEquals(second.getId(), open.get(0).getUser().getId());
+        assertEquals(0, bookRepository.findById(lastCopy.getId()).orElseThrow().getAvailableCopies());
+        assertEquals(0, holdRepository.findByUserIdAndStatusOrderByPlacedAtAscIdAsc(second.getId(), HoldStatus.WAITING).size());
+    }
+
+    @Test
+    @WithMockUser(username = "patron", roles = {"PATRON", "LIBRARIAN"})
+    void whenCopiesAreAddedToATitle_thenWaitingHoldsGetThemFirst() throws Exception {
+        User first = userRepository.save(User.builder().username("first").password("x").role(Role.PATRON).build());
+        mockMvc.perform(post("/api/borrows")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":" + lastCopy.getId() + "}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/holds").with(user("first").roles("PATRON"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":" + lastCopy.getId() + "}"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(put("/api/books/{id}", lastCopy.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Rare\",\"isbn\":\"batch-2\",\"available\":true,\"totalCopies\":3}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableCopies").value(1))
+                .andExpect(jsonPath("$.available").value(true));
+
+        List<Borrow> open = borrowRepository.findAll().stream()
+                .filter(borrow -> !borrow.isReturned() && borrow.getUser().getId().equals(first.getId()))
+                .toList();
+        assertEquals(1, open.size());
+        assertEquals(0, holdRepository.findByUserIdAndStatusOrderByPlacedAtAscIdAsc(first.getId(), HoldStatus.WAITING).size());
+        assertEquals(1, bookRepository.findById(lastCopy.getId()).orElseThrow().getAvailableCopies());
+    }
+
+    @Test
+    @WithMockUser(username = "patron", roles = {"PATRON", "LIBRARIAN"})
+    void whenAnOpenLoanOfTheLastCopyIsDeleted_thenTheCopyIsBackOnTheShelf() throws Exception {
+        String borrowed = mockMvc.perform(post("/api/borrows")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":" + lastCopy.getId() + "}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Integer borrowId = JsonPath.read(borrowed, "$.id");
+        assertFalse(bookRepository.findById(lastCopy.getId()).orElseThrow().isAvailable());
+
+        mockMvc.perform(delete("/api/borrows/" + borrowId)).andExpect(status().isNoContent());
+
+        assertEquals(0, borrowRepository.count());
+        Book afterDelete = bookRepository.findById(lastCopy.getId()).orElseThrow();
+        assertEquals(1, afterDelete.getAvailableCopies());
+        assertTrue(afterDelete.isAvailable());
+    }
+
+    @Test
+    @WithMockUser(username = "patron", roles = "PATRON")
+    void whenBookIsOnTheShelf_thenHoldIsRejected() throws Exception {
+        mockMvc.perform(post("/api/holds")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":" + bestseller.getId() + "}"))
+                .andExpect(status().isConflict());
+
+        assertEquals(0, holdRepository.count());
+    }
+
+    @Test
+    void whenAHoldIsPlacedWhileTheLastCopyComesBack_thenTheHoldIsServedOrRejected() throws Exception {
+        User first = userRepository.save(User.builder().username("first").password("x").role(Role.PATRON).build());
+        String book = "{\"bookId\":" + lastCopy.getId() + "}";
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 20; round++) {
+                String borrowed = mockMvc.perform(post("/api/borrows").with(user("patron").roles("PATRON"))
+                                .contentType(MediaType.APPLICATION_JSON).content(book))
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString();
+                Integer borrowId = JsonPath.read(borrowed, "$.id");
+
+                CyclicBarrier start = new CyclicBarrier(2);
+                Future<Integer> hold = executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(post("/api/holds").with(user("first").roles("PATRON"))
+                            .contentType(MediaType.APPLICATION_JSON).content(book)).andReturn().getResponse().getStatus();
+                });
+                Future<Integer> returned = executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(put("/api/borrows/return/" + borrowId).with(user("patron").roles("PATRON")))
+                            .andReturn().getResponse().getStatus();
+                });
+                assertEquals(200, returned.get(10, TimeUnit.SECONDS));
+                int holdStatus = hold.get(10, TimeUnit.SECONDS);
+
+                // Either the hold got in first and the return served it, or the return did and the hold was refused.
+                List<Borrow> open = borrowRepository.findAll().stream().filter(borrow -> !borrow.isReturned()).toList();
+                Book after = bookRepository.findById(lastCopy.getId()).orElseThrow();
+                assertEquals(0, holdRepository.findByUserIdAndStatusOrderByPlacedAtAscIdAsc(first.getId(), HoldStatus.WAITING).size());
+                if (holdStatus == 201) {
+                    assertEquals(1, open.size());
+                    assertEquals(first.getId(), open.get(0).getUser().getId());
+                    assertEquals(0, after.getAvailableCopies());
+                    mockMvc.perform(put("/api/borrows/return/" + open.get(0).getId()).with(user("first").roles("PATRON")))
+                            .andExpect(status().isOk());
+                } else {
+                    assertEquals(409, holdStatus);
+                    assertTrue(open.isEmpty());
+                    assertEquals(1, after.getAvailableCopies());
+                    assertTrue(after.isAvailable());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private String submitOverdueReport() throws Exception {
+        String body = mockMvc.perform(post("/api/borrows/overdue-report/jobs").param("format", "csv"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists(HttpHeaders.LOCATION))
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(body, "$.id");
+    }
+
+    private void awaitReport(String id) throws Exception {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            String body = mockMvc.perform(get("/api/borrows/overdue-report/jobs/" + id))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            String status = JsonPath.read(body, "$.status");
+            assertNotEquals("FAILED", status);
+            if ("COMPLETED".equals(status)) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        fail("Overdue report job " + id + " did not complete");
+    }
+
+    private void assertStatements(long expected, String url) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(40));
+        assertEquals(expected, statistics.getPrepareStatementCount(), url);
+    }
+}
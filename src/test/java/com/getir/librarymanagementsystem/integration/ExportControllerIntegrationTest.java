@@ -0,0 +1,167 @@
+package com.getir.librarymanagementsystem.integration;
+
+import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.model.entity.Borrow;
+import com.getir.librarymanagementsystem.model.entity.Role;
+import com.getir.librarymanagementsystem.model.entity.User;
+import com.getir.librarymanagementsystem.repository.BookRepository;
+import com.getir.librarymanagementsystem.repository.BorrowRepository;
+import com.getir.librarymanagementsystem.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+class ExportControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Book cleanCode;
+
+    @BeforeEach
+    void setup() {
+        borrowRepository.deleteAll();
+        bookRepository.deleteAll();
+        cleanCode = bookRepository.save(Book.builder()
+                .title("Clean Code")
+                .author("Robert C. Martin")
+                .isbn("9780132350884")
+                .publicationDate(LocalDate.of(2008, 8, 1))
+                .genre("Programming")
+                .available(true)
+                .build());
+        bookRepository.save(Book.builder()
+                .title("Design Patterns, 2nd \"Gang of Four\" edition")
+                .author("Erich Gamma")
+                .isbn("9780201633610")
+                .publicationDate(LocalDate.of(1994, 10, 31))
+                .genre("Computer Science")
+                .available(false)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        borrowRepository.deleteAll();
+        bookRepository.deleteAll();
+        userRepository.findByUsername("exporter").ifPresent(userRepository::delete);
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void whenExportBorrowsAsCsv_thenTheDueDateIsIncluded() throws Exception {
+        User user = userRepository.save(User.builder().username("exporter").password("x").role(Role.PATRON).build());
+        borrowRepository.save(Borrow.builder()
+                .user(user)
+                .book(cleanCode)
+                .borrowDate(LocalDate.of(2025, 6, 1))
+                .dueDate(LocalDate.of(2025, 6, 15))
+                .build());
+
+        MvcResult started = mockMvc.perform(get("/api/export/borrows").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String csv = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = csv.split("\r\n");
+        assertEquals(2, lines.length);
+        assertEquals("id,userId,bookId,borrowDate,dueDate,returnDate,returned,updatedAt", lines[0]);
+        assertTrue(lines[1].contains(",2025-06-01,2025-06-15,,false,"));
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void whenExportBooksAsNdjson_thenStreamOneObjectPerLine() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/export/books"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"title\":\"Clean Code\""));
+        assertTrue(lines[0].contains("\"publicationDate\":\"2008-08-01\""));
+        assertTrue(lines[1].contains("\"available\":false"));
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void whenExportBooksAsGzippedCsv_thenQuoteFieldsAndCompress() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/export/books")
+                        .param("format", "csv")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] compressed = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] lines = csv.split("\r\n");
+        assertEquals(3, lines.length);
+        assertEquals("id,title,author,isbn,publicationDate,genre,available,totalCopies,updatedAt", lines[0]);
+        assertTrue(lines[2].contains("\"Design Patterns, 2nd \"\"Gang of Four\"\" edition\""));
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void whenModifiedSinceIsInTheFuture_thenExportNothing() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/export/borrows")
+                        .param("modifiedSince", Instant.now().plusSeconds(3600).toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @WithMockUser(roles = "PATRON")
+    void whenPatronExports_thenForbidden() throws Exception {
+        mockMvc.perform(get("/api/export/books"))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,144 @@
+package com.getir.librarymanagementsystem.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CirculationJournalTest {
+
+    private static final LocalDate BORROWED_ON = LocalDate.of(2025, 6, 1);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void whenRecordsAreAppended_thenReplayReturnsThemInSequenceOrder() {
+        CirculationJournal journal = new CirculationJournal(directory, 1024 * 1024, 16);
+        try {
+            journal.append(borrowed(1, 10));
+            journal.append(returned(1, 10));
+            journal.append(deleted(1, 10));
+
+            List<CirculationRecord> records = replay(journal);
+
+            assertEquals(3, records.size());
+            assertEquals(List.of(1L, 2L, 3L), records.stream().map(CirculationRecord::sequence).toList());
+            assertEquals(CirculationEventType.BORROWED, records.get(0).type());
+            assertEquals(BORROWED_ON, records.get(0).borrowDate());
+            assertEquals(BORROWED_ON.plusDays(14), records.get(0).dueDate());
+            assertEquals(CirculationEventType.RETURNED, records.get(1).type());
+            assertNull(records.get(1).borrowDate());
+            assertEquals(10, records.get(2).bookId());
+        } finally {
+            journal.close();
+        }
+    }
+
+    @Test
+    void whenJournalIsReopened_thenSequenceContinues() {
+        CirculationJournal journal = new CirculationJournal(directory, 1024 * 1024, 16);
+        journal.append(borrowed(1, 10));
+        journal.append(borrowed(2, 11));
+        journal.sync();
+        journal.close();
+
+        CirculationJournal reopened = new CirculationJournal(directory, 1024 * 1024, 16);
+        try {
+            reopened.append(returned(1, 10));
+
+            List<CirculationRecord> records = replay(reopened);
+
+            assertEquals(List.of(1L, 2L, 3L), records.stream().map(CirculationRecord::sequence).toList());
+            assertEquals(CirculationEventType.RETURNED, records.get(2).type());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void whenSegmentIsFull_thenJournalRollsOverToANewSegment() {
+        CirculationJournal journal = new CirculationJournal(directory, 10L * JournalSegment.RECORD_SIZE, 64);
+        try {
+            for (int i = 1; i <= 25; i++) {
+                journal.append(borrowed(i, i));
+            }
+
+            List<CirculationRecord> records = replay(journal);
+
+            assertEquals(25, records.size());
+            assertEquals(25L, records.get(24).sequence());
+            assertEquals(3, journal.segmentCount());
+        } finally {
+            journal.close();
+        }
+    }
+
+    @Test
+    void whenARecordIsTorn_thenReplayStopsThereAndAppendsContinueAfterTheLastIntactRecord() throws IOException {
+        CirculationJournal journal = new CirculationJournal(directory, 1024 * 1024, 16);
+        journal.append(borrowed(1, 10));
+        journal.append(borrowed(2, 11));
+        journal.append(borrowed(3, 12));
+        journal.sync();
+        journal.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(onlySegment().toFile(), "rw")) {
+            file.seek(JournalSegment.RECORD_SIZE + 16);
+            file.writeLong(99);
+        }
+
+        CirculationJournal reopened = new CirculationJournal(directory, 1024 * 1024, 16);
+        try {
+            reopened.append(returned(1, 10));
+
+            List<CirculationRecord> records = replay(reopened);
+
+            assertEquals(2, records.size());
+            assertEquals(1L, records.get(0).borrowId());
+            assertEquals(CirculationEventType.RETURNED, records.get(1).type());
+            assertEquals(2L, records.get(1).sequence());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = files.toList();
+            assertEquals(1, segments.size());
+            return segments.get(0);
+        }
+    }
+
+    private static List<CirculationRecord> replay(CirculationJournal journal) {
+        List<CirculationRecord> records = new ArrayList<>();
+        journal.replay(records::add);
+        return records;
+    }
+
+    static CirculationRecord borrowed(long borrowId, long bookId) {
+        return new CirculationRecord(0, System.currentTimeMillis(), CirculationEventType.BORROWED, borrowId, bookId,
+                7, BORROWED_ON, BORROWED_ON.plusDays(14), 3);
+    }
+
+    static CirculationRecord returned(long borrowId, long bookId) {
+        return new CirculationRecord(0, System.currentTimeMillis(), CirculationEventType.RETURNED, borrowId, bookId,
+                0, null, null, 3);
+    }
+
+    private static CirculationRecord deleted(long borrowId, long bookId) {
+        return new CirculationRecord(0, System.currentTimeMillis(), CirculationEventType.DELETED, borrowId, bookId,
+                7, BORROWED_ON, BORROWED_ON.plusDays(14), 3);
+    }
+}
@@ -0,0 +1,98 @@
+package com.getir.librarymanagementsystem.journal;
+
+import com.getir.librarymanagementsystem.model.dto.request.BorrowRequest;
+import com.getir.librarymanagementsystem.model.dto.response.JournalReplayResponse;
+import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.model.entity.Role;
+import com.getir.librarymanagementsystem.model.entity.User;
+import com.getir.librarymanagementsystem.repository.BookCopyStripeRepository;
+import com.getir.librarymanagementsystem.repository.BookRepository;
+import com.getir.librarymanagementsystem.repository.BorrowRepository;
+import com.getir.librarymanagementsystem.repository.UserRepository;
+import com.getir.librarymanagementsystem.service.BookService;
+import com.getir.librarymanagementsystem.service.BorrowService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class CirculationReplayServiceTest {
+
+    // The journal records nothing, so every loan below looks like one made before the journal existed.
+    @MockBean
+    private CirculationJournal journal;
+
+    @Autowired
+    private CirculationReplayService circulationReplayService;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookCopyStripeRepository bookCopyStripeRepository;
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Book book;
+
+    @BeforeEach
+    void setup() {
+        userRepository.save(User.builder().username("patron").password("x").role(Role.PATRON).build());
+        book = bookService.save(Book.builder().title("Rare").isbn("replay-1").available(true).totalCopies(1).build());
+        BorrowRequest request = new BorrowRequest();
+        request.setBookId(book.getId());
+        borrowService.borrowBook(request, new UsernamePasswordAuthenticationToken("patron", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        borrowRepository.deleteAllInBatch();
+        bookCopyStripeRepository.deleteAllInBatch();
+        bookRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void whenALoanIsNotInTheJournal_thenTheBookIsNotReportedAvailable() {
+        JournalReplayResponse response = circulationReplayService.replay(true);
+
+        assertEquals(0, response.getOpenLoans());
+        assertEquals(0, response.getAvailabilityMismatches());
+        assertEquals(0, response.getAvailabilityRepaired());
+        assertFalse(bookRepository.findById(book.getId()).orElseThrow().isAvailable());
+    }
+
+    @Test
+    void whenTheFlagDisagreesWithTheStripes_thenRepairRecountsItFromTheStripes() {
+        jdbcTemplate.update("update books set available = true where id = ?", book.getId());
+
+        JournalReplayResponse response = circulationReplayService.replay(true);
+
+        assertEquals(1, response.getAvailabilityMismatches());
+        assertEquals(1, response.getAvailabilityRepaired());
+        assertFalse(bookRepository.findById(book.getId()).orElseThrow().isAvailable());
+    }
+}
@@ -0,0 +1,128 @@
+package com.getir.librarymanagementsystem.outbox;
+
+import com.getir.librarymanagementsystem.model.dto.event.BookAvailabilityEvent;
+import com.getir.librarymanagementsystem.service.BookAvailabilityPublisher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.Disposable;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class AvailabilityOutboxTest {
+
+    // Far above the ids of books other tests create, so only this test's events are recorded.
+    private static final long BOOK_ID = 9_000_001L;
+
+    @Autowired
+    private AvailabilityOutbox availabilityOutbox;
+
+    @Autowired
+    private AvailabilityOutboxRelay relay;
+
+    @Autowired
+    private BookAvailabilityPublisher publisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<BookAvailabilityEvent> received = new CopyOnWriteArrayList<>();
+    private Disposable subscription;
+
+    @BeforeEach
+    void setUp() {
+        subscription = publisher.getStream()
+                .filter(event -> event.getBookId() >= BOOK_ID)
+                .subscribe(received::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        subscription.dispose();
+    }
+
+    @Test
+    void whenTheTransactionCommits_thenEventsAreDispatchedInOrder() {
+        transactionTemplate.executeWithoutResult(status -> availabilityOutbox.addAll(List.of(
+                new BookAvailabilityEvent(BOOK_ID, true, 2),
+                new BookAvailabilityEvent(BOOK_ID, true, 1),
+                new BookAvailabilityEvent(BOOK_ID, false, 0))));
+
+        awaitUntil(() -> received.size() == 3);
+        assertEquals(List.of(2L, 1L, 0L), received.stream().map(BookAvailabilityEvent::getAvailableCopies).toList());
+        awaitUntil(() -> relay.stats().getPending() == 0);
+    }
+
+    @Test
+    void whenTheTransactionRollsBack_thenNothingIsDispatched() {
+        long written = relay.stats().getWritten();
+        transactionTemplate.executeWithoutResult(status -> {
+            availabilityOutbox.add(new BookAvailabilityEvent(BOOK_ID + 1, false, 0));
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status ->
+                availabilityOutbox.add(new BookAvailabilityEvent(BOOK_ID + 2, true, 1)));
+
+        awaitUntil(() -> received.size() == 1);
+        assertEquals(BOOK_ID + 2, received.get(0).getBookId());
+        assertEquals(written + 2, relay.stats().getWritten());
+    }
+
+    @Test
+    void whenAnOlderEventCommitsLate_thenItDoesNotOverwriteTheNewerOne() throws Exception {
+        long superseded = relay.stats().getSuperseded();
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> late = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    availabilityOutbox.add(new BookAvailabilityEvent(BOOK_ID + 3, true, 1));
+                    written.countDown();
+                    try {
+                        commit.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+        transactionTemplate.executeWithoutResult(status ->
+                availabilityOutbox.add(new BookAvailabilityEvent(BOOK_ID + 3, false, 0)));
+        awaitUntil(() -> received.size() == 1);
+
+        commit.countDown();
+        late.get(5, TimeUnit.SECONDS);
+        awaitUntil(() -> relay.stats().getSuperseded() == superseded + 1);
+
+        assertEquals(1, received.size());
+        assertEquals(0, received.get(0).getAvailableCopies());
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            if (condition.getAsBoolean()) {
+                return;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrupted while waiting for the outbox relay");
+            }
+        }
+        fail("Outbox relay did not get there in time");
+    }
+}
@@ -0,0 +1,195 @@
+package com.getir.librarymanagementsystem.reminder;
+
+import com.getir.librarymanagementsystem.model.dto.response.ReminderStatsResponse;
+import com.getir.librarymanagementsystem.repository.BorrowReminder;
+import com.getir.librarymanagementsystem.repository.BorrowRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DueDateReminderSchedulerTest {
+
+    private static final LocalDate DUE = LocalDate.of(2025, 6, 20);
+    private static final LocalTime SEND_AT = LocalTime.of(9, 0);
+
+    private BorrowRepository borrowRepository;
+    private InMemoryReminderNotifier notifier;
+    private MutableClock clock;
+    private DueDateReminderScheduler scheduler;
+    private final List<BorrowReminder> loans = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        borrowRepository = mock(BorrowRepository.class);
+        when(borrowRepository.findRemindersByIdIn(anyList())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return loans.stream().filter(loan -> ids.contains(loan.borrowId())).toList();
+        });
+        notifier = new InMemoryReminderNotifier();
+        clock = new MutableClock(at(DUE.minusDays(10), LocalTime.NOON));
+        scheduler = new DueDateReminderScheduler(borrowRepository, notifier, clock, 2, SEND_AT, 500, 60);
+    }
+
+    @Test
+    void whenTimeReachesReminders_thenBothAreSentInOrderAndNotBefore() {
+        openLoan(1L, DUE);
+        scheduler.schedule(1L, DUE);
+
+        moveTo(at(DUE.minusDays(2), SEND_AT).minusSeconds(1));
+        assertTrue(notifier.sent().isEmpty());
+
+        moveTo(at(DUE.minusDays(2), SEND_AT).plusSeconds(30));
+        assertEquals(List.of(ReminderKind.BEFORE_DUE), kinds());
+        assertEquals(1, scheduler.pendingCount());
+
+        moveTo(at(DUE, SEND_AT).plusSeconds(59));
+        assertEquals(List.of(ReminderKind.BEFORE_DUE, ReminderKind.DUE), kinds());
+        assertEquals(0, scheduler.pendingCount());
+
+        ReminderStatsResponse stats = scheduler.stats();
+        assertEquals(2, stats.getSent());
+        assertTrue(stats.getMaxLagMillis() < 60_000);
+    }
+
+    @Test
+    void whenLoanIsCancelled_thenNoReminderIsSent() {
+        openLoan(1L, DUE);
+        scheduler.schedule(1L, DUE);
+        scheduler.cancel(1L);
+
+        moveTo(at(DUE, SEND_AT).plusMinutes(5));
+
+        assertTrue(notifier.sent().isEmpty());
+        assertEquals(0, scheduler.pendingCount());
+        assertEquals(1, scheduler.stats().getCancelled());
+        verify(borrowRepository, never()).findRemindersByIdIn(any());
+    }
+
+    @Test
+    void whenLoanWasReturnedWithoutCancelling_thenReminderIsSkipped() {
+        loans.add(new BorrowReminder(1L, "patron", "patron@example.com", "Dune", DUE, true));
+        scheduler.schedule(1L, DUE);
+
+        moveTo(at(DUE, SEND_AT).plusMinutes(5));
+
+        assertTrue(notifier.sent().isEmpty());
+        assertEquals(1, scheduler.stats().getSkipped());
+    }
+
+    @Test
+    void whenReminderTimeHasPassed_thenOnlyTheNextOneIsScheduled() {
+        clock.set(at(DUE.minusDays(1), LocalTime.NOON));
+        openLoan(1L, DUE);
+        scheduler = new DueDateReminderScheduler(borrowRepository, notifier, clock, 2, SEND_AT, 500, 60);
+        scheduler.schedule(1L, DUE);
+
+        moveTo(at(DUE, SEND_AT).plusMinutes(1));
+
+        assertEquals(List.of(ReminderKind.DUE), kinds());
+    }
+
+    @Test
+    void whenNotifierFails_thenBatchIsRetriedOnTheNextTick() {
+        ReminderNotifier failing = mock(ReminderNotifier.class);
+        doThrow(new IllegalStateException("SMTP stub is down")).when(failing).send(anyList());
+        scheduler = new DueDateReminderScheduler(borrowRepository, failing, clock, 2, SEND_AT, 500, 60);
+        openLoan(1L, DUE);
+        scheduler.schedule(1L, DUE);
+
+        moveTo(at(DUE.minusDays(2), SEND_AT));
+        assertEquals(1, scheduler.pendingCount());
+        assertEquals(1, scheduler.stats().getFailed());
+
+        moveTo(at(DUE.minusDays(2), SEND_AT).plusMinutes(2));
+        verify(failing, times(3)).send(anyList());
+        assertEquals(0, scheduler.stats().getSent());
+    }
+
+    @Test
+    void whenPartOfABatchIsNotDelivered_thenOnlyThoseRemindersAreRetried() {
+        ReminderNotifier partial = mock(ReminderNotifier.class);
+        List<List<Long>> batches = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<DueReminder> reminders = invocation.getArgument(0);
+            batches.add(reminders.stream().map(DueReminder::borrowId).toList());
+            if (batches.size() == 1) {
+                throw new ReminderDeliveryException(
+                        reminders.stream().filter(reminder -> reminder.borrowId() == 2L).toList(),
+                        new IllegalStateException("Mailbox full"));
+            }
+            return null;
+        }).when(partial).send(anyList());
+        scheduler = new DueDateReminderScheduler(borrowRepository, partial, clock, 2, SEND_AT, 500, 60);
+        openLoan(1L, DUE);
+        openLoan(2L, DUE);
+        scheduler.schedule(1L, DUE);
+        scheduler.schedule(2L, DUE);
+
+        moveTo(at(DUE.minusDays(2), SEND_AT).plusMinutes(2));
+
+        assertEquals(2, batches.size());
+        assertEquals(Set.of(1L, 2L), Set.copyOf(batches.get(0)));
+        assertEquals(List.of(2L), batches.get(1));
+        assertEquals(2, scheduler.stats().getSent());
+        assertEquals(1, scheduler.stats().getFailed());
+    }
+
+    @Test
+    void whenManyLoansAreDue_thenTheyGoOutInBatches() {
+        scheduler = new DueDateReminderScheduler(borrowRepository, notifier, clock, 2, SEND_AT, 100, 60);
+        for (long id = 1; id <= 250; id++) {
+            openLoan(id, DUE);
+            scheduler.schedule(id, DUE);
+        }
+        assertEquals(250, scheduler.pendingCount());
+
+        moveTo(at(DUE, SEND_AT).plusMinutes(1));
+
+        assertEquals(500, notifier.sent().size());
+        verify(borrowRepository, times(6)).findRemindersByIdIn(anyList());
+        assertEquals(0, scheduler.pendingCount());
+    }
+
+    private void openLoan(Long id, LocalDate dueDate) {
+        loans.add(new BorrowReminder(id, "patron" + id, "patron" + id + "@example.com", "Book " + id, dueDate, false));
+    }
+
+    // Moves the clock a minute at a time like the ticker would.
+    private void moveTo(Instant target) {
+        while (clock.instant().isBefore(target)) {
+            Instant next = clock.instant().plus(Duration.ofMinutes(1));
+            clock.set(next.isAfter(target) ? target : next);
+            scheduler.tick();
+        }
+    }
+
+    private List<ReminderKind> kinds() {
+        return notifier.sent().stream().map(DueReminder::kind).toList();
+    }
+
+    private static Instant at(LocalDate day, LocalTime time) {
+        return LocalDateTime.of(day, time).toInstant(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,59 @@
+package com.getir.librarymanagementsystem.reminder;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class SmtpReminderNotifierTest {
+
+    private static final LocalDate DUE = LocalDate.of(2025, 6, 20);
+
+    private final JavaMailSender mailSender = mock(JavaMailSender.class);
+    private final SmtpReminderNotifier notifier = new SmtpReminderNotifier(mailSender, "library@localhost");
+
+    @Test
+    void whenSomeMessagesAreRejected_thenOnlyTheirRemindersAreReported() {
+        DueReminder delivered = reminder(1L, "one@example.com");
+        DueReminder rejected = reminder(2L, "two@example.com");
+        doAnswer(invocation -> {
+            SimpleMailMessage failed = Arrays.stream((SimpleMailMessage[]) invocation.getRawArguments()[0])
+                    .filter(message -> "two@example.com".equals(message.getTo()[0]))
+                    .findFirst().orElseThrow();
+            throw new MailSendException(Map.<Object, Exception>of(failed, new IllegalStateException("Mailbox full")));
+        }).when(mailSender).send(any(SimpleMailMessage[].class));
+
+        ReminderDeliveryException thrown = assertThrows(ReminderDeliveryException.class,
+                () -> notifier.send(List.of(delivered, rejected)));
+
+        assertEquals(List.of(rejected), thrown.getUndelivered());
+    }
+
+    @Test
+    void whenTheFailureIsNotPerMessage_thenTheWholeBatchFails() {
+        MailSendException down = new MailSendException("Connection refused");
+        doThrow(down).when(mailSender).send(any(SimpleMailMessage[].class));
+
+        MailSendException thrown = assertThrows(MailSendException.class,
+                () -> notifier.send(List.of(reminder(1L, "one@example.com"))));
+
+        assertSame(down, thrown);
+    }
+
+    private static DueReminder reminder(Long borrowId, String contactInfo) {
+        return new DueReminder(borrowId, "patron" + borrowId, contactInfo, "Dune", DUE, ReminderKind.DUE);
+    }
+}
@@ -1,15 +1,36 @@
 package com.getir.librarymanagementsystem.service;
 
+import com.getir.librarymanagementsystem.cache.BookCache;
+import com.getir.librarymanagementsystem.model.dto.pagination.BookSortField;
+import com.getir.librarymanagementsystem.model.dto.pagination.KeysetCursor;
+import com.getir.librarymanagementsystem.model.dto.pagination.KeysetPage;
 import com.getir.librarymanagementsystem.model.entity.Book;
+import com.getir.librarymanagementsystem.model.mapper.BookMapper;
 import com.getir.librarymanagementsystem.repository.BookRepository;
+import com.getir.librarymanagementsystem.model.dto.response.BookResponse;
+import com.getir.librarymanagementsystem.model.dto.response.FacetCount;
+import com.getir.librarymanagementsystem.model.dto.response.FacetedSearchResponse;
+import com.getir.librarymanagementsystem.model.dto.response.SuggestionResponse;
+import com.getir.librarymanagementsystem.search.BookFacetIndex;
+import com.getir.librarymanagementsystem.search.BookSearchIndex;
+import com.getir.librarymanagementsystem.search.BookSuggestionIndex;
+import com.getir.librarymanagementsystem.search.BookTrigramIndex;
+import com.getir.librarymanagementsystem.search.FacetField;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -22,9 +43,39 @@ class BookServiceTest {
     @MockBean
     private BookRepository bookRepository;
 
+    @MockBean
+    private BookInventoryService bookInventory;
+
     @Autowired
     private BookService bookService;
 
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+
+    @Autowired
+    private BookTrigramIndex bookTrigramIndex;
+
+    @Autowired
+    private BookFacetIndex bookFacetIndex;
+
+    @Autowired
+    private BookSuggestionIndex bookSuggestionIndex;
+
+    @Autowired
+    private BookCache bookCache;
+
+    @Autowired
+    private BookMapper bookMapper;
+
+    @BeforeEach
+    void setUp() {
+        bookSearchIndex.clear();
+        bookTrigramIndex.clear();
+        bookFacetIndex.clear();
+        bookSuggestionIndex.clear();
+        bookCache.clear();
+    }
+
     @Test
     void save_ShouldReturnSavedBook() {
         Book book = new Book();
@@ -38,6 +89,51 @@ class BookServiceTest {
         verify(bookRepository).save(book);
     }
 
+    @Test
+    void save_ShouldStockOneCopyByDefault() {
+        Book book = new Book();
+        book.setTitle("Test Book");
+        when(bookRepository.save(book)).thenReturn(book);
+
+        bookService.save(book);
+
+        assertEquals(1, book.getTotalCopies());
+        assertEquals(1, book.getAvailableCopies());
+        assertEquals(1, book.getCopyStripes());
+        verify(bookInventory).stock(book);
+    }
+
+    @Test
+    void save_ShouldSpreadManyCopiesOverStripes() {
+        Book book = new Book();
+        book.setTotalCopies(20);
+        when(bookRepository.save(book)).thenReturn(book);
+
+        bookService.save(book);
+
+        assertEquals(BookInventoryService.MAX_STRIPES, book.getCopyStripes());
+        assertTrue(book.isAvailable());
+    }
+
+    @Test
+    void update_WithNewCopyCount_ShouldResizeInventory() {
+        Book existing = new Book();
+        existing.setId(1L);
+        existing.setIsbn("1234567890");
+        existing.setTotalCopies(2);
+        Book updateData = new Book();
+        updateData.setIsbn("1234567890");
+        updateData.setTotalCopies(5);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(bookRepository.save(existing)).thenReturn(existing);
+        when(bookInventory.available(1L)).thenReturn(4L);
+
+        Book updated = bookService.update(1L, updateData);
+
+        verify(bookInventory).resize(existing, 5);
+        assertEquals(4, updated.getAvailableCopies());
+    }
+
     @Test
     void update_WhenBookExists_ShouldUpdateAndReturnBook() {
         Long id = 1L;
@@ -77,6 +173,7 @@ class BookServiceTest {
     void delete_ShouldCallRepositoryDelete() {
         Long id = 1L;
         bookService.delete(id);
+        verify(bookInventory).remove(id);
         verify(bookRepository).deleteById(id);
     }
 
@@ -104,54 +201,282 @@ class BookServiceTest {
     }
 
     @Test
-    void findAll_ShouldReturnAllBooks() {
-        Book book1 = new Book();
-        Book book2 = new Book();
-        when(bookRepository.findAll()).thenReturn(Arrays.asList(book1, book2));
+    void findById_ShouldServeRepeatedLookupsFromCache() {
+        Book book = new Book();
+        book.setId(1L);
+        book.setTitle("The Hobbit");
+        book.setIsbn("9780261102217");
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+
+        bookService.findById(1L).orElseThrow().setTitle("Changed by caller");
+        Optional<Book> cached = bookService.findById(1L);
+        Optional<Book> byIsbn = bookService.findByIsbn("9780261102217");
+
+        assertEquals("The Hobbit", cached.orElseThrow().getTitle());
+        assertEquals(1L, byIsbn.orElseThrow().getId());
+        verify(bookRepository, times(1)).findById(1L);
+        verify(bookRepository, never()).findByIsbn(any());
+        assertEquals(2, bookService.cacheStats().getHits());
+        assertEquals(1, bookService.cacheStats().getMisses());
+    }
+
+    @Test
+    void findById_AfterUpdate_ShouldReloadBook() {
+        Book book = new Book();
+        book.setId(1L);
+        book.setTitle("The Hobbit");
+        book.setIsbn("9780261102217");
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookRepository.save(book)).thenReturn(book);
+        bookService.findById(1L);
+
+        Book updateData = new Book();
+        updateData.setTitle("The Hobbit, or There and Back Again");
+        updateData.setIsbn("9780261102217");
+        bookService.update(1L, updateData);
 
-        List<Book> books = bookService.findAll();
+        assertEquals("The Hobbit, or There and Back Again", bookService.findById(1L).orElseThrow().getTitle());
+        verify(bookRepository, times(3)).findById(1L);
+    }
 
-        assertEquals(2, books.size());
+    @Test
+    void findPage_ShouldReturnNextCursorWhenMoreRowsExist() {
+        BookResponse book1 = new BookResponse();
+        book1.setId(1L);
+        BookResponse book2 = new BookResponse();
+        book2.setId(2L);
+        BookResponse book3 = new BookResponse();
+        book3.setId(3L);
+        when(bookRepository.findResponsePageByIdAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(book1, book2, book3));
+
+        KeysetPage<BookResponse> page = bookService.findPage(BookSortField.ID, null, 2, false);
+
+        assertEquals(2, page.items().size());
+        assertNotNull(page.nextCursor());
+        assertNull(page.totalEstimate());
+        KeysetCursor cursor = KeysetCursor.parse(page.nextCursor(), BookSortField.ID.name());
+        assertEquals(2L, cursor.id());
     }
 
     @Test
-    void search_ShouldReturnMatchingBooks() {
-        Book book1 = new Book();
-        book1.setTitle("Java Programming");
-        book1.setAuthor("John Doe");
+    void findPage_ShouldContinueTitleOrderFromCursor() {
+        BookResponse book = new BookResponse();
+        book.setId(7L);
+        book.setTitle("Hamlet");
+        KeysetCursor after = new KeysetCursor(BookSortField.TITLE.name(), 5L, "Dune");
+        when(bookRepository.findResponsePageByTitleAfter(eq("Dune"), eq(5L), any(Pageable.class))).thenReturn(List.of(book));
 
-        Book book2 = new Book();
-        book2.setTitle("Spring Boot");
-        book2.setAuthor("Jane Doe");
+        KeysetPage<BookResponse> page = bookService.findPage(BookSortField.TITLE, after, 2, false);
 
-        when(bookRepository.findAll()).thenReturn(Arrays.asList(book1, book2));
+        assertEquals(List.of(book), page.items());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void search_ShouldReturnMatchingBooks() {
+        Book book1 = indexedBook(1L, "Java Programming", "John Doe");
+        Book book2 = indexedBook(2L, "Spring Boot", "Jane Doe");
+        stubFindResponsesByIdIn(book1, book2);
 
         // Test title search
-        List<Book> javaResults = bookService.search("java");
-        assertEquals(1, javaResults.size());
-        assertEquals("Java Programming", javaResults.get(0).getTitle());
+        Page<BookResponse> javaResults = bookService.search("java", 0, 10);
+        assertEquals(1, javaResults.getTotalElements());
+        assertEquals("Java Programming", javaResults.getContent().get(0).getTitle());
 
         // Test author search
-        List<Book> doeResults = bookService.search("doe");
-        assertEquals(2, doeResults.size());
+        Page<BookResponse> doeResults = bookService.search("doe", 0, 10);
+        assertEquals(2, doeResults.getTotalElements());
 
         // Test no results
-        List<Book> emptyResults = bookService.search("python");
+        Page<BookResponse> emptyResults = bookService.search("python", 0, 10);
         assertTrue(emptyResults.isEmpty());
     }
 
     @Test
     void search_ShouldBeCaseInsensitive() {
-        Book book = new Book();
-        book.setTitle("Spring Framework");
-        book.setAuthor("Martin Fowler");
+        Book book = indexedBook(1L, "Spring Framework", "Martin Fowler");
+        stubFindResponsesByIdIn(book);
+
+        Page<BookResponse> titleResults = bookService.search("SPRING", 0, 10);
+        Page<BookResponse> authorResults = bookService.search("fowler", 0, 10);
+
+        assertEquals(1, titleResults.getContent().size());
+        assertEquals(1, authorResults.getContent().size());
+    }
+
+    @Test
+    void search_ShouldRankTitleMatchesAboveAuthorMatches() {
+        Book byAuthor = indexedBook(1L, "Collected Essays", "George Orwell");
+        Book byTitle = indexedBook(2L, "Orwell: A Life", "Bernard Crick");
+        stubFindResponsesByIdIn(byAuthor, byTitle);
 
-        when(bookRepository.findAll()).thenReturn(List.of(book));
+        List<BookResponse> results = bookService.search("orwell", 0, 10).getContent();
 
-        List<Book> titleResults = bookService.search("spring");
-        List<Book> authorResults = bookService.search("fowler");
+        assertEquals(List.of(2L, 1L), results.stream().map(BookResponse::getId).toList());
+    }
+
+    @Test
+    void search_ShouldPaginateRankedResults() {
+        Book first = indexedBook(1L, "Dune", "Frank Herbert");
+        Book second = indexedBook(2L, "Dune Messiah", "Frank Herbert");
+        Book third = indexedBook(3L, "Children of Dune", "Frank Herbert");
+        stubFindResponsesByIdIn(first, second, third);
+
+        Page<BookResponse> page = bookService.search("dune", 1, 2);
+
+        assertEquals(3, page.getTotalElements());
+        assertEquals(1, page.getContent().size());
+    }
+
+    @Test
+    void search_ShouldNotReturnDeletedBooks() {
+        Book book = indexedBook(1L, "Refactoring", "Martin Fowler");
+        stubFindResponsesByIdIn(book);
+
+        bookService.delete(1L);
+
+        assertTrue(bookService.search("refactoring", 0, 10).isEmpty());
+    }
+
+    @Test
+    void search_WithFuzzy_ShouldTolerateMisspelledAuthor() {
+        Book book = indexedBook(1L, "Crime and Punishment", "Fyodor Dostoevsky");
+        indexedBook(2L, "War and Peace", "Leo Tolstoy");
+        stubFindResponsesByIdIn(book);
+
+        assertTrue(bookService.search("Dostoevksy", 0, 10).isEmpty());
+
+        Page<BookResponse> results = bookService.search("Dostoevksy", 0, 10, true);
+        assertEquals(List.of(1L), results.getContent().stream().map(BookResponse::getId).toList());
+    }
+
+    @Test
+    void search_WithFuzzy_ShouldRankExactMatchesAboveCorrections() {
+        Book exact = indexedBook(1L, "The Hobbit", "Tolkien");
+        Book close = indexedBook(2L, "The Hobbits Guide", "Unknown");
+        stubFindResponsesByIdIn(exact, close);
+
+        List<BookResponse> results = bookService.search("hobbit", 0, 10, true).getContent();
+
+        assertEquals(List.of(1L, 2L), results.stream().map(BookResponse::getId).toList());
+    }
+
+    @Test
+    void search_WithFuzzy_ShouldForgetDeletedWords() {
+        indexedBook(1L, "Refactoring", "Martin Fowler");
+
+        bookService.delete(1L);
+
+        assertTrue(bookTrigramIndex.expand("refactorng").isEmpty());
+        assertEquals(0, bookTrigramIndex.vocabularySize());
+    }
+
+    @Test
+    void facetedSearch_ShouldReturnHitsWithFacetCounts() {
+        Book hobbit = facetedBook(1L, "The Hobbit", "Tolkien", "Fantasy", 1937, true);
+        Book rings = facetedBook(2L, "The Return of the King", "Tolkien", "Fantasy", 1955, false);
+        Book dune = facetedBook(3L, "Dune", "Frank Herbert", "Sci-Fi", 1965, true);
+        stubFindResponsesByIdIn(hobbit, rings, dune);
+
+        FacetedSearchResponse all = bookService.facetedSearch(null, false, Map.of(), 0, 10, 10);
+
+        assertEquals(3, all.getTotalHits());
+        assertEquals(List.of(1L, 2L, 3L), all.getHits().stream().map(BookResponse::getId).toList());
+        assertEquals(List.of(new FacetCount("Fantasy", 2), new FacetCount("Sci-Fi", 1)), all.getFacets().get("genre"));
+        assertEquals(List.of(new FacetCount("true", 2), new FacetCount("false", 1)), all.getFacets().get("available"));
+
+        FacetedSearchResponse fantasy = bookService.facetedSearch("hobbit king dune", false, Map.of(FacetField.GENRE, "Fantasy"), 0, 10, 10);
+
+        assertEquals(2, fantasy.getTotalHits());
+        assertEquals(List.of(new FacetCount("Fantasy", 2), new FacetCount("Sci-Fi", 1)), fantasy.getFacets().get("genre"));
+        assertEquals(List.of(new FacetCount("Tolkien", 2)), fantasy.getFacets().get("author"));
+        assertEquals(List.of(new FacetCount("1937", 1), new FacetCount("1955", 1)), fantasy.getFacets().get("year"));
+    }
+
+    @Test
+    void facetedSearch_ShouldKeepOtherValuesOfFilteredFacet() {
+        facetedBook(1L, "The Hobbit", "Tolkien", "Fantasy", 1937, true);
+        facetedBook(2L, "Dune", "Frank Herbert", "Sci-Fi", 1965, true);
+        stubFindResponsesByIdIn();
+
+        FacetedSearchResponse response = bookService.facetedSearch(null, false, Map.of(FacetField.GENRE, "Fantasy"), 0, 10, 10);
+
+        assertEquals(1, response.getTotalHits());
+        assertEquals(List.of(new FacetCount("Fantasy", 1), new FacetCount("Sci-Fi", 1)), response.getFacets().get("genre"));
+    }
+
+    @Test
+    void facetedSearch_ShouldFollowAvailabilityChanges() {
+        facetedBook(1L, "The Hobbit", "Tolkien", "Fantasy", 1937, true);
+        stubFindResponsesByIdIn();
+
+        bookFacetIndex.onAvailabilityChanged(1L, false);
+
+        FacetedSearchResponse response = bookService.facetedSearch(null, false, Map.of(FacetField.AVAILABLE, "true"), 0, 10, 10);
+        assertEquals(0, response.getTotalHits());
+        assertEquals(List.of(new FacetCount("false", 1)), response.getFacets().get("available"));
+    }
+
+    @Test
+    void suggest_ShouldCompleteTitlesAndAuthorsByBorrowPopularity() {
+        indexedBook(1L, "The Lord of the Rings", "J.R.R. Tolkien");
+        indexedBook(2L, "The Lost Symbol", "Dan Brown");
+        indexedBook(3L, "Lolita", "Vladimir Nabokov");
+        bookSuggestionIndex.onBorrowed(2L);
+        bookSuggestionIndex.onBorrowed(2L);
+        bookSuggestionIndex.onBorrowed(1L);
+
+        List<SuggestionResponse> suggestions = bookService.suggest("The Lo", 10);
+
+        assertEquals(List.of("The Lost Symbol", "The Lord of the Rings"),
+                suggestions.stream().map(SuggestionResponse::getText).toList());
+        assertEquals(2, suggestions.get(0).getBorrowCount());
+
+        List<SuggestionResponse> authors = bookService.suggest("tolk", 10);
+        assertEquals(1, authors.size());
+        assertEquals("author", authors.get(0).getType());
+        assertEquals("J.R.R. Tolkien", authors.get(0).getText());
+    }
+
+    @Test
+    void suggest_ShouldFollowUpdatesAndDeletes() {
+        Book book = indexedBook(1L, "Dune", "Frank Herbert");
+        indexedBook(2L, "Dune Messiah", "Frank Herbert");
+
+        book.setTitle("Children of Dune");
+        bookService.save(book);
+        bookService.delete(2L);
+
+        assertTrue(bookService.suggest("dune", 10).isEmpty());
+        assertEquals(List.of("Children of Dune"),
+                bookService.suggest("child", 10).stream().map(SuggestionResponse::getText).toList());
+        assertEquals(1, bookService.suggest("frank", 10).get(0).getBookCount());
+    }
+
+    private Book facetedBook(Long id, String title, String author, String genre, int year, boolean available) {
+        Book book = indexedBook(id, title, author);
+        book.setGenre(genre);
+        book.setPublicationDate(LocalDate.of(year, 1, 1));
+        book.setAvailable(available);
+        return bookService.save(book);
+    }
+
+    private Book indexedBook(Long id, String title, String author) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        book.setAuthor(author);
+        when(bookRepository.save(book)).thenReturn(book);
+        return bookService.save(book);
+    }
 
-        assertEquals(1, titleResults.size());
-        assertEquals(1, authorResults.size());
+    private void stubFindResponsesByIdIn(Book... books) {
+        when(bookRepository.findResponsesByIdIn(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            List<BookResponse> found = new ArrayList<>();
+            ids.forEach(id -> Arrays.stream(books).filter(b -> b.getId().equals(id)).map(bookMapper::toResponse).forEach(found::add));
+            return found;
+        });
     }
-}
\ No newline at end of file
+}
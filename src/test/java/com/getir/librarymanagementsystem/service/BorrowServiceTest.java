@@ -1,6 +1,14 @@
 package com.getir.librarymanagementsystem.service;
 
+import com.getir.librarymanagementsystem.cache.BookCache;
+import com.getir.librarymanagementsystem.model.dto.request.BatchBorrowRequest;
+import com.getir.librarymanagementsystem.model.dto.request.BatchReturnRequest;
 import com.getir.librarymanagementsystem.model.dto.request.BorrowRequest;
+import com.getir.librarymanagementsystem.model.dto.response.BatchBorrowResponse;
+import com.getir.librarymanagementsystem.model.dto.response.BatchBorrowItem;
+import com.getir.librarymanagementsystem.model.dto.response.BatchItemStatus;
+import com.getir.librarymanagementsystem.model.dto.response.BatchReturnItem;
+import com.getir.librarymanagementsystem.model.dto.response.BatchReturnResponse;
 import com.getir.librarymanagementsystem.model.dto.response.BorrowResponse;
 import com.getir.librarymanagementsystem.model.dto.response.OverdueReportResponse;
 import com.getir.librarymanagementsystem.model.entity.Book;
@@ -8,10 +16,13 @@ import com.getir.librarymanagementsystem.model.entity.Borrow;
 import com.getir.librarymanagementsystem.model.entity.User;
 import com.getir.librarymanagementsystem.model.mapper.BorrowMapper;
 import com.getir.librarymanagementsystem.repository.BookRepository;
+import com.getir.librarymanagementsystem.repository.BorrowCheckIn;
 import com.getir.librarymanagementsystem.repository.BorrowRepository;
 import com.getir.librarymanagementsystem.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -20,12 +31,16 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ActiveProfiles("test")
@@ -44,9 +59,20 @@ class BorrowServiceTest {
     @MockBean
     private BorrowMapper borrowMapper;
 
+    @MockBean
+    private BookInventoryService bookInventory;
+
     @Autowired
     private BorrowService borrowService;
 
+    @Autowired
+    private BookCache bookCache;
+
+    @BeforeEach
+    void setUp() {
+        bookCache.clear();
+    }
+
     @Test
     void borrowBook_ShouldSuccessfullyBorrowWhenBookAvailable() {
         // Arrange
@@ -73,6 +99,9 @@ class BorrowServiceTest {
 
         when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
         when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
+        when(bookInventory.take(any(Book.class))).thenReturn(2);
+        when(bookInventory.available(bookId)).thenReturn(0L);
+        when(bookInventory.available(List.of(bookId))).thenReturn(Map.of(bookId, 0L));
 
         Borrow savedBorrow = new Borrow();
         savedBorrow.setId(1L);
@@ -93,9 +122,109 @@ class BorrowServiceTest {
         assertEquals(borrowDate, response.getBorrowDate());
         assertEquals(returnDate, response.getReturnDate());
 
-        verify(bookRepository).save(book);
-        assertFalse(book.isAvailable());
-        verify(borrowRepository).save(any(Borrow.class));
+        verify(bookRepository).lockAllById(List.of(bookId));
+        verify(bookRepository).markAllUnavailable(eq(List.of(bookId)), any(Instant.class));
+        verify(bookRepository, never()).save(any(Book.class));
+        ArgumentCaptor<Borrow> borrow = ArgumentCaptor.forClass(Borrow.class);
+        verify(borrowRepository).save(borrow.capture());
+        assertEquals(2, borrow.getValue().getCopyStripe());
+    }
+
+    @Test
+    void borrowBook_WhenCopiesRemain_ShouldKeepBookAvailable() {
+        BorrowRequest request = new BorrowRequest();
+        request.setBookId(1L);
+
+        Authentication authentication = mock(Authentication.class);
+        when(authentication.getName()).thenReturn("testUser");
+        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(new User()));
+
+        Book book = new Book();
+        book.setId(1L);
+        book.setTotalCopies(20);
+        book.setCopyStripes(8);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookInventory.take(any(Book.class))).thenReturn(5);
+        when(bookInventory.available(1L)).thenReturn(19L);
+        when(borrowRepository.save(any(Borrow.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        borrowService.borrowBook(request, authentication);
+
+        verify(bookRepository, never()).lockAllById(anyCollection());
+        verify(bookRepository, never()).markAllUnavailable(anyCollection(), any(Instant.class));
+        ArgumentCaptor<Borrow> borrow = ArgumentCaptor.forClass(Borrow.class);
+        verify(borrowRepository).save(borrow.capture());
+        assertEquals(LocalDate.now().plusDays(14), borrow.getValue().getDueDate());
+    }
+
+    @Test
+    void borrowBook_WhenAnotherBorrowerWins_ShouldFailWithoutSavingBorrow() {
+        BorrowRequest request = new BorrowRequest();
+        request.setBookId(1L);
+
+        Authentication authentication = mock(Authentication.class);
+        when(authentication.getName()).thenReturn("testUser");
+        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(new User()));
+
+        Book book = new Book();
+        book.setId(1L);
+        book.setAvailable(true);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookInventory.take(any(Book.class))).thenReturn(-1);
+
+        assertThrows(BookUnavailableException.class, () -> borrowService.borrowBook(request, authentication));
+        verify(borrowRepository, never()).save(any(Borrow.class));
+    }
+
+    @Test
+    void borrowBooks_ShouldBorrowAllBooksInOneBatch() {
+        Authentication authentication = mock(Authentication.class);
+        when(authentication.getName()).thenReturn("testUser");
+        User user = new User();
+        user.setUsername("testUser");
+        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(user));
+
+        Book first = Book.builder().id(1L).title("First").build();
+        Book second = Book.builder().id(2L).title("Second").build();
+        when(bookRepository.findAllById(any())).thenReturn(List.of(second, first));
+        when(bookInventory.takeEach(List.of(first, second))).thenReturn(new int[]{0, 3});
+        when(bookInventory.available(anyCollection())).thenReturn(Map.of(1L, 0L, 2L, 4L));
+        when(borrowRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        BatchBorrowRequest request = new BatchBorrowRequest();
+        request.setBookIds(List.of(1L, 2L));
+        BatchBorrowResponse response = borrowService.borrowBooks(request, authentication);
+
+        assertTrue(response.isCompleted());
+        assertEquals(List.of(BatchItemStatus.BORROWED, BatchItemStatus.BORROWED),
+                response.getItems().stream().map(BatchBorrowItem::getStatus).toList());
+        assertEquals("Second", response.getItems().get(1).getBorrow().getBookTitle());
+        verify(bookRepository).lockAllById(List.of(1L, 2L));
+        verify(bookRepository).markAllUnavailable(eq(List.of(1L, 2L)), any(Instant.class));
+        verify(borrowRepository).saveAll(anyList());
+        verify(userRepository, times(1)).findByUsername("testUser");
+    }
+
+    @Test
+    void borrowBooks_WhenOneBookIsUnavailable_ShouldBorrowNothing() {
+        Authentication authentication = mock(Authentication.class);
+        when(authentication.getName()).thenReturn("testUser");
+        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(new User()));
+
+        Book first = Book.builder().id(1L).build();
+        Book second = Book.builder().id(2L).build();
+        when(bookRepository.findAllById(any())).thenReturn(List.of(first, second));
+        when(bookInventory.takeEach(List.of(first, second))).thenReturn(new int[]{0, -1});
+
+        BatchBorrowRequest request = new BatchBorrowRequest();
+        request.setBookIds(List.of(1L, 2L, 3L));
+        BatchBorrowResponse response = borrowService.borrowBooks(request, authentication);
+
+        assertFalse(response.isCompleted());
+        assertEquals(List.of(BatchItemStatus.ROLLED_BACK, BatchItemStatus.UNAVAILABLE, BatchItemStatus.NOT_FOUND),
+                response.getItems().stream().map(BatchBorrowItem::getStatus).toList());
+        verify(borrowRepository, never()).saveAll(anyList());
+        verify(bookRepository, never()).markAllUnavailable(anyCollection(), any(Instant.class));
     }
 
     @Test
@@ -114,6 +243,7 @@ class BorrowServiceTest {
         when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
 
         Book book = new Book();
+        book.setId(7L);
         book.setAvailable(false);
 
         Borrow borrow = new Borrow();
@@ -121,13 +251,14 @@ class BorrowServiceTest {
         borrow.setUser(user);
         borrow.setBook(book);
         borrow.setReturned(false);
+        borrow.setCopyStripe(3);
 
         when(borrowRepository.findById(borrowId)).thenReturn(Optional.of(borrow));
-        when(borrowRepository.save(borrow)).thenReturn(borrow);
-        when(bookRepository.save(book)).thenReturn(book);
+        when(borrowRepository.markReturned(eq(borrowId), any(LocalDate.class), any(Instant.class))).thenReturn(1);
 
         BorrowResponse expectedResponse = new BorrowResponse();
         when(borrowMapper.toResponse(borrow)).thenReturn(expectedResponse);
+        when(bookInventory.available(List.of(7L))).thenReturn(Map.of(7L, 1L));
 
         // Act
         BorrowResponse response = borrowService.returnBook(borrowId, authentication);
@@ -136,10 +267,81 @@ class BorrowServiceTest {
         assertNotNull(response);
         assertEquals(expectedResponse, response);
         assertTrue(borrow.isReturned());
-        assertTrue(book.isAvailable());
+        assertFalse(book.isAvailable());
         assertEquals(LocalDate.now(), borrow.getReturnDate());
-        verify(borrowRepository).save(borrow);
-        verify(bookRepository).save(book);
+        verify(borrowRepository).markReturned(eq(borrowId), eq(LocalDate.now()), any(Instant.class));
+        verify(bookInventory).giveBack(7L, 3);
+        verify(bookRepository).lockAllById(List.of(7L));
+        verify(bookRepository).markAllAvailable(eq(List.of(7L)), any(Instant.class));
+    }
+
+    @Test
+    void returnBook_WhenReturnedConcurrently_ShouldFail() {
+        Authentication authentication = mock(Authentication.class);
+        when(authentication.getName()).thenReturn("testUser");
+
+        User user = new User();
+        user.setId(1L);
+        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(user));
+
+        Borrow borrow = new Borrow();
+        borrow.setId(1L);
+        borrow.setUser(user);
+        borrow.setBook(new Book());
+        when(borrowRepository.findById(1L)).thenReturn(Optional.of(borrow));
+        when(borrowRepository.markReturned(eq(1L), any(LocalDate.class), any(Instant.class))).thenReturn(0);
+
+        assertThrows(AccessDeniedException.class, () -> borrowService.returnBook(1L, authentication));
+        verify(bookInventory, never()).giveBack(any(), any());
+        verify(bookRepository, never()).lockAllById(anyCollection());
+    }
+
+    @Test
+    void checkIn_ShouldCloseBorrowsByIdAndIsbnWithBulkUpdates() {
+        when(borrowRepository.findCheckInsByIdIn(anyCollection())).thenReturn(List.of(
+                new BorrowCheckIn(1L, 10L, "isbn-10", 0, false),
+                new BorrowCheckIn(2L, 10L, "isbn-10", 1, true)));
+        when(borrowRepository.findOpenCheckInsByIsbnIn(anyCollection())).thenReturn(List.of(
+                new BorrowCheckIn(1L, 10L, "isbn-10", 0, false),
+                new BorrowCheckIn(3L, 10L, "isbn-10", 1, false),
+                new BorrowCheckIn(4L, 20L, "isbn-20", null, false)));
+        when(borrowRepository.markAllReturned(anyCollection(), any(LocalDate.class), any(Instant.class))).thenReturn(3);
+        when(bookInventory.available(anyCollection())).thenReturn(Map.of(10L, 2L, 20L, 1L));
+
+        BatchReturnRequest request = new BatchReturnRequest();
+        request.setBorrowIds(List.of(1L, 2L, 99L));
+        request.setIsbns(List.of("isbn-10", "isbn-20", "isbn-20"));
+        BatchReturnResponse response = borrowService.checkIn(request);
+
+        assertEquals(6, response.getProcessed());
+        assertEquals(3, response.getReturned());
+        assertEquals(List.of(BatchItemStatus.ALREADY_RETURNED, BatchItemStatus.NOT_FOUND, BatchItemStatus.NOT_FOUND),
+                response.getErrors().stream().map(BatchReturnItem::getStatus).toList());
+        verify(borrowRepository).markAllReturned(eq(List.of(1L, 3L, 4L)), eq(LocalDate.now()), any(Instant.class));
+        verify(bookInventory).giveBackAll(Map.of(10L, List.of(0, 1), 20L, Collections.singletonList(null)));
+        verify(bookRepository).lockAllById(List.of(10L, 20L));
+        verify(bookRepository).markAllAvailable(eq(List.of(10L, 20L)), any(Instant.class));
+        verify(borrowRepository, never()).markReturned(any(), any(), any());
+    }
+
+    @Test
+    void checkIn_WhenBorrowReturnedConcurrently_ShouldRetryChunkRowByRow() {
+        when(borrowRepository.findCheckInsByIdIn(anyCollection())).thenReturn(List.of(
+                new BorrowCheckIn(1L, 10L, "isbn-10", 0, false),
+                new BorrowCheckIn(2L, 20L, "isbn-20", 0, false)));
+        when(borrowRepository.markAllReturned(anyCollection(), any(LocalDate.class), any(Instant.class))).thenReturn(1);
+        when(borrowRepository.markReturned(eq(1L), any(LocalDate.class), any(Instant.class))).thenReturn(1);
+        when(borrowRepository.markReturned(eq(2L), any(LocalDate.class), any(Instant.class))).thenReturn(0);
+        when(bookInventory.available(anyCollection())).thenReturn(Map.of(10L, 1L));
+
+        BatchReturnRequest request = new BatchReturnRequest();
+        request.setBorrowIds(List.of(1L, 2L));
+        BatchReturnResponse response = borrowService.checkIn(request);
+
+        assertEquals(1, response.getReturned());
+        assertEquals(1, response.getFailed());
+        assertEquals(2L, response.getErrors().get(0).getBorrowId());
+        verify(bookInventory).giveBackAll(Map.of(10L, List.of(0)));
     }
 
     @Test
@@ -175,7 +377,7 @@ class BorrowServiceTest {
     void getOverdueBorrows_ShouldReturnOverdueBorrows() {
         // Arrange
         Borrow overdueBorrow = new Borrow();
-        when(borrowRepository.findByReturnDateIsNullAndBorrowDateBefore(any(LocalDate.class)))
+        when(borrowRepository.findOverdue(any(LocalDate.class)))
                 .thenReturn(List.of(overdueBorrow));
 
         BorrowResponse expectedResponse = new BorrowResponse();
@@ -187,14 +389,14 @@ class BorrowServiceTest {
         // Assert
         assertEquals(1, result.size());
         assertEquals(expectedResponse, result.get(0));
-        verify(borrowRepository).findByReturnDateIsNullAndBorrowDateBefore(any(LocalDate.class));
+        verify(borrowRepository).findOverdue(any(LocalDate.class));
     }
 
     @Test
     void getOverdueReport_ShouldReturnOverdueReport() {
         // Arrange
         Borrow overdueBorrow = new Borrow();
-        when(borrowRepository.findByReturnDateIsNullAndBorrowDateBefore(any(LocalDate.class)))
+        when(borrowRepository.findOverdue(any(LocalDate.class)))
                 .thenReturn(List.of(overdueBorrow));
 
         OverdueReportResponse expectedResponse = new OverdueReportResponse();
@@ -206,7 +408,7 @@ class BorrowServiceTest {
         // Assert
         assertEquals(1, result.size());
         assertEquals(expectedResponse, result.get(0));
-        verify(borrowRepository).findByReturnDateIsNullAndBorrowDateBefore(any(LocalDate.class));
+        verify(borrowRepository).findOverdue(any(LocalDate.class));
     }
 
     @Test
@@ -214,19 +416,21 @@ class BorrowServiceTest {
         // Arrange
         Long borrowId = 1L;
         Book book = new Book();
+        book.setId(3L);
         book.setAvailable(false);
 
         Borrow borrow = new Borrow();
         borrow.setBook(book);
         when(borrowRepository.findById(borrowId)).thenReturn(Optional.of(borrow));
-        when(bookRepository.save(book)).thenReturn(book);
+        when(bookInventory.available(List.of(3L))).thenReturn(Map.of(3L, 1L));
 
         // Act
         borrowService.delete(borrowId);
 
         // Assert
-        assertTrue(book.isAvailable());
-        verify(bookRepository).save(book);
+        assertFalse(book.isAvailable());
+        verify(bookInventory).giveBack(any(), any());
+        verify(bookRepository).markAllAvailable(eq(List.of(3L)), any(Instant.class));
         verify(borrowRepository).deleteById(borrowId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,191 @@
+package com.getir.librarymanagementsystem.stream;
+
+import com.getir.librarymanagementsystem.model.dto.event.BookAvailabilityEvent;
+import com.getir.librarymanagementsystem.service.BookAvailabilityPublisher;
+import com.getir.librarymanagementsystem.service.BookInventoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AvailabilityFeedTest {
+
+    private static final int REPLAY_CAPACITY = 4;
+
+    private BookAvailabilityPublisher publisher;
+    private BookInventoryService bookInventory;
+    private AvailabilityFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new BookAvailabilityPublisher();
+        bookInventory = mock(BookInventoryService.class);
+        when(bookInventory.available(anyCollection())).thenReturn(Map.of());
+        feed = new AvailabilityFeed(publisher, bookInventory, REPLAY_CAPACITY);
+    }
+
+    @Test
+    void whenABookChanges_thenOnlyItsSubscribersAreNotified() {
+        Recorder first = subscribe(List.of(1L), Long.MAX_VALUE);
+        Recorder second = subscribe(List.of(2L), Long.MAX_VALUE);
+        Recorder everything = subscribe(List.of(), Long.MAX_VALUE);
+
+        publisher.publish(new BookAvailabilityEvent(1L, false, 0));
+
+        assertEquals(1, first.events.size());
+        assertTrue(second.events.isEmpty());
+        assertEquals(1, everything.events.size());
+        assertEquals(2, feed.stats().getIndexedBooks());
+    }
+
+    @Test
+    void whenASubscriberIsNotReading_thenItGetsTheLatestStatePerBook() {
+        Recorder slow = subscribe(List.of(1L, 2L), 0);
+
+        publisher.publish(new BookAvailabilityEvent(1L, false, 0));
+        publisher.publish(new BookAvailabilityEvent(2L, false, 0));
+        publisher.publish(new BookAvailabilityEvent(1L, true, 1));
+        publisher.publish(new BookAvailabilityEvent(1L, true, 2));
+        assertTrue(slow.events.isEmpty());
+        assertEquals(2, feed.stats().getPending());
+
+        slow.request(10);
+
+        // Oldest first, so the id of every event sent is a point the client can resume from.
+        assertEquals(2, slow.events.size());
+        assertEquals(2L, slow.events.get(0).getBookId());
+        assertEquals(1L, slow.events.get(1).getBookId());
+        assertEquals(2, slow.events.get(1).getAvailableCopies());
+        assertEquals(List.of(2L, 4L), slow.resumeSequences);
+        assertEquals(2, feed.stats().getConflated());
+        assertEquals(0, feed.stats().getPending());
+    }
+
+    @Test
+    void whenSubscribing_thenTheCurrentStateComesFirst() {
+        when(bookInventory.available(anyCollection())).thenReturn(Map.of(1L, 3L));
+
+        Recorder kiosk = subscribe(List.of(1L), Long.MAX_VALUE);
+        publisher.publish(new BookAvailabilityEvent(1L, true, 2));
+
+        assertEquals(2, kiosk.events.size());
+        assertEquals(3, kiosk.events.get(0).getAvailableCopies());
+        assertEquals(2, kiosk.events.get(1).getAvailableCopies());
+    }
+
+    @Test
+    void whenASubscriberLeaves_thenItIsRemovedFromTheIndex() {
+        Recorder kiosk = subscribe(List.of(1L, 2L), Long.MAX_VALUE);
+        assertEquals(1, feed.stats().getSubscribers());
+
+        kiosk.dispose();
+        publisher.publish(new BookAvailabilityEvent(1L, false, 0));
+
+        assertEquals(0, feed.stats().getSubscribers());
+        assertEquals(0, feed.stats().getIndexedBooks());
+        assertTrue(kiosk.events.isEmpty());
+    }
+
+    @Test
+    void whenReconnectingWithinTheReplayWindow_thenMissedEventsAreReplayed() {
+        Recorder kiosk = subscribe(List.of(1L), Long.MAX_VALUE);
+        publisher.publish(new BookAvailabilityEvent(1L, true, 1));
+        String lastEventId = feed.eventId(kiosk.resumeSequences.getLast());
+        kiosk.dispose();
+
+        publisher.publish(new BookAvailabilityEvent(1L, false, 0));
+        publisher.publish(new BookAvailabilityEvent(2L, false, 0));
+        publisher.publish(new BookAvailabilityEvent(1L, true, 1));
+        Recorder resumed = subscribe(List.of(1L), lastEventId, Long.MAX_VALUE);
+
+        assertEquals(1, resumed.events.size());
+        assertEquals(1, resumed.events.get(0).getAvailableCopies());
+        assertEquals(List.of(4L), resumed.resumeSequences);
+        assertEquals(1, feed.stats().getResumed());
+        assertEquals(1, feed.stats().getSnapshots());
+    }
+
+    @Test
+    void whenReconnectingAfterTheReplayWindow_thenTheCurrentStateIsSentAgain() {
+        Recorder kiosk = subscribe(List.of(1L), Long.MAX_VALUE);
+        publisher.publish(new BookAvailabilityEvent(1L, true, 1));
+        String lastEventId = feed.eventId(kiosk.resumeSequences.getLast());
+        kiosk.dispose();
+
+        for (int i = 0; i <= REPLAY_CAPACITY; i++) {
+            publisher.publish(new BookAvailabilityEvent(2L, i % 2 == 0, i % 2));
+        }
+        when(bookInventory.available(anyCollection())).thenReturn(Map.of(1L, 5L));
+        Recorder resumed = subscribe(List.of(1L), lastEventId, Long.MAX_VALUE);
+
+        assertEquals(1, resumed.events.size());
+        assertEquals(5, resumed.events.get(0).getAvailableCopies());
+        assertEquals(List.of(feed.stats().getHeadSequence()), resumed.resumeSequences);
+        assertEquals(0, feed.stats().getResumed());
+    }
+
+    @Test
+    void whenFollowingEveryBookCannotBeResumed_thenAResetIsSent() {
+        publisher.publish(new BookAvailabilityEvent(1L, true, 1));
+
+        Recorder board = subscribe(List.of(), "previous-instance-42", Long.MAX_VALUE);
+        publisher.publish(new BookAvailabilityEvent(2L, true, 1));
+
+        assertEquals(1, board.resets);
+        assertEquals(List.of(1L, 2L), board.resumeSequences);
+        assertEquals(1, board.events.size());
+        assertEquals(1, feed.stats().getResets());
+    }
+
+    private Recorder subscribe(List<Long> bookIds, long initialDemand) {
+        return subscribe(bookIds, null, initialDemand);
+    }
+
+    private Recorder subscribe(List<Long> bookIds, String lastEventId, long initialDemand) {
+        Recorder recorder = new Recorder(initialDemand);
+        feed.subscribe(Set.copyOf(bookIds), lastEventId).subscribe(recorder);
+        return recorder;
+    }
+
+    private static final class Recorder extends BaseSubscriber<FeedEvent> {
+
+        private final long initialDemand;
+        private final List<BookAvailabilityEvent> events = new CopyOnWriteArrayList<>();
+        private final List<Long> resumeSequences = new CopyOnWriteArrayList<>();
+        private volatile int resets;
+
+        private Recorder(long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            if (initialDemand > 0) {
+                subscription.request(initialDemand);
+            }
+        }
+
+        @Override
+        protected void hookOnNext(FeedEvent feedEvent) {
+            if (feedEvent.resumeSequence() != null) {
+                resumeSequences.add(feedEvent.resumeSequence());
+            }
+            if (feedEvent.isReset()) {
+                resets++;
+            } else {
+                events.add(feedEvent.event());
+            }
+        }
+    }
+}